@@ -0,0 +1,5 @@
+#!/bin/bash
+
+# Throughput and p50/p99/p999 round latency for every transport.
+# Build first: mvn -pl benchmarks -am package -DskipTests
+java -jar "$(dirname "$0")/../target/benchmarks.jar" -rf json -rff benchmarks.json "$@"
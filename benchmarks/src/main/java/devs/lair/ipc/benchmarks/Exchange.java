@@ -0,0 +1,23 @@
+package devs.lair.ipc.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+class Exchange {
+
+    private Exchange() {
+    }
+
+    static void deleteDir(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) return;
+
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
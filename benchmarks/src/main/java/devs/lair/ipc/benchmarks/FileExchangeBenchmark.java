@@ -0,0 +1,109 @@
+package devs.lair.ipc.benchmarks;
+
+import devs.lair.ipc.jmx.service.channel.FileChannelMoveChannel;
+import devs.lair.ipc.jmx.service.channel.FileMoveChannel;
+import devs.lair.ipc.jmx.service.enums.MoveEncoding;
+import devs.lair.ipc.jmx.utils.Move;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Обмен ходом через обычные файлы, как в модулях file и signal:
+ * игрок пишет ход в пустой файл, арбитр проверяет размер, читает и очищает файл.
+ * Один вызов - один раунд на двух игроков. openChannels - те же файлы,
+ * но открытые на всю игру ({@link FileChannelMoveChannel})
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileExchangeBenchmark {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Path[] playerFiles = new Path[2];
+    private final FileMoveChannel[] channels = new FileMoveChannel[2];
+    private final FileChannelMoveChannel[] players = new FileChannelMoveChannel[2];
+    private final FileChannelMoveChannel[] arbiters = new FileChannelMoveChannel[2];
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("file-exchange");
+        for (int i = 0; i < 2; i++) {
+            playerFiles[i] = Files.createFile(dir.resolve("player" + i + ".move"));
+            channels[i] = new FileMoveChannel(playerFiles[i]);
+
+            players[i] = FileChannelMoveChannel.create(dir.resolve("channel" + i + ".move"),
+                    MoveEncoding.BYTE);
+            arbiters[i] = FileChannelMoveChannel.open(dir.resolve("channel" + i + ".move"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (int i = 0; i < 2; i++) {
+            players[i].close();
+            arbiters[i].close();
+        }
+        Exchange.deleteDir(dir);
+    }
+
+    @Benchmark
+    public void plainFiles(Blackhole bh) throws IOException {
+        for (Path playerFile : playerFiles) {
+            if (Files.size(playerFile) == 0) {
+                Files.write(playerFile, Move.getRandomMoveBytes(), WRITE);
+            }
+        }
+
+        for (Path playerFile : playerFiles) {
+            if (Files.size(playerFile) != 0) {
+                bh.consume(Move.valueOf(Files.readAllBytes(playerFile)));
+            }
+        }
+
+        for (Path playerFile : playerFiles) {
+            Files.write(playerFile, EMPTY);
+        }
+    }
+
+    @Benchmark
+    public void jmxFileChannel(Blackhole bh) throws IOException {
+        for (FileMoveChannel channel : channels) {
+            channel.publish(Move.getRandomMove());
+        }
+
+        for (FileMoveChannel channel : channels) {
+            bh.consume(channel.poll());
+        }
+
+        for (FileMoveChannel channel : channels) {
+            channel.clear();
+        }
+    }
+
+    @Benchmark
+    public void openChannels(Blackhole bh) throws IOException {
+        for (FileChannelMoveChannel player : players) {
+            player.publish(Move.getRandomMove());
+        }
+
+        for (FileChannelMoveChannel arbiter : arbiters) {
+            bh.consume(arbiter.poll());
+        }
+
+        for (FileChannelMoveChannel arbiter : arbiters) {
+            arbiter.clear();
+        }
+    }
+}
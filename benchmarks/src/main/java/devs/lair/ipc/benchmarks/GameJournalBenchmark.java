@@ -0,0 +1,60 @@
+package devs.lair.ipc.benchmarks;
+
+import devs.lair.ipc.jmx.service.GameJournal;
+import devs.lair.ipc.jmx.service.model.RoundRecord.Outcome;
+import devs.lair.ipc.jmx.utils.Move;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Запись раунда в журнал игр, как ее делает стол арбитра.
+ * Игроков немного, как за столами одного арбитра, поэтому имена
+ * пишутся в сегмент редко и замеряется именно запись раунда с прокруткой сегментов
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameJournalBenchmark {
+    private final String[] players = new String[16];
+
+    private GameJournal journal;
+    private Path dir;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("game-journal");
+        journal = new GameJournal(dir, "arbiter");
+        for (int i = 0; i < players.length; i++) {
+            players[i] = "player" + i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void appendRound() {
+        int i = round++;
+        journal.appendRound(i & 7, i & 3,
+                players[i & 15], players[(i + 1) & 15],
+                Move.ROCK, Move.PAPER, Outcome.SECOND_WINS, 1000);
+    }
+}
@@ -0,0 +1,91 @@
+package devs.lair.ipc.benchmarks;
+
+import devs.lair.ipc.jmx.service.channel.MemoryMoveChannel;
+import devs.lair.ipc.jmx.utils.Move;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Обмен ходом через отображенную в память область.
+ * configRegion - протокол memory.config из модуля memory: байт версии и данные за ним.
+ * moveRing - кольцевой буфер игрока из jmx ({@link MemoryMoveChannel})
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryExchangeBenchmark {
+    private static final int REGION_SIZE = 64;
+
+    private final MappedByteBuffer[] regions = new MappedByteBuffer[2];
+    private final byte[] versions = new byte[2];
+    private final byte[] readBuffer = new byte[REGION_SIZE - 2];
+
+    private final MemoryMoveChannel[] players = new MemoryMoveChannel[2];
+    private final MemoryMoveChannel[] arbiters = new MemoryMoveChannel[2];
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("memory-exchange");
+        for (int i = 0; i < 2; i++) {
+            try (FileChannel fc = FileChannel.open(dir.resolve("player" + i + ".config"), CREATE, READ, WRITE)) {
+                regions[i] = fc.map(FileChannel.MapMode.READ_WRITE, 0, REGION_SIZE);
+            }
+
+            Path ringFile = dir.resolve("player" + i + ".move");
+            players[i] = MemoryMoveChannel.create(ringFile);
+            arbiters[i] = MemoryMoveChannel.open(ringFile);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Exchange.deleteDir(dir);
+    }
+
+    @Benchmark
+    public void configRegion(Blackhole bh) {
+        for (MappedByteBuffer region : regions) {
+            byte[] move = Move.getRandomMoveBytes();
+            byte version = region.get(0);
+            region.put(0, (byte) -1);
+            region.put(1, (byte) move.length);
+            region.put(2, move);
+            region.put(0, (byte) (version == Byte.MAX_VALUE ? 0 : version + 1));
+        }
+
+        for (int i = 0; i < 2; i++) {
+            byte version = regions[i].get(0);
+            if (version != -1 && version != versions[i]) {
+                versions[i] = version;
+                int length = regions[i].get(1);
+                regions[i].get(2, readBuffer, 0, length);
+                bh.consume(Move.valueOf(new String(readBuffer, 0, length)));
+            }
+        }
+    }
+
+    @Benchmark
+    public void moveRing(Blackhole bh) {
+        for (MemoryMoveChannel player : players) {
+            player.publish(Move.getRandomMove());
+        }
+
+        for (MemoryMoveChannel arbiter : arbiters) {
+            bh.consume(arbiter.poll());
+        }
+    }
+}
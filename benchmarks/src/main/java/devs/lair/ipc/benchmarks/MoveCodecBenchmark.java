@@ -0,0 +1,39 @@
+package devs.lair.ipc.benchmarks;
+
+import devs.lair.ipc.jmx.service.enums.MoveEncoding;
+import devs.lair.ipc.jmx.utils.Move;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодирование и разбор хода без транспорта: строка с поиском по имени,
+ * как раньше, против кода в один байт и текста через общий буфер.
+ * Аллокации видно с -prof gc
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveCodecBenchmark {
+    private final byte[] buffer = new byte[Move.MAX_ENCODED_LENGTH];
+
+    @Benchmark
+    public Move string() {
+        return Move.valueOf(new String(Move.getRandomMove().toString().getBytes()));
+    }
+
+    @Benchmark
+    public Move singleByte() {
+        return Move.decode(Move.getRandomMove().encode());
+    }
+
+    @Benchmark
+    public Move text() {
+        int length = Move.getRandomMove().encode(buffer, 0, MoveEncoding.TEXT);
+        return Move.decode(buffer, 0, length);
+    }
+}
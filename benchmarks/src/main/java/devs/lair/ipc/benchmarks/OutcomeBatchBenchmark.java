@@ -0,0 +1,72 @@
+package devs.lair.ipc.benchmarks;
+
+import devs.lair.ipc.jmx.utils.Move;
+import devs.lair.ipc.jmx.utils.OutcomeBatch;
+import devs.lair.ipc.jmx.utils.OutcomeTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Исходы миллиона раундов: по одному через {@link Move#compareWith(Move)},
+ * обычным циклом по таблице и векторами. Для векторов форк запускается
+ * с модулем jdk.incubator.vector
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class OutcomeBatchBenchmark {
+    private static final int ROUNDS = 1 << 20;
+
+    @Param({"CLASSIC", "RPSLS"})
+    public String rules;
+
+    private OutcomeTable table;
+    private Move[] firstMoves;
+    private Move[] secondMoves;
+    private byte[] first;
+    private byte[] second;
+    private byte[] outcomes;
+
+    @Setup
+    public void setUp() {
+        table = rules.equals("RPSLS") ? OutcomeTable.RPSLS : OutcomeTable.CLASSIC;
+        Random random = new Random(42);
+        firstMoves = new Move[ROUNDS];
+        secondMoves = new Move[ROUNDS];
+        first = new byte[ROUNDS];
+        second = new byte[ROUNDS];
+        outcomes = new byte[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            first[i] = (byte) random.nextInt(table.size());
+            second[i] = (byte) random.nextInt(table.size());
+            firstMoves[i] = Move.values()[first[i] % Move.values().length];
+            secondMoves[i] = Move.values()[second[i] % Move.values().length];
+        }
+    }
+
+    @Benchmark
+    public byte[] compareWith() {
+        for (int i = 0; i < ROUNDS; i++) {
+            outcomes[i] = (byte) firstMoves[i].compareWith(secondMoves[i]);
+        }
+        return outcomes;
+    }
+
+    @Benchmark
+    public byte[] scalar() {
+        OutcomeBatch.evaluateScalar(table, first, second, outcomes);
+        return outcomes;
+    }
+
+    @Benchmark
+    public byte[] vector() {
+        OutcomeBatch.evaluate(table, first, second, outcomes);
+        return outcomes;
+    }
+}
@@ -0,0 +1,108 @@
+package devs.lair.ipc.benchmarks;
+
+import devs.lair.ipc.jmx.service.channel.MoveChannels;
+import devs.lair.ipc.jmx.service.enums.MoveEncoding;
+import devs.lair.ipc.jmx.service.enums.ProviderTransport;
+import devs.lair.ipc.jmx.service.enums.TransportType;
+import devs.lair.ipc.jmx.service.interfaces.IPlayerProvider;
+import devs.lair.ipc.jmx.service.interfaces.MoveChannel;
+import devs.lair.ipc.jmx.service.socket.ProviderSocketServer;
+import devs.lair.ipc.jmx.service.socket.SocketPlayerProvider;
+import devs.lair.ipc.jmx.utils.Move;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный раунд jmx: арбитр получает двух игроков у провайдера через RMI
+ * или unix domain сокет, забирает их ходы через выбранный транспорт и завершает игроков.
+ * Каналы открываются один раз, как у арбитра на протяжении матча
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProviderExchangeBenchmark {
+
+    @Param({"FILE", "MEMORY", "SOCKET", "CHANNEL"})
+    public TransportType transport;
+
+    @Param({"RMI", "SOCKET"})
+    public ProviderTransport providerTransport;
+
+    private final Map<String, MoveChannel> playerSide = new HashMap<>();
+    private final Map<String, MoveChannel> arbiterSide = new HashMap<>();
+    private final String[] players = new String[2];
+
+    private QueuePlayerProvider provider;
+    private IPlayerProvider stub;
+    private Registry registry;
+    private ProviderSocketServer socketServer;
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("provider-exchange");
+        for (String name : new String[]{"player0", "player1"}) {
+            Path playerFile = dir.resolve(name + ".move");
+            playerSide.put(name, MoveChannels.create(transport, MoveEncoding.BYTE, playerFile));
+            arbiterSide.put(name, MoveChannels.open(transport, playerFile));
+        }
+
+        provider = new QueuePlayerProvider("player0", "player1");
+        if (providerTransport == ProviderTransport.SOCKET) {
+            Path socketFile = dir.resolve("provider.sock");
+            socketServer = new ProviderSocketServer(provider, socketFile);
+            socketServer.start();
+            stub = SocketPlayerProvider.connect(socketFile);
+            return;
+        }
+
+        registry = LocateRegistry.createRegistry(RmiExchangeBenchmark.REGISTRY_PORT);
+        registry.bind(IPlayerProvider.class.getName(), UnicastRemoteObject.exportObject(provider, 0));
+        stub = (IPlayerProvider) registry.lookup(IPlayerProvider.class.getName());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        playerSide.values().forEach(MoveChannel::close);
+        arbiterSide.values().forEach(MoveChannel::close);
+        if (socketServer != null) {
+            ((SocketPlayerProvider) stub).close();
+            socketServer.close();
+        } else {
+            registry.unbind(IPlayerProvider.class.getName());
+            UnicastRemoteObject.unexportObject(provider, true);
+            UnicastRemoteObject.unexportObject(registry, true);
+        }
+        Exchange.deleteDir(dir);
+    }
+
+    @Benchmark
+    public void jmxRound(Blackhole bh) throws IOException {
+        for (int position = 0; position < 2; position++) {
+            players[position] = stub.getPlayerName("arbiter", position);
+            playerSide.get(players[position]).publish(Move.getRandomMove());
+        }
+
+        for (String player : players) {
+            MoveChannel channel = arbiterSide.get(player);
+            bh.consume(channel.poll());
+            channel.clear();
+        }
+
+        stub.finishPlayer("arbiter", players);
+    }
+}
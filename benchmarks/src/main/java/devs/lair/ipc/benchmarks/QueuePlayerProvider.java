@@ -0,0 +1,66 @@
+package devs.lair.ipc.benchmarks;
+
+import devs.lair.ipc.jmx.service.interfaces.IPlayerProvider;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Очередь игроков с тем же контрактом, что и у PlayerProvider, но без файлов,
+ * процессов и учета арбитров. Завершенные игроки сразу встают обратно в очередь,
+ * чтобы замер не упирался в пустую очередь
+ */
+
+class QueuePlayerProvider implements IPlayerProvider {
+    private final Queue<String> players = new ConcurrentLinkedQueue<>();
+
+    QueuePlayerProvider(String... playerNames) {
+        players.addAll(List.of(playerNames));
+    }
+
+    @Override
+    public String getPlayerName(String arbiterName, int position) {
+        return players.poll();
+    }
+
+    @Override
+    public synchronized String[] leasePair(String arbiterName) {
+        String first = players.poll();
+        String second = players.poll();
+        if (first != null && second != null) {
+            return new String[]{first, second};
+        }
+
+        if (first != null) {
+            players.add(first);
+        }
+        return null;
+    }
+
+    @Override
+    public void returnPlayer(String arbiterName, String player) {
+        players.add(player);
+    }
+
+    @Override
+    public void killZombie(String arbiterName, String player) {
+    }
+
+    @Override
+    public void finishPlayer(String arbiterName, String[] finished) {
+        for (String player : finished) {
+            if (player != null) {
+                players.add(player);
+            }
+        }
+    }
+
+    @Override
+    public void reportCapacity(String arbiterName, int freeTables, int totalTables) {
+    }
+
+    @Override
+    public void reportRounds(String arbiterName, String[] players, byte[] outcomes) {
+    }
+}
@@ -0,0 +1,71 @@
+package devs.lair.ipc.benchmarks;
+
+import devs.lair.ipc.jmx.service.interfaces.IPlayerProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Получение игроков через RMI, как в модуле rmi: поиск сервиса в Registry
+ * и удаленный вызов getPlayerName на каждое место. Отдельно замеряется
+ * вызов через закешированную заглушку, как это делает jmx арбитр
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RmiExchangeBenchmark {
+    static final int REGISTRY_PORT = 1199;
+
+    private final String[] players = new String[2];
+    private QueuePlayerProvider provider;
+    private IPlayerProvider stub;
+    private Registry registry;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        provider = new QueuePlayerProvider("player0", "player1");
+        registry = LocateRegistry.createRegistry(REGISTRY_PORT);
+        registry.bind(IPlayerProvider.class.getName(), UnicastRemoteObject.exportObject(provider, 0));
+        stub = lookup();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        registry.unbind(IPlayerProvider.class.getName());
+        UnicastRemoteObject.unexportObject(provider, true);
+        UnicastRemoteObject.unexportObject(registry, true);
+    }
+
+    @Benchmark
+    public void lookupPerRound(Blackhole bh) throws Exception {
+        round(lookup(), bh);
+    }
+
+    @Benchmark
+    public void cachedStub(Blackhole bh) throws RemoteException {
+        round(stub, bh);
+    }
+
+    private void round(IPlayerProvider playerProvider, Blackhole bh) throws RemoteException {
+        for (int position = 0; position < 2; position++) {
+            players[position] = playerProvider.getPlayerName("arbiter", position);
+        }
+        bh.consume(players);
+        playerProvider.finishPlayer("arbiter", players);
+    }
+
+    private IPlayerProvider lookup() throws RemoteException, NotBoundException {
+        return (IPlayerProvider) LocateRegistry.getRegistry(REGISTRY_PORT)
+                .lookup(IPlayerProvider.class.getName());
+    }
+}
@@ -0,0 +1,62 @@
+package devs.lair.ipc.benchmarks;
+
+import devs.lair.ipc.jmx.service.tournament.Strategies;
+import devs.lair.ipc.jmx.service.tournament.Tournament;
+import devs.lair.ipc.jmx.service.tournament.TournamentResult;
+import devs.lair.ipc.jmx.utils.OutcomeTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Турнир в памяти: 16 игроков, 120 пар по 100 матчей из 5 раундов.
+ * Один поток против общего пула fork/join, раунды в секунду -
+ * число раундов за операцию, деленное на время операции
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TournamentBenchmark {
+    private static final int PLAYERS = 16;
+    private static final int MATCHES_PER_PAIR = 100;
+    private static final int MAX_ROUND = 5;
+
+    @Param({"CLASSIC", "RPSLS"})
+    public String rules;
+
+    private Tournament tournament;
+    private ForkJoinPool single;
+
+    @Setup
+    public void setUp() {
+        OutcomeTable table = rules.equals("RPSLS") ? OutcomeTable.RPSLS : OutcomeTable.CLASSIC;
+        String[] strategies = {"random", "constant", "cycle", "counter"};
+
+        tournament = new Tournament(table, MAX_ROUND, 42);
+        for (int i = 0; i < PLAYERS; i++) {
+            String strategy = strategies[i % strategies.length];
+            tournament.addPlayer(strategy + i, Strategies.valueOf(strategy));
+        }
+        single = new ForkJoinPool(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        single.shutdown();
+    }
+
+    @Benchmark
+    public TournamentResult singleThread() {
+        return tournament.play(MATCHES_PER_PAIR, single);
+    }
+
+    @Benchmark
+    public TournamentResult commonPool() {
+        return tournament.play(MATCHES_PER_PAIR);
+    }
+}
@@ -0,0 +1,86 @@
+package devs.lair.ipc.benchmarks;
+
+import devs.lair.ipc.jmx.service.DirWatcher;
+import devs.lair.ipc.jmx.utils.Move;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Обмен ходом с уведомлением через WatchService, как в модуле watchapi:
+ * игрок пишет ход, арбитр просыпается по ENTRY_MODIFY и читает файл.
+ * В задержку раунда входит доставка события от inotify до потока {@link DirWatcher}
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WatchServiceExchangeBenchmark {
+    private static final long EVENT_TIMEOUT = TimeUnit.SECONDS.toNanos(1);
+
+    private final Path[] playerFiles = new Path[2];
+    private final AtomicLong modified = new AtomicLong();
+    private volatile Thread waiter;
+
+    private DirWatcher dirWatcher;
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("watch-exchange");
+        for (int i = 0; i < 2; i++) {
+            playerFiles[i] = Files.createFile(dir.resolve("player" + i + ".move"));
+            Files.write(playerFiles[i], Move.ROCK.toString().getBytes());
+        }
+
+        dirWatcher = new DirWatcher(dir.toString());
+        dirWatcher.addOnModifyListener(this::onModify);
+        dirWatcher.startWatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dirWatcher.close();
+        Exchange.deleteDir(dir);
+    }
+
+    @Benchmark
+    public void watchService(Blackhole bh) throws IOException {
+        waiter = Thread.currentThread();
+        for (Path playerFile : playerFiles) {
+            long seen = modified.get();
+
+            //Same length, no truncate: one write gives one MODIFY event
+            Files.write(playerFile, Move.ROCK.toString().getBytes(), WRITE);
+            awaitEvent(seen);
+            bh.consume(Move.valueOf(Files.readAllBytes(playerFile)));
+        }
+    }
+
+    private void awaitEvent(long seen) {
+        long deadline = System.nanoTime() + EVENT_TIMEOUT;
+        while (modified.get() == seen) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Не дождались события от WatchService");
+            }
+            LockSupport.parkNanos(this, EVENT_TIMEOUT);
+        }
+    }
+
+    private void onModify(WatchEvent<Path> event) {
+        modified.incrementAndGet();
+        LockSupport.unpark(waiter);
+    }
+}
@@ -1,31 +1,55 @@
 package devs.lair.ipc.jmx;
 
+import devs.lair.ipc.jmx.service.ConfigProvider;
+import devs.lair.ipc.jmx.service.GameJournal;
+import devs.lair.ipc.jmx.service.MoveNotifier;
+import devs.lair.ipc.jmx.service.enums.TransportType;
 import devs.lair.ipc.jmx.service.interfaces.ConfigurableProcess;
 import devs.lair.ipc.jmx.service.interfaces.IPlayerProvider;
-import devs.lair.ipc.jmx.utils.Move;
+import devs.lair.ipc.jmx.service.model.RoundRecord.Outcome;
+import devs.lair.ipc.jmx.service.socket.SocketPlayerProvider;
 import devs.lair.ipc.jmx.utils.Utils;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.PrintStream;
 import java.nio.file.*;
 import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import static devs.lair.ipc.jmx.service.enums.ProcessType.ARBITER;
-import static devs.lair.ipc.jmx.utils.Constants.ARBITER_DIR;
-import static devs.lair.ipc.jmx.utils.Constants.MAX_ATTEMPT_KEY;
+import static devs.lair.ipc.jmx.service.enums.ProviderTransport.SOCKET;
+import static devs.lair.ipc.jmx.service.enums.TransportType.CHANNEL;
+import static devs.lair.ipc.jmx.service.enums.TransportType.FILE;
+import static devs.lair.ipc.jmx.utils.Constants.*;
 import static devs.lair.ipc.jmx.utils.Utils.*;
 import static java.lang.Thread.currentThread;
 
 public class Arbiter extends ConfigurableProcess {
-    private final String[] players = new String[2];
-    private final Move[] moves = new Move[2];
-    private IPlayerProvider playerProvider;
-
-    private int roundNumber = 1;
+    private final List<GameTable> tables = new ArrayList<>();
+    private final MoveNotifier moveNotifier = new MoveNotifier();
+    private volatile IPlayerProvider playerProvider;
+    private ScheduledThreadPoolExecutor scheduler;
+    private GameJournal journal;
+
+    private final List<String> roundPlayers = new ArrayList<>();
+    private byte[] roundOutcomes = new byte[16];
+
+    /**
+     * Арбитр держит несколько игровых столов ({@link GameTable}) сразу.
+     * Столы - независимые конечные автоматы на общем планировщике,
+     * их число берется из arbiter.tables и меняется на лету.
+     * Главный поток только подстраивает число столов и раз в тик
+     * сообщает PlayerProvider, сколько столов свободно.
+     * Каждый сыгранный раунд пишется в журнал игр {@link GameJournal},
+     * а итоги раундов копятся и раз в тик уходят в PlayerProvider одним вызовом
+     */
 
     public Arbiter(String name) {
         this.name = name == null
@@ -33,22 +57,34 @@ public class Arbiter extends ConfigurableProcess {
                 : name;
     }
 
+    public Arbiter(String name, ConfigProvider sharedConfigProvider, IPlayerProvider playerProvider) {
+        super(sharedConfigProvider);
+        this.name = name;
+        this.playerProvider = playerProvider;
+    }
+
+    @Override
     public void start() {
-        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        prepareStart();
 
         Path arbiterFile = Paths.get(ARBITER_DIR + "/" + name);
-        try (configProvider) {
+        try (moveNotifier) {
             Files.createFile(arbiterFile);
+            openJournal();
+            scheduler = createScheduler();
             while (!currentThread().isInterrupted()) {
-                fetchPlayers();
+                if (interrupted) throw new IllegalStateException();
 
-                if (playersReady()) {
-                    printGreeting();
-                    fetchPlayersMove();
-                    fetchResult();
-                }
+                resizeTables();
+                watchMoves();
+                reportCapacity();
+                reportRounds();
 
-                Thread.sleep(configProvider.getArbiterTick());
+                int tick = configProvider.getArbiterTick();
+                if (tablesProgress(tick)) {
+                    heartbeat(tick);
+                }
+                Thread.sleep(tick);
             }
         } catch (FileAlreadyExistsException e) {
             System.out.println("Арбитр с именем " + name + " уже запущен " + e.getMessage());
@@ -57,52 +93,188 @@ public class Arbiter extends ConfigurableProcess {
         } catch (IOException e) {
             System.out.println("Ошибка при создании файла арбитра");
         } finally {
+            closeTables();
+            reportRounds();
+            closeJournal();
+            closeSocketProvider();
+            releaseConfig();
+            releaseHeartbeat();
             tryDelete(arbiterFile);
         }
+    }
+
+    private ScheduledThreadPoolExecutor createScheduler() {
+        int threads = Math.max(1, Math.min(configProvider.getArbiterTables(),
+                Runtime.getRuntime().availableProcessors()));
+
+        ThreadFactory threadFactory = isEmbedded()
+                ? Thread.ofVirtual().name(name + "-table-", 0).factory()
+                : Thread.ofPlatform().name(name + "-table-", 0).daemon().factory();
 
-        returnPlayers();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, threadFactory);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
     }
 
-    private void fetchPlayers() {
-        for (int position = 0; position < 2; position++) {
-            String playerName = players[position];
-            if (playerName == null || !Files.exists(getPathFromName(playerName))) {
-                if (interrupted) throw new IllegalStateException();
+    private void openJournal() {
+        try {
+            journal = new GameJournal(Paths.get(JOURNAL_DIR), name);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Не удалось открыть журнал игр " + e.getMessage());
+        }
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    private void resizeTables() {
+        int target = configProvider.getArbiterTables();
+        while (tables.size() < target) {
+            GameTable table = new GameTable(this, tables.size());
+            tables.add(table);
+            table.start(scheduler);
+        }
 
-                players[position] = fetchPlayerName(position);
-                roundNumber = 1;
+        //Busy tables are retired on later ticks, once their game is over
+        for (int i = tables.size() - 1; i >= target; i--) {
+            if (!tables.get(i).retireIfIdle()) break;
+            tables.remove(i);
+        }
+    }
+
+    private void closeTables() {
+        tables.forEach(GameTable::close);
+        tables.clear();
+
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void watchMoves() {
+        if (isMovedByFiles()) {
+            moveNotifier.startWatch(PLAYER_DIR);
+        }
+    }
+
+    /**
+     * Пульс арбитра - это ход игр, а не главный цикл. Стол делает шаг
+     * не реже таймаута хода, и если какой-то стол дольше не закончил ни одного,
+     * он завис (например, в вызове провайдера), и удар пропускается
+     */
+
+    private boolean tablesProgress(int tick) {
+        long stall = TimeUnit.MILLISECONDS.toNanos((long) tick * (configProvider.getMaxAttempt() + 1));
+        long now = System.nanoTime();
+        for (GameTable table : tables) {
+            if (now - table.getLastStepNanos() > stall) {
+                System.out.println("Стол арбитра " + name + " не делает шагов, пульс пропущен");
+                return false;
             }
         }
+        return true;
     }
 
-    private String fetchPlayerName(int position) {
+    private void reportCapacity() {
+        int free = (int) tables.stream().filter(table -> !table.isPlaying()).count();
         try {
-            if (playerProvider == null) {
-                Registry registry = LocateRegistry.getRegistry();
-                playerProvider = (IPlayerProvider) registry.lookup(IPlayerProvider.class.getName());
-            }
-            return playerProvider.getPlayerName(name, position);
+            getPlayerProvider().reportCapacity(name, free, tables.size());
         } catch (RemoteException e) {
-            playerProvider = null;
-            System.out.println("Ошибка при получения хода игрока из PlayerProvider");
+            resetPlayerProvider();
+            System.out.println("Ошибка при отправке числа свободных столов в PlayerProvider");
         } catch (NullPointerException | NotBoundException e) {
             System.out.println("Ошибка при получения сервиса PlayerProvider");
         }
-        return null;
     }
 
-    private void killZombie(String playerName) {
+    private void reportRounds() {
+        String[] players;
+        byte[] outcomes;
+        synchronized (roundPlayers) {
+            if (roundPlayers.isEmpty()) return;
+
+            players = roundPlayers.toArray(new String[0]);
+            outcomes = Arrays.copyOf(roundOutcomes, players.length / 2);
+            roundPlayers.clear();
+        }
+
         try {
-            playerProvider.killZombie(name, playerName);
+            getPlayerProvider().reportRounds(name, players, outcomes);
+            return;
+        } catch (RemoteException e) {
+            resetPlayerProvider();
+            System.out.println("Ошибка при отправке итогов раундов в PlayerProvider");
+        } catch (NullPointerException | NotBoundException e) {
+            System.out.println("Ошибка при получения сервиса PlayerProvider");
+        }
+        requeueRounds(players, outcomes);
+    }
 
-            if (playerName.equals(players[0])) {
-                players[0] = null;
-            }
+    /**
+     * Неотправленная пачка встает перед раундами, записанными за время вызова,
+     * и уйдет со следующей отправкой, иначе таблица лидеров недосчитается
+     */
 
-            if (playerName.equals(players[1])) {
-                players[1] = null;
+    private void requeueRounds(String[] players, byte[] outcomes) {
+        synchronized (roundPlayers) {
+            int queued = roundPlayers.size() / 2;
+            byte[] merged = new byte[Math.max(roundOutcomes.length, outcomes.length + queued)];
+            System.arraycopy(outcomes, 0, merged, 0, outcomes.length);
+            System.arraycopy(roundOutcomes, 0, merged, outcomes.length, queued);
+
+            roundOutcomes = merged;
+            roundPlayers.addAll(0, Arrays.asList(players));
+        }
+    }
+
+    String[] leasePair() {
+        if (interrupted) return null;
+
+        try {
+            return getPlayerProvider().leasePair(name);
+        } catch (RemoteException e) {
+            resetPlayerProvider();
+            System.out.println("Ошибка при получении пары игроков из PlayerProvider");
+        } catch (NullPointerException | NotBoundException e) {
+            System.out.println("Ошибка при получения сервиса PlayerProvider");
+        }
+        return null;
+    }
+
+    private synchronized IPlayerProvider getPlayerProvider() throws RemoteException, NotBoundException {
+        IPlayerProvider provider = playerProvider;
+        if (provider == null) {
+            if (configProvider.getProviderTransport() == SOCKET) {
+                provider = SocketPlayerProvider.connect(PROVIDER_SOCKET_PATH);
+            } else {
+                Registry registry = LocateRegistry.getRegistry();
+                provider = (IPlayerProvider) registry.lookup(IPlayerProvider.class.getName());
             }
+            playerProvider = provider;
+        }
+        return provider;
+    }
 
+    private synchronized void resetPlayerProvider() {
+        closeSocketProvider();
+        playerProvider = null;
+    }
+
+    private synchronized void closeSocketProvider() {
+        if (playerProvider instanceof SocketPlayerProvider socketProvider) {
+            socketProvider.close();
+            playerProvider = null;
+        }
+    }
+
+    void killZombie(String playerName) {
+        try {
+            playerProvider.killZombie(name, playerName);
         } catch (RemoteException e) {
             System.out.println("Ошибка при попытке убить зомби игрока");
         } catch (NullPointerException e) {
@@ -110,10 +282,9 @@ public class Arbiter extends ConfigurableProcess {
         }
     }
 
-    private void finishPlayers() {
+    void finishPlayers(String[] players) {
         try {
             playerProvider.finishPlayer(name, players);
-            players[0] = players[1] = null;
         } catch (RemoteException e) {
             System.out.println("Ошибка при попытке завершить процесс игрока");
         } catch (NullPointerException e) {
@@ -121,15 +292,9 @@ public class Arbiter extends ConfigurableProcess {
         }
     }
 
-    private void returnPlayers() {
+    void returnPlayer(String playerName) {
         try {
-            for (int i = 0; i < 2; i++) {
-                String player = players[i];
-                if (player != null) {
-                    playerProvider.returnPlayer(name, player);
-                    players[i] = null;
-                }
-            }
+            playerProvider.returnPlayer(name, playerName);
         } catch (RemoteException e) {
             System.out.println("Не удалось вернуть игрока");
         } catch (NullPointerException e) {
@@ -137,98 +302,37 @@ public class Arbiter extends ConfigurableProcess {
         }
     }
 
-    private void fetchPlayersMove() {
-        int counter = 0;
-        for (String playerName : players) {
-            moves[counter] = readPlayerMove(playerName);
-            printPlayerMove(moves[counter], playerName);
-            counter++;
-        }
-    }
-
-    private void fetchResult() {
-        if (moves[0] != null && moves[1] != null) {
-            printResult();
-            clearPlayersFiles();
-
-            if (roundNumber++ >= configProvider.getMaxRound()) {
-                System.out.printf("Игроки %s и %s завершили игру \n\n", players[0], players[1]);
-                finishPlayers();
+    void recordRound(String first, String second, Outcome outcome) {
+        synchronized (roundPlayers) {
+            int round = roundPlayers.size() / 2;
+            if (round == roundOutcomes.length) {
+                roundOutcomes = Arrays.copyOf(roundOutcomes, round * 2);
             }
+            roundOutcomes[round] = (byte) outcome.ordinal();
+            roundPlayers.add(first);
+            roundPlayers.add(second);
         }
     }
 
-    //public, fot test only
-    public boolean playersReady() {
-        if (players[0] == null || players[1] == null) {
-            System.out.printf("Не хватает %d игроков(а) \n",
-                    players[0] == null && players[1] == null ? 2 : 1);
-            return false;
-        }
-        return true;
-    }
-
-    //Refactor this!!!
-    private Move readPlayerMove(String playerName) {
-        int attempt = 0;
-        Path playerFile = getPathFromName(playerName);
-
-        try {
-            do {
-                if (Files.size(playerFile) == 0) {
-                    System.out.println("Ожидаем хода игрока " + playerName);
-                    Thread.sleep(configProvider.getArbiterTick());
-                    continue;
-                }
-                return Move.valueOf(Files.readAllBytes(playerFile));
-            } while (++attempt <= configProvider.readPositiveInt(MAX_ATTEMPT_KEY, 5));
-        } catch (Exception e) {
-            switch (e) {
-                case InterruptedException ie -> {
-                    return null;
-                }
-                case NoSuchFileException nsfe -> System.out.printf("Нет файла для игрока %s\n", playerName);
-                case IllegalArgumentException iae ->
-                        System.out.printf("Некорректный ход игрока %s. %s\n", playerName, iae.getMessage());
-                default -> System.out.println("Ошибка при получении хода игрока: " + e.getMessage());
-            }
-        }
-
-        killZombie(playerName);
-        return null;
+    boolean isNotified() {
+        return isMovedByFiles() && moveNotifier.isWatching();
     }
 
-    private void printGreeting() {
-        if (roundNumber == 1) {
-            System.out.printf("Началась новая игра \nИгроки %s и %s \n", players[0], players[1]);
-        }
-        System.out.printf("\nИгра номер %d \n", roundNumber);
+    private boolean isMovedByFiles() {
+        TransportType transport = configProvider.getMoveTransport();
+        return transport == FILE || transport == CHANNEL;
     }
 
-    private void printResult() {
-        int compare = moves[0].compareWith(moves[1]);
-        System.out.printf(compare == 0
-                ? "Ничья \n" :
-                "Выиграл %s \n", compare == 1 ? players[0] : players[1]);
+    ConfigProvider getConfigProvider() {
+        return configProvider;
     }
 
-    private void printPlayerMove(Move playerMove, String playerName) {
-        System.out.println(playerMove == null
-                ? "Нет хода игрока " + playerName
-                : "Ход игрока " + playerName + " = " + playerMove);
+    MoveNotifier getMoveNotifier() {
+        return moveNotifier;
     }
 
-    private void clearPlayersFiles() {
-        for (String playerName : players) {
-            if (playerName == null) continue;
-            try {
-                Files.write(getPathFromName(playerName), "".getBytes());
-            } catch (IOException ex) {
-                if (ex instanceof NoSuchFileException) {
-                    System.out.println("В момент очистки, нет файл игрока " + playerName);
-                }
-            }
-        }
+    GameJournal getJournal() {
+        return journal;
     }
 
     public static void main(String[] args) {
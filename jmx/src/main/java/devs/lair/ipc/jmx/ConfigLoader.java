@@ -1,9 +1,12 @@
 package devs.lair.ipc.jmx;
 
+import devs.lair.ipc.jmx.service.ConfigNotifier;
+import devs.lair.ipc.jmx.service.ConfigRegion;
 import devs.lair.ipc.jmx.service.DirWatcher;
+import devs.lair.ipc.jmx.service.WatchHub;
+import devs.lair.ipc.jmx.service.enums.ConfigSlot;
 
 import java.io.IOException;
-import java.nio.BufferOverflowException;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
@@ -18,8 +21,6 @@ public class ConfigLoader implements AutoCloseable {
     private MappedByteBuffer memory;
     private DirWatcher watcher;
 
-    private byte version = 0;
-
     public ConfigLoader() {
         if (!Files.exists(CONFIG_PATH)) {
             throw new IllegalArgumentException("Нет файла конфигурации: "
@@ -50,35 +51,30 @@ public class ConfigLoader implements AutoCloseable {
         Runtime.getRuntime().addShutdownHook(new Thread(this::close));
     }
 
-    public void loadFileToMemory() {
+    public synchronized void loadFileToMemory() {
         if (memory == null) {
             createMemoryBuffer();
         }
 
         try {
-            memory.put((byte) -1); // block read
-            Thread.sleep(WAIT_OTHERS_TIMEOUT); // wait others
-
-            memory.put(0, new byte[MEMORY_SIZE]);
-            memory.put(1, readConfigFile());
-            memory.put(0, ++version);
-        } catch (IOException | BufferOverflowException e) {
+            byte[] configBytes = readConfigFile();
+            ConfigRegion.publish(memory, ConfigSlot.parseAll(configBytes), configBytes);
+            ConfigNotifier.notifySubscribers();
+        } catch (IOException | IndexOutOfBoundsException e) {
             throw new IllegalStateException("Ну удалось записать файл в память " + e.getMessage());
-        } catch (InterruptedException ignored) {
-            throw new IllegalStateException("Основной поток был прерван");
         }
     }
 
     private byte[] readConfigFile() throws IOException {
         byte[] bytes = Files.readAllBytes(CONFIG_PATH);
-        if (bytes.length == 0 || bytes.length > MEMORY_SIZE) {
+        if (bytes.length == 0 || bytes.length > ConfigRegion.CAPACITY) {
             throw new IOException("Файл конфига не помещается в памяти");
         }
         return bytes;
     }
 
     private void watchByConfigFile() {
-        watcher = new DirWatcher(CONFIG_PATH.getParent().toString());
+        watcher = new DirWatcher(CONFIG_PATH.getParent().toString(), 0, false, WatchHub.shared());
         watcher.addOnModifyListener(this::onModify);
         watcher.startWatch();
     }
@@ -2,27 +2,40 @@ package devs.lair.ipc.jmx;
 
 import devs.lair.ipc.jmx.service.*;
 import devs.lair.ipc.jmx.service.model.ActorProcess;
+import devs.lair.ipc.jmx.service.model.PlayerStats;
 import devs.lair.ipc.jmx.utils.Utils;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
+import static devs.lair.ipc.jmx.service.enums.ProcessType.ARBITER;
 import static devs.lair.ipc.jmx.service.enums.ProcessType.CONFIG_LOADER;
 import static devs.lair.ipc.jmx.service.enums.ProcessType.PLAYER_PRODUCER;
 import static devs.lair.ipc.jmx.utils.Constants.*;
 
 public class GameController {
+    private static final long CONFIG_WAIT_MILLIS = 5000;
+
     private final ConfigProvider configProvider;
     private final PlayerProvider playerProvider;
     private final ArbiterProvider arbiterProvider;
     private final Balancer balancer;
 
     private final List<ActorProcess> actors = new ArrayList<>();
+    private final boolean embedded;
+    private final PrintStream console = System.out;
 
     public GameController() {
+        this(false);
+    }
+
+    public GameController(boolean embedded) {
+        this.embedded = embedded;
         configProvider = new ConfigProvider();
         arbiterProvider = new ArbiterProvider();
         playerProvider = new PlayerProvider(arbiterProvider);
@@ -38,25 +51,56 @@ public class GameController {
             configProvider.init();
             playerProvider.init();
             arbiterProvider.init();
+
+            if (embedded) {
+                //Actors share this JVM, their chatter must not reach the console
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                ProcessStarter.useEmbedded(new EmbeddedStarter(configProvider, playerProvider));
+            } else {
+                ProcessStarter.usePool(ARBITER, configProvider::getArbiterPoolSize);
+            }
             balancer.init();
 
             actors.add(ProcessStarter.startProcess(CONFIG_LOADER));
+            awaitConfig();
             actors.add(ProcessStarter.startProcess(PLAYER_PRODUCER));
 
             while (true) {
                 balancer.balance();
+                tickMetrics();
                 printStatus();
                 Thread.sleep(1000);
             }
         } catch (Exception ex) {
-            System.out.println("При инициализации произошла ошибка: " + ex.getMessage());
+            console.println("При инициализации произошла ошибка: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Игроки, запущенные до публикации конфига, взяли бы транспорт по умолчанию
+     * и разошлись с арбитрами, которые уже читают настроенный
+     */
+
+    private void awaitConfig() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + CONFIG_WAIT_MILLIS;
+        while (!configProvider.isLoaded()) {
+            if (System.currentTimeMillis() > deadline) {
+                console.println("Конфиг не загружен, игроки стартуют с настройками по умолчанию");
+                return;
+            }
+            Thread.sleep(10);
         }
     }
 
     private void commonChecks() throws IOException {
         Utils.createDirectoryIfNotExist(Paths.get(PLAYER_DIR));
         Utils.createDirectoryIfNotExist(Paths.get(ARBITER_DIR));
+        Utils.createDirectoryIfNotExist(Paths.get(PID_DIR));
+        PidRegistry.removeStale();
+        Utils.createDirectoryIfNotExist(Paths.get(JOURNAL_DIR));
         Utils.tryDelete(Paths.get(MEMORY_CONFIG_FILE));
+        //Слоты прошлого запуска: убитые акторы свои не освободили
+        Utils.tryDelete(HEARTBEAT_PATH);
     }
 
     private void waitConfigLoaderStarted() throws InterruptedException {
@@ -68,9 +112,18 @@ public class GameController {
     public void stop() {
         playerProvider.close();
         arbiterProvider.close();
+        balancer.getMetrics().unregister();
+        ProcessStarter.closePools();
         actors.forEach(ActorProcess::terminate);
     }
 
+    private void tickMetrics() {
+        long now = System.nanoTime();
+        playerProvider.getMetrics().tick(now);
+        arbiterProvider.getMetrics().tick(now);
+        balancer.getMetrics().tick(now);
+    }
+
     private void printStatus() {
         int arbiterCount = arbiterProvider.getArbitersCount();
         int querySize = playerProvider.getQuerySize();
@@ -80,12 +133,15 @@ public class GameController {
         int playerZombieCount = playerProvider.getZombieCount();
         int returned = playerProvider.getReturnedCount();
         int arbiterZombieCount = arbiterProvider.getZombieCount();
+        double queueWaitP99 = playerProvider.getMetrics().getQueueWait().getP99Millis();
+        List<PlayerStats> leaders = playerProvider.getLeaderboard().getLeaders(1);
 
-        System.out.printf("Всего Арбитров %d (z = %d), очередь %d, игроков обнаружено %d, выдано %d (r = %d), отыграли %d (z = %d) \n",
-                    arbiterCount, arbiterZombieCount, querySize, added, provided, returned, finished, playerZombieCount);
+        console.printf("Всего Арбитров %d (z = %d), очередь %d (p99 %.1f мс), игроков обнаружено %d, выдано %d (r = %d), отыграли %d (z = %d)%s \n",
+                    arbiterCount, arbiterZombieCount, querySize, queueWaitP99, added, provided, returned, finished, playerZombieCount,
+                    leaders.isEmpty() ? "" : ", лидер " + leaders.getFirst());
     }
 
     public static void main(String[] args) {
-        new GameController().init();
+        new GameController(args.length > 0 && "embedded".equals(args[0])).init();
     }
 }
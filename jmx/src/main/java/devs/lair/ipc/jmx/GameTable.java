@@ -0,0 +1,390 @@
+package devs.lair.ipc.jmx;
+
+import devs.lair.ipc.jmx.service.ConfigProvider;
+import devs.lair.ipc.jmx.service.GameJournal;
+import devs.lair.ipc.jmx.service.channel.MoveChannels;
+import devs.lair.ipc.jmx.service.interfaces.MoveChannel;
+import devs.lair.ipc.jmx.service.model.RoundRecord.Outcome;
+import devs.lair.ipc.jmx.utils.Move;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static devs.lair.ipc.jmx.utils.Utils.getPathFromName;
+
+class GameTable implements Runnable {
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Arbiter arbiter;
+    private final ConfigProvider configProvider;
+    private final int number;
+
+    private final String[] players = new String[2];
+    private final Move[] moves = new Move[2];
+    private final MoveChannel[] channels = new MoveChannel[2];
+
+    private final AtomicBoolean wakeQueued = new AtomicBoolean();
+
+    private volatile ScheduledExecutorService scheduler;
+    private volatile long lastStepNanos = System.nanoTime();
+    private ScheduledFuture<?> pending;
+    private boolean closed = false;
+
+    private int roundNumber = 1;
+    private long roundStart = 0;
+    private long deadline = 0;
+    private long backoff = MIN_BACKOFF_NANOS;
+
+    /**
+     * Один игровой стол арбитра. Стол - конечный автомат без собственного потока:
+     * каждый {@link #run()} делает один неблокирующий шаг (посадить пару,
+     * забрать ходы, подвести итог раунда) и сам планирует следующий шаг
+     * на общем планировщике арбитра. Поэтому столов может быть сколько угодно
+     * больше, чем потоков, и ожидание хода одного игрока не держит остальные игры
+     */
+
+    GameTable(Arbiter arbiter, int number) {
+        this.arbiter = arbiter;
+        this.configProvider = arbiter.getConfigProvider();
+        this.number = number;
+    }
+
+    synchronized void start(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+        lastStepNanos = System.nanoTime();
+        schedule(0);
+    }
+
+    /**
+     * Игрок походил: запускаем шаг сейчас, не дожидаясь запланированного.
+     * Зовется из общего потока {@link devs.lair.ipc.jmx.service.WatchHub}, поэтому
+     * монитор стола не берет: его может держать шаг, который ждет вызова провайдера.
+     * Повторные пробуждения до запуска шага схлопываются в одно
+     */
+
+    void wake() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor == null || !wakeQueued.compareAndSet(false, true)) return;
+
+        try {
+            executor.execute(this::runWoken);
+        } catch (RejectedExecutionException e) {
+            //Арбитр уже останавливается
+            wakeQueued.set(false);
+        }
+    }
+
+    private void runWoken() {
+        wakeQueued.set(false);
+        run();
+    }
+
+    @Override
+    public synchronized void run() {
+        if (closed) return;
+
+        long delay;
+        try {
+            delay = step();
+        } catch (RuntimeException e) {
+            System.out.printf("Ошибка на столе %d: %s \n", number, e.getMessage());
+            returnPlayers();
+            delay = getTickNanos();
+        }
+        lastStepNanos = System.nanoTime();
+        schedule(delay);
+    }
+
+    /**
+     * @return когда стол закончил последний шаг, по {@link System#nanoTime()}
+     */
+
+    long getLastStepNanos() {
+        return lastStepNanos;
+    }
+
+    synchronized boolean isPlaying() {
+        return players[0] != null || players[1] != null;
+    }
+
+    /**
+     * Закрывает стол, только если за ним никто не играет
+     *
+     * @return true, если стол закрыт
+     */
+
+    synchronized boolean retireIfIdle() {
+        if (isPlaying()) {
+            return false;
+        }
+        close();
+        return true;
+    }
+
+    synchronized void close() {
+        closed = true;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        returnPlayers();
+    }
+
+    /**
+     * @return через сколько наносекунд нужен следующий шаг
+     */
+
+    private long step() {
+        if (deadline == 0 && !seatPlayers()) {
+            return getTickNanos();
+        }
+
+        if (deadline == 0) {
+            printGreeting();
+            startRound();
+        }
+
+        for (int position = 0; position < 2; position++) {
+            if (moves[position] == null) {
+                moves[position] = pollMove(position);
+            }
+        }
+
+        if (players[0] == null || players[1] == null) {
+            //Don't sit half-full: give the lone player back to be paired elsewhere
+            returnPlayers();
+            return 0;
+        }
+
+        if (moves[0] != null && moves[1] != null) {
+            finishRound();
+            return 0;
+        }
+
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            recordRound(Outcome.TIMEOUT);
+            for (int position = 0; position < 2; position++) {
+                if (moves[position] == null) {
+                    System.out.println("Не дождались хода игрока " + players[position]);
+                    killZombie(position);
+                }
+            }
+            returnPlayers();
+            return 0;
+        }
+
+        //File events wake us up, mapped memory has none, so back off
+        if (arbiter.isNotified()) {
+            return Math.min(remaining, getMoveTimeout() / 2);
+        }
+
+        long delay = Math.min(remaining, backoff);
+        backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+        return delay;
+    }
+
+    private boolean seatPlayers() {
+        for (int position = 0; position < 2; position++) {
+            String playerName = players[position];
+            if (playerName != null && !Files.exists(getPathFromName(playerName))) {
+                closeChannel(position);
+                players[position] = null;
+            }
+        }
+
+        if (players[0] != null && players[1] != null) {
+            return true;
+        }
+
+        if (isPlaying()) {
+            returnPlayers();
+        }
+
+        roundNumber = 1;
+        String[] pair = arbiter.leasePair();
+        if (pair == null) {
+            return false;
+        }
+
+        players[0] = pair[0];
+        players[1] = pair[1];
+        return true;
+    }
+
+    private void startRound() {
+        roundStart = System.nanoTime();
+        deadline = roundStart + getMoveTimeout();
+        backoff = MIN_BACKOFF_NANOS;
+        moves[0] = moves[1] = null;
+
+        for (String playerName : players) {
+            arbiter.getMoveNotifier().expect(playerName, this::wake);
+        }
+    }
+
+    private void finishRound() {
+        for (int position = 0; position < 2; position++) {
+            printPlayerMove(moves[position], players[position]);
+        }
+        int compare = configProvider.getOutcomeTable().compare(moves[0].ordinal(), moves[1].ordinal());
+        recordRound(compare == 0 ? Outcome.DRAW : compare == 1 ? Outcome.FIRST_WINS : Outcome.SECOND_WINS);
+        printResult(compare);
+        clearPlayersFiles();
+        endRound();
+
+        if (roundNumber++ >= configProvider.getMaxRound()) {
+            System.out.printf("Игроки %s и %s завершили игру \n\n", players[0], players[1]);
+            finishPlayers();
+        }
+    }
+
+    private void endRound() {
+        for (String playerName : players) {
+            if (playerName != null) {
+                arbiter.getMoveNotifier().forget(playerName);
+            }
+        }
+        deadline = 0;
+        moves[0] = moves[1] = null;
+    }
+
+    private void recordRound(Outcome outcome) {
+        //В таймауте рейтинг штрафует только того, кто не походил
+        arbiter.recordRound(outcome != Outcome.TIMEOUT || moves[0] == null ? players[0] : null,
+                outcome != Outcome.TIMEOUT || moves[1] == null ? players[1] : null,
+                outcome);
+
+        GameJournal journal = arbiter.getJournal();
+        if (journal != null) {
+            journal.appendRound(number, roundNumber, players[0], players[1],
+                    moves[0], moves[1], outcome, System.nanoTime() - roundStart);
+        }
+    }
+
+    private Move pollMove(int position) {
+        String playerName = players[position];
+        try {
+            return getChannel(position).poll();
+        } catch (NoSuchFileException e) {
+            System.out.printf("Нет файла для игрока %s\n", playerName);
+        } catch (IllegalArgumentException e) {
+            System.out.printf("Некорректный ход игрока %s. %s\n", playerName, e.getMessage());
+        } catch (Exception e) {
+            System.out.println("Ошибка при получении хода игрока: " + e.getMessage());
+        }
+
+        killZombie(position);
+        return null;
+    }
+
+    private void killZombie(int position) {
+        String playerName = players[position];
+        arbiter.getMoveNotifier().forget(playerName);
+        arbiter.killZombie(playerName);
+        closeChannel(position);
+        players[position] = null;
+    }
+
+    private void finishPlayers() {
+        for (int position = 0; position < 2; position++) {
+            if (channels[position] != null) {
+                channels[position].finish();
+                closeChannel(position);
+            }
+        }
+
+        arbiter.finishPlayers(players);
+        players[0] = players[1] = null;
+    }
+
+    private void returnPlayers() {
+        endRound();
+        for (int position = 0; position < 2; position++) {
+            String playerName = players[position];
+            closeChannel(position);
+            if (playerName != null) {
+                arbiter.returnPlayer(playerName);
+                players[position] = null;
+            }
+        }
+    }
+
+    private MoveChannel getChannel(int position) throws IOException {
+        if (channels[position] == null) {
+            channels[position] = MoveChannels.open(configProvider.getMoveTransport(),
+                    getPathFromName(players[position]));
+        }
+        return channels[position];
+    }
+
+    private void closeChannel(int position) {
+        if (channels[position] != null) {
+            channels[position].close();
+            channels[position] = null;
+        }
+    }
+
+    private void clearPlayersFiles() {
+        for (int position = 0; position < 2; position++) {
+            if (channels[position] == null) continue;
+            try {
+                channels[position].clear();
+            } catch (IOException ex) {
+                if (ex instanceof NoSuchFileException) {
+                    System.out.println("В момент очистки, нет файл игрока " + players[position]);
+                }
+            }
+        }
+    }
+
+    private void schedule(long delayNanos) {
+        if (scheduler == null) return;
+
+        if (pending != null) {
+            pending.cancel(false);
+        }
+
+        try {
+            pending = scheduler.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            //Арбитр уже останавливается
+            pending = null;
+        }
+    }
+
+    private long getMoveTimeout() {
+        return TimeUnit.MILLISECONDS.toNanos((long) configProvider.getArbiterTick()
+                * configProvider.getMaxAttempt());
+    }
+
+    private long getTickNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(configProvider.getArbiterTick());
+    }
+
+    private void printGreeting() {
+        if (roundNumber == 1) {
+            System.out.printf("Стол %d: началась новая игра \nИгроки %s и %s \n", number, players[0], players[1]);
+        }
+        System.out.printf("\nСтол %d: игра номер %d \n", number, roundNumber);
+    }
+
+    private void printResult(int compare) {
+        System.out.printf(compare == 0
+                ? "Ничья \n" :
+                "Выиграл %s \n", compare == 1 ? players[0] : players[1]);
+    }
+
+    private void printPlayerMove(Move playerMove, String playerName) {
+        System.out.println(playerMove == null
+                ? "Нет хода игрока " + playerName
+                : "Ход игрока " + playerName + " = " + playerMove);
+    }
+}
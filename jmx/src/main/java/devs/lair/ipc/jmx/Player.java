@@ -1,20 +1,19 @@
 package devs.lair.ipc.jmx;
 
+import devs.lair.ipc.jmx.service.ConfigProvider;
+import devs.lair.ipc.jmx.service.channel.MoveChannels;
 import devs.lair.ipc.jmx.service.interfaces.ConfigurableProcess;
+import devs.lair.ipc.jmx.service.interfaces.MoveChannel;
 import devs.lair.ipc.jmx.utils.Move;
 import devs.lair.ipc.jmx.utils.Utils;
 
-import java.io.OutputStream;
-import java.io.PrintStream;
 import java.nio.file.FileAlreadyExistsException;
-import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 
 import static devs.lair.ipc.jmx.service.enums.ProcessType.PLAYER;
 import static devs.lair.ipc.jmx.utils.Utils.*;
 import static java.lang.Thread.currentThread;
-import static java.nio.file.StandardOpenOption.WRITE;
 
 public class Player extends ConfigurableProcess {
 
@@ -24,17 +23,24 @@ public class Player extends ConfigurableProcess {
                 : name;
     }
 
+    public Player(String name, ConfigProvider sharedConfigProvider) {
+        super(sharedConfigProvider);
+        this.name = name;
+    }
+
+    @Override
     public void start() {
-        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        prepareStart();
 
         Path playerFile = getPathFromName(name);
-        try (configProvider) {
-            Files.createFile(playerFile);
-            while (!currentThread().isInterrupted()) {
-                if (Files.size(playerFile) == 0) {
-                    Files.write(playerFile, Move.getRandomMoveBytes(), WRITE);
-                }
-                Thread.sleep(configProvider.getPlayerTick());
+        try (MoveChannel moveChannel = MoveChannels.create(configProvider.getMoveTransport(),
+                configProvider.getMoveEncoding(), playerFile)) {
+            while (!currentThread().isInterrupted() && !moveChannel.isFinished()) {
+                moveChannel.publish(Move.getRandomMove());
+
+                int tick = configProvider.getPlayerTick();
+                heartbeat(tick);
+                Thread.sleep(tick);
             }
 
         } catch (FileAlreadyExistsException e) {
@@ -46,6 +52,8 @@ public class Player extends ConfigurableProcess {
         } catch (Exception e) {
             System.out.println("Произошла непредвиденная ошибка: " + e.getMessage());
         } finally {
+            releaseConfig();
+            releaseHeartbeat();
             tryDelete(playerFile);
         }
     }
@@ -1,10 +1,12 @@
 package devs.lair.ipc.jmx;
 
+import devs.lair.ipc.jmx.service.ConfigProvider;
 import devs.lair.ipc.jmx.service.ProcessStarter;
 import devs.lair.ipc.jmx.service.interfaces.ConfigurableProcess;
+import devs.lair.ipc.jmx.service.model.ActorProcess;
 
-import java.io.OutputStream;
-import java.io.PrintStream;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,34 +14,76 @@ import static devs.lair.ipc.jmx.service.enums.ProcessType.PLAYER;
 import static java.lang.Thread.currentThread;
 
 public class PlayerProducer extends ConfigurableProcess {
-    private final List<ProcessHandle> players = new ArrayList<>();
+    private static final long COLD_START_TIMEOUT = 1500;
+
+    private final List<ActorProcess> players = new ArrayList<>();
     private int currentCount = 0;
 
+    public PlayerProducer() {
+    }
+
+    public PlayerProducer(ConfigProvider sharedConfigProvider) {
+        super(sharedConfigProvider);
+    }
+
+    @Override
+    public void start() {
+        startProduce();
+    }
+
     public void startProduce() {
-        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        prepareStart();
+        if (!isEmbedded()) {
+            ProcessStarter.usePool(PLAYER, configProvider::getPlayerPoolSize);
+        }
 
-        try (configProvider) {
+        try {
             while (!currentThread().isInterrupted()) {
                 if (currentCount < configProvider.getMaxPlayerCount()) {
-                    players.add(ProcessStarter.startProcess(PLAYER).getProcess());
+                    ActorProcess player = ProcessStarter.startProcess(PLAYER);
+                    if (player != null) {
+                        players.add(player);
+                    }
                     currentCount++;
                 }
 
-                players.removeIf(p -> !p.isAlive());
+                players.removeIf(ActorProcess::isDead);
                 Thread.sleep(configProvider.getProducerTick());
             }
         } catch (InterruptedException e) {
             System.out.println("Процесс был прерван");
+        } finally {
+            releaseConfig();
+            ProcessStarter.closePools();
         }
 
         try {
             //Need time to normally start ProcessStarter::startProcess
-            //Calculate pause (producerTick * players.size() maybe)
-            Thread.sleep(1500);
+            awaitColdStarts();
         } catch (InterruptedException e) {
             System.out.println("Процесс был прерван повторно");
         }
-        players.forEach(ProcessHandle::destroy);
+        players.forEach(ActorProcess::terminate);
+    }
+
+    /**
+     * Только что запущенная с нуля JVM еще не повесила обработчики сигналов
+     * и умрет от TERM, не убрав за собой файл. Ждем, пока самому молодому
+     * процессу не исполнится {@link #COLD_START_TIMEOUT}. Процессы из пула
+     * прогреты давно, для них пауза не нужна
+     */
+
+    private void awaitColdStarts() throws InterruptedException {
+        Instant now = Instant.now();
+        long pause = players.stream()
+                .mapToLong(p -> p.getProcess().info().startInstant()
+                        .map(start -> COLD_START_TIMEOUT - Duration.between(start, now).toMillis())
+                        .orElse(COLD_START_TIMEOUT))
+                .max().orElse(0);
+
+        if (pause > 0) {
+            Thread.sleep(pause);
+        }
     }
 
     public static void main(String[] args) {
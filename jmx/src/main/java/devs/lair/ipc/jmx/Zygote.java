@@ -0,0 +1,50 @@
+package devs.lair.ipc.jmx;
+
+import devs.lair.ipc.jmx.service.enums.ProcessType;
+import devs.lair.ipc.jmx.service.interfaces.ConfigurableProcess;
+import devs.lair.ipc.jmx.utils.Move;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+public class Zygote {
+    public static final String READY = "READY";
+    public static final String GO = "GO";
+
+    /**
+     * Заранее прогретая JVM. Создает актора с уже выданным именем (конфиг,
+     * MBean и обработчики сигналов готовы), сообщает {@link #READY} в stdout
+     * и ждет команды {@link #GO} в stdin. Любая другая строка или закрытый
+     * stdin (родитель умер) означают завершение без запуска
+     *
+     * @param args тип процесса и имя актора
+     */
+
+    public static void main(String[] args) {
+        if (args == null || args.length < 2) {
+            throw new IllegalArgumentException("Необходимо передать тип и имя");
+        }
+
+        ProcessType type = ProcessType.valueOf(args[0]);
+        ConfigurableProcess actor = switch (type) {
+            case PLAYER -> new Player(args[1]);
+            case ARBITER -> new Arbiter(args[1]);
+            default -> throw new IllegalArgumentException("Тип не поддерживается пулом: " + type);
+        };
+        Move.getRandomMove();
+
+        System.out.println(READY);
+        System.out.flush();
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(System.in))) {
+            if (GO.equals(in.readLine())) {
+                actor.start();
+                return;
+            }
+        } catch (IOException e) {
+            System.out.println("Не удалось прочитать команду " + e.getMessage());
+        }
+        actor.stop();
+    }
+}
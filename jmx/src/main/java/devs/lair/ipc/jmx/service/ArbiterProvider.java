@@ -1,6 +1,7 @@
 package devs.lair.ipc.jmx.service;
 
 import devs.lair.ipc.jmx.service.enums.ProcessStatus;
+import devs.lair.ipc.jmx.service.metrics.ArbiterMetrics;
 import devs.lair.ipc.jmx.service.model.ActorProcess;
 import devs.lair.ipc.jmx.service.model.ArbiterProcess;
 import devs.lair.ipc.jmx.utils.Utils;
@@ -12,6 +13,7 @@ import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
@@ -19,10 +21,21 @@ import static devs.lair.ipc.jmx.service.enums.ProcessType.ARBITER;
 import static devs.lair.ipc.jmx.utils.Constants.ARBITER_DIR;
 
 public class ArbiterProvider implements AutoCloseable {
+    public static final int MAX_MISSED_BEATS = 4;
+
     private final Map<String, ActorProcess> arbiters = new ConcurrentHashMap<>();
     private final AtomicInteger zombie = new AtomicInteger(0);
+    private final ArbiterMetrics metrics = new ArbiterMetrics(this);
+    private HeartbeatMonitor heartbeatMonitor;
 
     public void init() {
+        metrics.register();
+
+        HeartbeatTable heartbeatTable = HeartbeatTable.shared();
+        if (heartbeatTable != null) {
+            heartbeatMonitor = new HeartbeatMonitor(heartbeatTable);
+        }
+
         //Поиск уже запущенных арбитров
         Path playerDir = Paths.get(ARBITER_DIR);
         try (Stream<Path> arbiterFiles = Files.walk(playerDir.toAbsolutePath(), 1)) {
@@ -70,6 +83,7 @@ public class ArbiterProvider implements AutoCloseable {
             ActorProcess actor = entry.getValue();
             if (entry.getValue().isDead()) {
                 arbiters.remove(entry.getKey());
+                forgetHeartbeat(entry.getKey());
                 System.out.printf("Арбитр был остановлен и удален : имя %s, тип %s, pid = %d \n",
                         actor.getName(), actor.getType(), actor.getProcess().pid());
             }
@@ -86,14 +100,14 @@ public class ArbiterProvider implements AutoCloseable {
         arbiter.setLastTimeUsage(System.currentTimeMillis());
     }
 
-    public void addPlayerToArbiter(String arbiterName, int position, String playerName) {
+    public void addPlayerToArbiter(String arbiterName, String playerName) {
         ArbiterProcess arbiter = (ArbiterProcess) arbiters.get(arbiterName);
         if (arbiter == null) {
             System.out.println("Не найден процесс арбитра с именем " + arbiterName);
             return;
         }
 
-        arbiter.setPlayer(playerName, position);
+        arbiter.addPlayer(playerName);
     }
 
     public void removePlayerFromArbiter(String arbiterName, String playerName) {
@@ -106,32 +120,120 @@ public class ArbiterProvider implements AutoCloseable {
         arbiter.removePlayer(playerName);
     }
 
+    public void updateCapacity(String arbiterName, int freeTables, int totalTables) {
+        ArbiterProcess arbiter = (ArbiterProcess) arbiters.get(arbiterName);
+        if (arbiter == null) {
+            System.out.println("Не найден процесс арбитра с именем " + arbiterName);
+            return;
+        }
+
+        arbiter.setCapacity(freeTables, totalTables);
+    }
+
+    /**
+     * @param unreportedTables сколько свободных столов считать за арбитром,
+     *                         который еще не прислал отчет о емкости
+     * @return суммарное число свободных столов по всем живым арбитрам
+     */
+
+    public int getFreeTables(int unreportedTables) {
+        int free = 0;
+        for (ActorProcess actor : arbiters.values()) {
+            if (actor.isTerminating()) continue;
+
+            int reported = ((ArbiterProcess) actor).getFreeTables();
+            free += reported == ArbiterProcess.UNREPORTED ? unreportedTables : reported;
+        }
+        return free;
+    }
+
+    /**
+     * Зомби - арбитр, пропустивший {@link #MAX_MISSED_BEATS} ударов пульса подряд.
+     * Арбитр без слота в таблице пульса судится по времени последнего RMI вызова
+     *
+     * @param arbiterZombieTimeout сколько ждать RMI вызова от арбитра без пульса, мс
+     */
+
     public void findAndKillZombie(PlayerProvider playerProvider, int arbiterZombieTimeout) {
+        if (heartbeatMonitor != null) {
+            arbiters.keySet().forEach(heartbeatMonitor::track);
+            heartbeatMonitor.scan(System.nanoTime());
+        }
+
         for (Map.Entry<String, ActorProcess> entry : arbiters.entrySet()) {
             ArbiterProcess zombieCandidate = (ArbiterProcess) entry.getValue();
-            long current = System.currentTimeMillis();
-            if (current - zombieCandidate.getLastTimeUsage() > arbiterZombieTimeout) {
-                zombieCandidate.getProcess().destroyForcibly();
+            long lag = getZombieLag(zombieCandidate, arbiterZombieTimeout);
+            if (lag > 0) {
+                metrics.getZombieDetectionLag().record(lag);
+                zombieCandidate.kill();
                 zombieCandidate.setStatus(ProcessStatus.ZOMBIE);
+                if (!zombieCandidate.isEmbedded()) {
+                    //Shutdown hook и finally убитого процесса не сработают
+                    PidRegistry.unregister(zombieCandidate.getName());
+                    releaseHeartbeat(zombieCandidate.getName());
+                }
 
                 playerProvider.returnZombiePlayers(zombieCandidate.getPlayers());
                 arbiters.remove(zombieCandidate.getName());
+                forgetHeartbeat(zombieCandidate.getName());
                 zombie.incrementAndGet();
                 System.out.println("Обнаружен и убит зомби арбитр " + entry.getKey());
             }
         }
     }
 
+    /**
+     * @return на сколько наносекунд арбитр пережил порог, 0 и меньше - жив
+     */
+
+    private long getZombieLag(ArbiterProcess arbiter, int arbiterZombieTimeout) {
+        HeartbeatMonitor.Status status = heartbeatMonitor == null ? null
+                : heartbeatMonitor.getStatus(arbiter.getName());
+        if (status != null) {
+            return status.missedBeats() < MAX_MISSED_BEATS ? 0
+                    : Math.max(1, status.silenceNanos() - MAX_MISSED_BEATS * status.intervalNanos());
+        }
+
+        long silence = System.currentTimeMillis() - arbiter.getLastTimeUsage();
+        return silence > arbiterZombieTimeout
+                ? Math.max(1, TimeUnit.MILLISECONDS.toNanos(silence - arbiterZombieTimeout)) : 0;
+    }
+
+    private void releaseHeartbeat(String actorName) {
+        if (heartbeatMonitor != null) {
+            heartbeatMonitor.release(actorName);
+        }
+    }
+
+    /**
+     * @return монитор общей таблицы пульса или null, если таблица недоступна
+     */
+
+    public HeartbeatMonitor getHeartbeatMonitor() {
+        return heartbeatMonitor;
+    }
+
+    private void forgetHeartbeat(String arbiterName) {
+        if (heartbeatMonitor != null) {
+            heartbeatMonitor.forget(arbiterName);
+        }
+    }
+
     public int getArbitersCount() {
         return arbiters.size();
     }
 
+    public ArbiterMetrics getMetrics() {
+        return metrics;
+    }
+
     public int getZombieCount() {
         return zombie.get();
     }
 
     @Override
     public void close() {
+        metrics.unregister();
         arbiters.values().forEach(ActorProcess::terminate);
     }
 }
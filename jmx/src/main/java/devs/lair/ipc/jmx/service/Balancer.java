@@ -1,36 +1,72 @@
 package devs.lair.ipc.jmx.service;
 
+import devs.lair.ipc.jmx.service.interfaces.ScalingPolicy;
+import devs.lair.ipc.jmx.service.metrics.BalancerMetrics;
+import devs.lair.ipc.jmx.service.model.LoadSample;
+import devs.lair.ipc.jmx.service.scaling.LittleLawScalingPolicy;
+import devs.lair.ipc.jmx.service.scaling.ThresholdScalingPolicy;
+
+import java.util.concurrent.TimeUnit;
+
 public class Balancer {
     private final PlayerProvider playerProvider;
     private final ArbiterProvider arbiterProvider;
     private final ConfigProvider configProvider;
+    private final ScalingPolicy scalingPolicy;
+    private final BalancerMetrics metrics = new BalancerMetrics();
 
     public Balancer(PlayerProvider playerProvider,
                     ArbiterProvider arbiterProvider,
                     ConfigProvider configProvider) {
+        this(playerProvider, arbiterProvider, configProvider,
+                new LittleLawScalingPolicy(new ThresholdScalingPolicy()));
+    }
+
+    public Balancer(PlayerProvider playerProvider,
+                    ArbiterProvider arbiterProvider,
+                    ConfigProvider configProvider,
+                    ScalingPolicy scalingPolicy) {
         this.playerProvider = playerProvider;
         this.arbiterProvider = arbiterProvider;
         this.configProvider = configProvider;
+        this.scalingPolicy = scalingPolicy;
     }
 
     public void init() {
+        metrics.register();
         arbiterProvider.startArbiter(1);
     }
 
     public void balance() {
         arbiterProvider.removeDeadProcess();
-        int arbitersCount = arbiterProvider.getArbitersCount();
-        int querySize = playerProvider.getQuerySize();
+        int tablesPerArbiter = configProvider.getArbiterTables();
+        LoadSample sample = new LoadSample(System.nanoTime(),
+                arbiterProvider.getArbitersCount(),
+                tablesPerArbiter,
+                arbiterProvider.getFreeTables(tablesPerArbiter),
+                playerProvider.getQuerySize(),
+                playerProvider.getTotalPlayersCount(),
+                playerProvider.getMatchCount(),
+                playerProvider.getMatchNanos());
 
         //Balance
-        if (arbitersCount == 0 || querySize > 20) {
-            arbiterProvider.startArbiter(1);
-        } else if (arbitersCount > 1 && playerProvider.getQuerySize() <= 10) {
-            arbiterProvider.finishArbiter(1);
+        int delta = scalingPolicy.decide(sample);
+        metrics.onDecision(delta);
+        if (delta > 0) {
+            arbiterProvider.startArbiter(delta);
+        } else if (delta < 0) {
+            arbiterProvider.finishArbiter(-delta);
         }
 
         //Zombie check
         int zombieTimeout = configProvider.getArbiterZombieTimeout();
         arbiterProvider.findAndKillZombie(playerProvider, zombieTimeout);
+        //Игроку в очереди даем столько же, сколько стол ждет хода
+        playerProvider.findAndKillZombie(TimeUnit.MILLISECONDS.toNanos(
+                (long) configProvider.getArbiterTick() * configProvider.getMaxAttempt()));
+    }
+
+    public BalancerMetrics getMetrics() {
+        return metrics;
     }
 }
@@ -0,0 +1,82 @@
+package devs.lair.ipc.jmx.service;
+
+import sun.misc.Signal;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+public class ConfigNotifier {
+    private static final String SIGNAL = "HUP";
+
+    private static final Set<ConfigProvider> subscribers = new CopyOnWriteArraySet<>();
+    private static boolean handlerInstalled = false;
+
+    /**
+     * Оповещение подписчиков о новой версии конфига вместо опроса памяти по таймеру.
+     * Другие процессы узнают о публикации по счетчику поколений в общей памяти
+     * ({@link ConfigRegion#getGeneration}): {@link ConfigProvider} сверяет его
+     * при обращении к параметрам и перечитывает слоты только после новой публикации,
+     * так что ни потока, ни внешних процессов для рассылки не нужно.
+     * Подписчики JVM самого {@link devs.lair.ipc.jmx.ConfigLoader} перечитывают конфиг сразу.
+     * SIGHUP (kill -HUP вручную) заставляет перечитать конфиг всех подписчиков процесса
+     */
+
+    private ConfigNotifier() {
+    }
+
+    static synchronized void subscribe(ConfigProvider provider) {
+        installHandler();
+        subscribers.add(provider);
+    }
+
+    static void unsubscribe(ConfigProvider provider) {
+        subscribers.remove(provider);
+    }
+
+    /**
+     * Оповещает подписчиков этой JVM о новой версии конфига.
+     * Остальные увидят новое поколение при следующем обращении к конфигу
+     *
+     * @return сколько подписчиков перечитали конфиг
+     */
+
+    public static int notifySubscribers() {
+        return reloadAll();
+    }
+
+    //only for tests
+    static void reset() {
+        subscribers.clear();
+    }
+
+    private static void installHandler() {
+        if (handlerInstalled) {
+            return;
+        }
+
+        try {
+            Signal.handle(new Signal(SIGNAL), sig -> reloadAll());
+            handlerInstalled = true;
+        } catch (IllegalArgumentException e) {
+            //Сигнал не поддерживается ОС или занят JVM (-Xrs)
+            System.out.println("Сигнал " + SIGNAL + " недоступен, конфиг обновится по поколению");
+        }
+    }
+
+    /**
+     * Ошибка одного подписчика не должна оставить остальных со старым конфигом
+     */
+
+    private static int reloadAll() {
+        int reloaded = 0;
+        for (ConfigProvider subscriber : subscribers) {
+            try {
+                subscriber.loadConfig();
+                reloaded++;
+            } catch (RuntimeException e) {
+                System.out.println("Подписчик не смог перечитать конфиг " + e.getMessage());
+            }
+        }
+        return reloaded;
+    }
+}
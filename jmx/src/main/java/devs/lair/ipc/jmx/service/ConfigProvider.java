@@ -1,6 +1,12 @@
 package devs.lair.ipc.jmx.service;
 
+import devs.lair.ipc.jmx.service.enums.ConfigSlot;
+import devs.lair.ipc.jmx.service.enums.MoveEncoding;
+import devs.lair.ipc.jmx.service.enums.ProviderTransport;
+import devs.lair.ipc.jmx.service.enums.TransportType;
 import devs.lair.ipc.jmx.service.interfaces.ConfigProviderMBean;
+import devs.lair.ipc.jmx.utils.Move;
+import devs.lair.ipc.jmx.utils.OutcomeTable;
 import devs.lair.ipc.jmx.utils.Utils;
 
 import javax.management.MBeanServer;
@@ -13,23 +19,32 @@ import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 
+import static devs.lair.ipc.jmx.service.enums.ConfigSlot.*;
 import static devs.lair.ipc.jmx.utils.Constants.*;
 import static java.nio.file.StandardOpenOption.READ;
 
 public class ConfigProvider implements AutoCloseable, ConfigProviderMBean {
-    private final Properties props = new Properties();
+    private final int[] slots = new int[ConfigSlot.MAX_SLOTS];
+    private volatile Properties props = new Properties();
+    private volatile OutcomeTable outcomes = OutcomeTable.CLASSIC;
+    private volatile long outcomesGeneration = -1;
 
-    private MappedByteBuffer memory;
+    private volatile MappedByteBuffer memory;
     private Thread watchThread;
 
     //Controls
     private final int pollTimeout;
-    private byte currentVersion = 0;
+    private volatile long generation = 0;
+    private volatile long lastLoadNanos = 0;
+    private long propsGeneration = 0;
     private boolean isStop = false;
-    private boolean updating = false;
 
     //Default params
     private int playerTick = 500;
@@ -38,6 +53,13 @@ public class ConfigProvider implements AutoCloseable, ConfigProviderMBean {
     private int maxPlayerCount = 4;
     private int producerTick = 100;
     private int maxRound = 5;
+    private int maxAttempt = 5;
+    private int arbiterTables = 1;
+    private TransportType moveTransport = TransportType.FILE;
+    private MoveEncoding moveEncoding = MoveEncoding.BYTE;
+    private ProviderTransport providerTransport = ProviderTransport.RMI;
+    private int playerPoolSize = 0;
+    private int arbiterPoolSize = 0;
 
     public ConfigProvider() {
         this(DEFAULT_POLL_TIMEOUT);
@@ -47,10 +69,16 @@ public class ConfigProvider implements AutoCloseable, ConfigProviderMBean {
         this.pollTimeout = Utils.checkInt(pollTimeout, p -> p > 0);
     }
 
+    /**
+     * Новые версии конфига приходят через {@link ConfigNotifier}: подписка
+     * оформляется до первой загрузки, так что опубликованное между ними не потеряется.
+     * Опубликованное другим процессом видно по поколению в памяти, см. {@link #refresh()}
+     */
+
     public void init() {
         registerMBean();
+        ConfigNotifier.subscribe(this);
         loadConfig();
-        startWatch();
     }
 
     private void registerMBean() {
@@ -64,21 +92,40 @@ public class ConfigProvider implements AutoCloseable, ConfigProviderMBean {
         }
     }
 
-    public void loadConfig() {
+    public synchronized void loadConfig() {
+        lastLoadNanos = System.nanoTime();
         try {
             if (!Files.exists(MEMORY_CONFIG_PATH)) {
                 throw new NoSuchFileException(MEMORY_CONFIG_FILE);
             }
 
             if (memory == null) initMemoryBuffer();
-            if (memory.get(0) > currentVersion) {
-                currentVersion++;
+            long loaded = ConfigRegion.readSlots(memory, generation, slots);
+            if (loaded != generation) {
                 readConfig();
+                generation = loaded;
             }
         } catch (Exception e) {
             //Maybe write log
             memory = null;
-            currentVersion = 0;
+            generation = 0;
+        }
+    }
+
+    /**
+     * Сверяет поколение конфига в памяти с прочитанным: одно чтение, пока
+     * ConfigLoader ничего не публиковал. Пока памяти нет, загрузка пробуется
+     * не чаще раза в pollTimeout
+     */
+
+    private void refresh() {
+        MappedByteBuffer current = memory;
+        if (current != null) {
+            if (ConfigRegion.getGeneration(current) != generation) {
+                loadConfig();
+            }
+        } else if (System.nanoTime() - lastLoadNanos > TimeUnit.MILLISECONDS.toNanos(pollTimeout)) {
+            loadConfig();
         }
     }
 
@@ -103,34 +150,80 @@ public class ConfigProvider implements AutoCloseable, ConfigProviderMBean {
     }
 
     private void readConfig() {
-        reloadProperties();
-
         //Player params
-        playerTick = readPositiveInt("player.tick", playerTick);
+        playerTick = readPositiveSlot(PLAYER_TICK, playerTick);
 
         //Arbiter params
-        arbiterTick = readPositiveInt("arbiter.tick", arbiterTick);
-        maxRound = readPositiveInt("arbiter.maxRound", maxRound);
-        arbiterZombieTimeout = readPositiveInt("arbiter.zombieTimeout", arbiterZombieTimeout);
+        arbiterTick = readPositiveSlot(ARBITER_TICK, arbiterTick);
+        maxRound = readPositiveSlot(ARBITER_MAX_ROUND, maxRound);
+        maxAttempt = readPositiveSlot(ARBITER_MAX_ATTEMPT, maxAttempt);
+        arbiterZombieTimeout = readPositiveSlot(ARBITER_ZOMBIE_TIMEOUT, arbiterZombieTimeout);
+        arbiterTables = readPositiveSlot(ARBITER_TABLES, arbiterTables);
+
+        //Transport params
+        int transport = slots[MOVE_TRANSPORT.getIndex()];
+        if (transport >= 0 && transport < TransportType.values().length) {
+            moveTransport = TransportType.values()[transport];
+        }
+        int encoding = slots[MOVE_ENCODING.getIndex()];
+        if (encoding >= 0 && encoding < MoveEncoding.values().length) {
+            moveEncoding = MoveEncoding.values()[encoding];
+        }
+        int provider = slots[PROVIDER_TRANSPORT.getIndex()];
+        if (provider >= 0 && provider < ProviderTransport.values().length) {
+            providerTransport = ProviderTransport.values()[provider];
+        }
 
         //Producer params
-        maxPlayerCount = readPositiveInt("producer.maxPlayers", maxPlayerCount);
-        producerTick = readPositiveInt("producer.tick", producerTick);
+        maxPlayerCount = readPositiveSlot(PRODUCER_MAX_PLAYERS, maxPlayerCount);
+        producerTick = readPositiveSlot(PRODUCER_TICK, producerTick);
+
+        //Starter params
+        playerPoolSize = readSlot(STARTER_PLAYER_POOL, playerPoolSize, value -> value >= 0);
+        arbiterPoolSize = readSlot(STARTER_ARBITER_POOL, arbiterPoolSize, value -> value >= 0);
     }
 
-    private void reloadProperties() {
-        try {
-            final byte[] configBytes = new byte[999];
-            memory.get(1, configBytes);
+    private int readPositiveSlot(ConfigSlot slot, int defaultValue) {
+        return readSlot(slot, defaultValue, value -> value > 0);
+    }
 
-            updating = true;
-            props.clear();
-            props.load(new ByteArrayInputStream(configBytes));
+    private int readSlot(ConfigSlot slot, int defaultValue, IntPredicate checker) {
+        int value = slots[slot.getIndex()];
+        if (value == ConfigSlot.ABSENT) {
+            return defaultValue;
+        }
+
+        if (!checker.test(value)) {
+            System.out.printf("Ошибка парсинга %s %d \n", slot.getKey(), value);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    /**
+     * Текст конфига разбирается лениво, только при обращении к
+     * произвольному ключу. Типизированные параметры читаются из слотов
+     */
+
+    private synchronized Properties currentProperties() {
+        refresh();
+        long current = generation;
+        if (memory == null || current == propsGeneration) {
+            return props;
+        }
+
+        try {
+            ConfigRegion.Snapshot snapshot = ConfigRegion.read(memory, propsGeneration);
+            if (snapshot != null) {
+                Properties loaded = new Properties();
+                loaded.load(new ByteArrayInputStream(snapshot.data()));
+                props = loaded;
+                propsGeneration = snapshot.generation();
+            }
         } catch (Exception e) {
             System.out.println("Не удалось прочитать конфиг байтов памяти ");
-        } finally {
-            updating = false;
         }
+        return props;
     }
 
     public int readPositiveInt(String propertyName, int defaultValue) {
@@ -142,6 +235,7 @@ public class ConfigProvider implements AutoCloseable, ConfigProviderMBean {
         if (isStop) return;
 
         isStop = true;
+        ConfigNotifier.unsubscribe(this);
         if (watchThread != null) {
             watchThread.interrupt();
             watchThread = null;
@@ -162,43 +256,122 @@ public class ConfigProvider implements AutoCloseable, ConfigProviderMBean {
 
     @Override
     public String getProperty(String propertyName) throws IllegalStateException {
-        if (updating) {
-            throw new IllegalStateException("Идет обновление. Приходите позже");
-        }
-        String property = props.getProperty(propertyName);
+        String property = currentProperties().getProperty(propertyName);
         return Utils.isNullOrEmpty(property) ? null : property.trim();
     }
 
+    /**
+     * @return true, если конфиг хотя бы раз прочитан из памяти, а не взят по умолчанию
+     */
+
+    public boolean isLoaded() {
+        return generation != 0;
+    }
+
     @Override
     public int getPlayerTick() {
+        refresh();
         return playerTick;
     }
 
     @Override
     public int getArbiterTick() {
+        refresh();
         return arbiterTick;
     }
 
     @Override
     public int getMaxPlayerCount() {
+        refresh();
         return maxPlayerCount;
     }
 
     @Override
     public int getProducerTick() {
+        refresh();
         return producerTick;
     }
 
     @Override
     public int getMaxRound() {
+        refresh();
         return maxRound;
     }
 
     @Override
     public int getArbiterZombieTimeout() {
+        refresh();
         return arbiterZombieTimeout;
     }
 
+    public int getMaxAttempt() {
+        refresh();
+        return maxAttempt;
+    }
+
+    public int getArbiterTables() {
+        refresh();
+        return arbiterTables;
+    }
+
+    public TransportType getMoveTransport() {
+        refresh();
+        return moveTransport;
+    }
+
+    public MoveEncoding getMoveEncoding() {
+        refresh();
+        return moveEncoding;
+    }
+
+    public ProviderTransport getProviderTransport() {
+        refresh();
+        return providerTransport;
+    }
+
+    /**
+     * Правила, по которым арбитр судит раунд: файл из ключа arbiter.rules
+     * в директории конфига (ход = кого бьет), ходы в порядке {@link Move}.
+     * Файл читается заново только с новым поколением конфига.
+     * Без ключа или при ошибке в правилах - классические
+     */
+
+    public OutcomeTable getOutcomeTable() {
+        refresh();
+        if (outcomesGeneration != generation) {
+            reloadOutcomes();
+        }
+        return outcomes;
+    }
+
+    private synchronized void reloadOutcomes() {
+        long current = generation;
+        if (outcomesGeneration == current) return;
+
+        String rules = getProperty(OUTCOME_RULES_KEY);
+        OutcomeTable loaded = OutcomeTable.CLASSIC;
+        if (rules != null) {
+            try {
+                loaded = OutcomeTable.load(Paths.get(CONFIG_DIR).resolve(rules))
+                        .select(Arrays.stream(Move.values()).map(Move::name).toArray(String[]::new));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.printf("Ошибка чтения правил %s %s \n", rules, e.getMessage());
+            }
+        }
+        outcomes = loaded;
+        outcomesGeneration = current;
+    }
+
+    public int getPlayerPoolSize() {
+        refresh();
+        return playerPoolSize;
+    }
+
+    public int getArbiterPoolSize() {
+        refresh();
+        return arbiterPoolSize;
+    }
+
     @Override
     public void setPlayerTick(int playerTick) {
         this.playerTick = playerTick;
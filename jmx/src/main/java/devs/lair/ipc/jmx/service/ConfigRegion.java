@@ -0,0 +1,141 @@
+package devs.lair.ipc.jmx.service;
+
+import devs.lair.ipc.jmx.service.enums.ConfigSlot;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static devs.lair.ipc.jmx.utils.Constants.MEMORY_SIZE;
+
+public class ConfigRegion {
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int LENGTH_OFFSET = 8;
+    private static final int SLOTS_OFFSET = 16;
+    private static final int DATA_OFFSET = SLOTS_OFFSET + ConfigSlot.MAX_SLOTS * Integer.BYTES;
+    private static final int MAX_READ_ATTEMPTS = 1000;
+
+    public static final int CAPACITY = MEMORY_SIZE - DATA_OFFSET;
+
+    private static final VarHandle LONG = MethodHandles
+            .byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles
+            .byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    /**
+     * Разметка memory.config под seqlock: 64-битный счетчик поколений,
+     * длина конфига, типизированные слоты {@link ConfigSlot} по фиксированным
+     * смещениям и сами байты. Нечетный счетчик означает, что идет запись.
+     * Писатель один (Config Loader) и никого не ждет, читатели повторяют
+     * чтение, только если счетчик поменялся, пока они копировали данные.
+     * Поколение 0 значит, что конфиг еще ни разу не записан
+     */
+
+    private ConfigRegion() {
+    }
+
+    public static long publish(ByteBuffer memory, int[] slots, byte[] data) {
+        if (data == null || data.length == 0 || data.length > CAPACITY) {
+            throw new IllegalArgumentException("Конфиг не помещается в памяти");
+        }
+
+        if (slots == null || slots.length != ConfigSlot.MAX_SLOTS) {
+            throw new IllegalArgumentException("Неверное число слотов конфига");
+        }
+
+        //Если прошлый писатель упал посреди записи, счетчик уже нечетный
+        long writing = (long) LONG.getOpaque(memory, SEQUENCE_OFFSET) | 1;
+        LONG.setOpaque(memory, SEQUENCE_OFFSET, writing);
+        VarHandle.storeStoreFence();
+
+        INT.setOpaque(memory, LENGTH_OFFSET, data.length);
+        for (int i = 0; i < slots.length; i++) {
+            INT.setOpaque(memory, SLOTS_OFFSET + i * Integer.BYTES, slots[i]);
+        }
+        memory.put(DATA_OFFSET, data);
+
+        LONG.setRelease(memory, SEQUENCE_OFFSET, writing + 1);
+        return writing + 1;
+    }
+
+    /**
+     * Читает согласованные значения слотов без разбора и без аллокаций
+     *
+     * @param memory         отображенная область memory.config
+     * @param seenGeneration поколение, которое читатель уже видел
+     * @param slots          куда сложить значения, не меньше {@link ConfigSlot#MAX_SLOTS}
+     * @return новое поколение, либо seenGeneration, если читать нечего
+     * (тогда содержимое slots не определено)
+     */
+
+    public static long readSlots(ByteBuffer memory, long seenGeneration, int[] slots) {
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long before = (long) LONG.getAcquire(memory, SEQUENCE_OFFSET);
+            if (before == 0 || before == seenGeneration) {
+                return seenGeneration;
+            }
+
+            if ((before & 1) == 0) {
+                for (int i = 0; i < ConfigSlot.MAX_SLOTS; i++) {
+                    slots[i] = (int) INT.getOpaque(memory, SLOTS_OFFSET + i * Integer.BYTES);
+                }
+
+                VarHandle.loadLoadFence();
+                if (before == (long) LONG.getOpaque(memory, SEQUENCE_OFFSET)) {
+                    return before;
+                }
+            }
+
+            Thread.onSpinWait();
+        }
+
+        return seenGeneration;
+    }
+
+    /**
+     * Читает согласованный снимок исходного текста конфига
+     *
+     * @param memory         отображенная область memory.config
+     * @param seenGeneration поколение, которое читатель уже видел
+     * @return снимок, либо null, если поколение не поменялось, конфига еще нет
+     * или писатель так и не закончил запись за отведенные попытки
+     * @throws IllegalStateException если в стабильном поколении лежит мусор
+     */
+
+    public static Snapshot read(ByteBuffer memory, long seenGeneration) {
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long before = (long) LONG.getAcquire(memory, SEQUENCE_OFFSET);
+            if (before == 0 || before == seenGeneration) {
+                return null;
+            }
+
+            if ((before & 1) == 0) {
+                int length = (int) INT.getOpaque(memory, LENGTH_OFFSET);
+                byte[] data = length > 0 && length <= CAPACITY ? new byte[length] : null;
+                if (data != null) {
+                    memory.get(DATA_OFFSET, data);
+                }
+
+                VarHandle.loadLoadFence();
+                if (before == (long) LONG.getOpaque(memory, SEQUENCE_OFFSET)) {
+                    if (data == null) {
+                        throw new IllegalStateException("Некорректная длина конфига в памяти: " + length);
+                    }
+                    return new Snapshot(before, data);
+                }
+            }
+
+            Thread.onSpinWait();
+        }
+
+        return null;
+    }
+
+    public static long getGeneration(ByteBuffer memory) {
+        return (long) LONG.getAcquire(memory, SEQUENCE_OFFSET);
+    }
+
+    public record Snapshot(long generation, byte[] data) {
+    }
+}
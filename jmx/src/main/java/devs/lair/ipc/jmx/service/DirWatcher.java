@@ -1,66 +1,124 @@
 package devs.lair.ipc.jmx.service;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.*;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static java.nio.file.StandardWatchEventKinds.*;
 
 public class DirWatcher implements AutoCloseable {
+    static final WatchEvent.Kind<?>[] KINDS = {ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY};
+    //Столько же событий держит ключ WatchService до OVERFLOW
+    private static final int MAX_PARKED_EVENTS = 512;
+
     private final List<DirWatcherListener> listeners = new ArrayList<>();
+    private final List<DirChangesListener> changesListeners = new ArrayList<>();
     private final WatchService watchService;
-    private final Set<String> dirs = new HashSet<>();
+    private final WatchHub hub;
+    private final Set<WatchKey> keys = ConcurrentHashMap.newKeySet();
+    //Имя элемента директории -> признак директории, как их видел поток наблюдения. Меняется только под lock
+    private final Map<String, Boolean> entries = new HashMap<>();
     private final Path watchDir;
+    private final long coalesceNanos;
+    private final boolean recursive;
 
     private Thread watchedThread;
-    private boolean isStopped = false;
-    private boolean isClosed = false;
+    private volatile boolean isStopped = false;
+    private volatile boolean isClosed = false;
+
+    //Защищает entries, в режиме хаба еще и события до startWatch и пачку, которую соберет поток хаба
+    private final Object lock = new Object();
+    private final List<ParkedEvent> parked = new ArrayList<>();
+    private boolean parkedOverflow = false;
+    private boolean started = false;
+    private Batch pending;
+    private long pendingDeadline = Long.MAX_VALUE;
 
     /**
      * Утилитный класс для наблюдений за директорией. Внутри использует
      * {@link WatchService}. Наблюдение идет в фоновом потоке.
      * Реагирует на все события: CREATE, MODIFY, DELETE, а также на OVERFLOW.
-     * В качестве слушателя событий принимает {@link DirWatcherListener}
+     * В качестве слушателя событий принимает {@link DirWatcherListener}, он получает
+     * каждое событие как есть. {@link DirChangesListener} вместо этого получает
+     * пачку {@link Changes}: все события, накопившиеся за проход, свернутые по имени
+     * относительно известного наблюдателю содержимого директории. На OVERFLOW,
+     * когда часть событий потеряна, директория пересканируется и в пачку попадает
+     * только разница с известным содержимым
      *
      * @throws IllegalStateException на IOException
      * @param path путь до наблюдаемой папки
      */
 
     public DirWatcher(String path) {
+        this(path, 0);
+    }
+
+    /**
+     * @param coalesceMillis сколько после первого события ждать следующих, чтобы
+     *                       собрать их в одну пачку. 0 - только то, что уже пришло
+     */
+
+    public DirWatcher(String path, long coalesceMillis) {
+        this(path, coalesceMillis, false, null);
+    }
+
+    /**
+     * С хабом у наблюдателя нет ни своего WatchService, ни своего потока:
+     * директории регистрируются в {@link WatchHub}, и пачки публикуются его потоком.
+     * Рекурсивный наблюдатель следит и за всеми поддиректориями, в том числе
+     * созданными позже, имена в {@link Changes} тогда - пути относительно корня.
+     * Сырые события {@link DirWatcherListener} остаются относительно своей поддиректории
+     *
+     * @param recursive следить за поддиректориями
+     * @param hub       общий поток наблюдения или null для собственного потока
+     */
+
+    public DirWatcher(String path, long coalesceMillis, boolean recursive, WatchHub hub) {
         watchDir = Paths.get(path).toAbsolutePath();
         if (!Files.isDirectory(watchDir)) {
             throw new IllegalArgumentException("Директории не существует, либо передан файл");
         }
+        coalesceNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, coalesceMillis));
+        this.recursive = recursive;
+        this.hub = hub;
 
-        try (Stream<Path> dirsPath = Files.walk(watchDir, 1)
-                .filter(Files::isDirectory).map(Path::getFileName)) {
-            watchService = FileSystems.getDefault().newWatchService();
-            watchDir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
-            dirs.addAll(dirsPath.map(Path::toString).toList());
+        try {
+            watchService = hub == null ? FileSystems.getDefault().newWatchService() : null;
+            //Сначала регистрация, потом список, иначе созданное между ними потеряется
+            register(watchDir);
+            entries.putAll(scan());
         } catch (IOException ex) {
             String methodName = ex.getStackTrace()[0].getMethodName();
             String errorMessage = switch (methodName) {
-                case "walk" -> "Ошибка при получение поддиректорий";
+                case "list" -> "Ошибка при получение содержимого директории";
                 case "register" -> "Ошибка при регистрации WatchService";
                 case "<init>" -> "Ошибка при создании WatchService"; // newWatchService()
                 default -> ex.getMessage();
             };
+            close();
             throw new IllegalStateException(errorMessage, ex);
         }
     }
 
     /**
      * Основной рабочий метод. Запускает внутри себя новый поток,
-     * который следит за директорией
+     * который следит за директорией. С хабом поток не создается, а события,
+     * пришедшие с момента создания наблюдателя, публикуются сразу одной пачкой
      */
 
     public void startWatch() {
         checkIsClosed();
 
+        if (hub != null) {
+            startInHub();
+            return;
+        }
+
         if (watchedThread != null) {
             throw new IllegalStateException("Поток уже запущен");
         }
@@ -75,16 +133,30 @@ public class DirWatcher implements AutoCloseable {
                     break;
                 }
 
-                for (WatchEvent<?> event : key.pollEvents()) {
-                    switch (event.kind().name()) {
-                        case "ENTRY_CREATE" -> consumeCreateEvent(cast(event));
-                        case "ENTRY_MODIFY" -> consumeModifyEvent(cast(event));
-                        case "ENTRY_DELETE" -> consumeDeleteEvent(cast(event));
-                        case "OVERFLOW" -> consumeOverflowEvent(event);
+                Batch batch = new Batch();
+                long deadline = System.nanoTime() + coalesceNanos;
+                boolean valid = true;
+                while (key != null && valid) {
+                    synchronized (lock) {
+                        consume((Path) key.watchable(), key.pollEvents(), batch);
+                    }
+                    if (!key.reset()) {
+                        keys.remove(key);
+                        valid = !watchDir.equals(key.watchable());
+                    }
+
+                    try {
+                        key = watchService.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    } catch (ClosedWatchServiceException | InterruptedException ex) {
+                        key = null;
+                        isStopped = true;
                     }
                 }
 
-                if (!key.reset()) {
+                synchronized (lock) {
+                    publish(batch);
+                }
+                if (!valid) {
                     break;
                 }
             }
@@ -93,11 +165,89 @@ public class DirWatcher implements AutoCloseable {
         watchedThread.start();
     }
 
+    private void startInHub() {
+        synchronized (lock) {
+            if (started) {
+                throw new IllegalStateException("Наблюдение уже запущено");
+            }
+            started = true;
+
+            if (parked.isEmpty() && !parkedOverflow) return;
+
+            Batch batch = new Batch();
+            batch.overflow = parkedOverflow;
+            parked.forEach(event -> consume(event.dir(), List.of(event.event()), batch));
+            parked.clear();
+            parkedOverflow = false;
+            publish(batch);
+        }
+    }
+
+    /**
+     * Поток хаба: события ключа этого наблюдателя. До {@link #startWatch()}
+     * они откладываются, как их копил бы ключ собственного WatchService
+     */
+
+    void deliver(WatchKey key, List<WatchEvent<?>> events, boolean valid) {
+        synchronized (lock) {
+            if (!valid) {
+                keys.remove(key);
+            }
+            if (isClosed) return;
+
+            Path dir = (Path) key.watchable();
+            if (!started) {
+                for (WatchEvent<?> event : events) {
+                    if (parked.size() < MAX_PARKED_EVENTS) {
+                        parked.add(new ParkedEvent(dir, event));
+                    } else {
+                        parkedOverflow = true;
+                    }
+                }
+                return;
+            }
+
+            if (pending == null) {
+                pending = new Batch();
+                pendingDeadline = System.nanoTime() + coalesceNanos;
+            }
+            consume(dir, events, pending);
+        }
+    }
+
+    long getPendingDeadline() {
+        return pendingDeadline;
+    }
+
+    void publishPending() {
+        synchronized (lock) {
+            Batch batch = pending;
+            pending = null;
+            pendingDeadline = Long.MAX_VALUE;
+            if (batch != null && !isClosed) {
+                publish(batch);
+            }
+        }
+    }
+
+    private void consume(Path dir, List<WatchEvent<?>> events, Batch batch) {
+        for (WatchEvent<?> event : events) {
+            switch (event.kind().name()) {
+                case "ENTRY_CREATE" -> consumeCreateEvent(dir, cast(event), batch);
+                case "ENTRY_MODIFY" -> consumeModifyEvent(dir, cast(event), batch);
+                case "ENTRY_DELETE" -> consumeDeleteEvent(dir, cast(event), batch);
+                case "OVERFLOW" -> consumeOverflowEvent(event, batch);
+            }
+        }
+    }
+
     /**
-     * На OVERFLOW
+     * На OVERFLOW. Сами события потеряны, поэтому пачка будет дополнена
+     * пересканированием директории
      */
 
-    private void consumeOverflowEvent(WatchEvent<?> watchEvent) {
+    private void consumeOverflowEvent(WatchEvent<?> watchEvent, Batch batch) {
+        batch.overflow = true;
         listeners.forEach(listener -> listener.onOverflow(watchEvent));
     }
 
@@ -105,13 +255,25 @@ public class DirWatcher implements AutoCloseable {
      * На DELETE. В слушателей передается признак удаления директории,
      * если удалили директорию. Ввиду того, что узел файловой системы уже отсутствует,
      * нельзя определить, что удалили, файл или директорию, основываясь на передаваемом
-     * событии. Для этих целей используется внутренний Set из имен директорий
+     * событии. Для этих целей используется внутренний Set из имен директорий.
+     * У рекурсивного наблюдателя вместе с директорией пропадает и все ее содержимое
      */
 
-    private void consumeDeleteEvent(WatchEvent<Path> watchEvent) {
-        Path pathFromRoot = Paths.get(watchDir + "/" + watchEvent.context());
-        String dirName = pathFromRoot.getFileName().toString();
-        boolean dirDeleted = dirs.remove(dirName);
+    private void consumeDeleteEvent(Path dir, WatchEvent<Path> watchEvent, Batch batch) {
+        String name = getName(dir, watchEvent);
+        batch.touch(name).exists = false;
+        boolean dirDeleted = Boolean.TRUE.equals(entries.remove(name));
+
+        if (dirDeleted && recursive) {
+            String prefix = name + File.separator;
+            List<String> nested = entries.keySet().stream()
+                    .filter(entry -> entry.startsWith(prefix))
+                    .toList();
+            for (String entry : nested) {
+                batch.touch(entry).exists = false;
+                entries.remove(entry);
+            }
+        }
 
         listeners.forEach(listener ->
                 listener.onDelete(watchEvent, dirDeleted));
@@ -121,25 +283,152 @@ public class DirWatcher implements AutoCloseable {
      * На MODIFY
      */
 
-    private void consumeModifyEvent(WatchEvent<Path> watchEvent) {
+    private void consumeModifyEvent(Path dir, WatchEvent<Path> watchEvent, Batch batch) {
+        String name = getName(dir, watchEvent);
+        Fold fold = batch.touch(name);
+        fold.exists = true;
+        fold.modified = true;
+        entries.putIfAbsent(name, false);
+
         listeners.forEach(listener -> listener.onModify(watchEvent));
     }
 
     /**
      * На CREATE. Дополнительно, если была создана директория, то ее название для учета
-     * попадает во внутренний Set
+     * попадает во внутренний Set. Рекурсивный наблюдатель регистрирует новую директорию
+     * и забирает то, что в ней успели создать до регистрации
      */
 
-    private void consumeCreateEvent(WatchEvent<Path> watchEvent) {
-        Path pathFromRoot = Paths.get(watchDir + "/" + watchEvent.context());
-        if (Files.isDirectory(pathFromRoot)) {
-            dirs.add(pathFromRoot.getFileName().toString());
+    private void consumeCreateEvent(Path dir, WatchEvent<Path> watchEvent, Batch batch) {
+        Path pathFromRoot = dir.resolve(watchEvent.context());
+        String name = getName(dir, watchEvent);
+        boolean isDirectory = Files.isDirectory(pathFromRoot);
+        batch.touch(name).exists = true;
+        entries.put(name, isDirectory);
+
+        if (isDirectory && recursive) {
+            registerTree(pathFromRoot, batch);
         }
 
         listeners.forEach(listener ->
                 listener.onCreate(watchEvent));
     }
 
+    private void registerTree(Path subDir, Batch batch) {
+        try {
+            register(subDir);
+            walk(subDir, (name, isDirectory) -> {
+                batch.touch(name).exists = true;
+                entries.put(name, isDirectory);
+            });
+        } catch (IOException e) {
+            //Пропущенное найдет пересканирование
+            System.out.println("Не удалось зарегистрировать поддиректорию " + subDir.getFileName());
+            batch.overflow = true;
+        }
+    }
+
+    /**
+     * Сворачивает пачку событий в {@link Changes}: файл, который появился
+     * и исчез за одну пачку, не попадает никуда, пересозданный - только в modified,
+     * созданный и сразу измененный - в created и modified.
+     * После OVERFLOW содержимое сверяется со сканом директории
+     */
+
+    private void publish(Batch batch) {
+        if (changesListeners.isEmpty() || batch.folds.isEmpty() && !batch.overflow) {
+            if (batch.overflow) rescan();
+            return;
+        }
+
+        Set<String> created = new LinkedHashSet<>();
+        Set<String> modified = new LinkedHashSet<>();
+        Set<String> deleted = new LinkedHashSet<>();
+        batch.folds.forEach((name, fold) -> {
+            if (!fold.wasKnown && fold.exists) {
+                created.add(name);
+                if (fold.modified) modified.add(name);
+            } else if (fold.wasKnown && !fold.exists) {
+                deleted.add(name);
+            } else if (fold.exists) {
+                modified.add(name);
+            }
+        });
+
+        if (batch.overflow) {
+            Changes diff = rescan();
+            deleted.removeAll(diff.created());
+            created.addAll(diff.created());
+            created.removeAll(diff.deleted());
+            modified.removeAll(diff.deleted());
+            deleted.addAll(diff.deleted());
+        }
+
+        Changes changes = new Changes(created, modified, deleted, batch.overflow);
+        changesListeners.forEach(listener -> listener.onChanges(changes));
+    }
+
+    /**
+     * Сверяет известное содержимое с директорией и исправляет его
+     *
+     * @return разница: что появилось и что пропало
+     */
+
+    private Changes rescan() {
+        Map<String, Boolean> actual;
+        try {
+            actual = scan();
+        } catch (IOException e) {
+            System.out.println("Не удалось пересканировать директорию " + watchDir.getFileName());
+            return new Changes(Set.of(), Set.of(), Set.of(), true);
+        }
+
+        Set<String> created = new LinkedHashSet<>(actual.keySet());
+        created.removeAll(entries.keySet());
+        Set<String> deleted = new LinkedHashSet<>(entries.keySet());
+        deleted.removeAll(actual.keySet());
+
+        entries.clear();
+        entries.putAll(actual);
+        return new Changes(created, Set.of(), deleted, true);
+    }
+
+    private Map<String, Boolean> scan() throws IOException {
+        Map<String, Boolean> found = new HashMap<>();
+        walk(watchDir, found::put);
+        return found;
+    }
+
+    /**
+     * Обходит содержимое директории, у рекурсивного наблюдателя - все дерево.
+     * Поддиректория регистрируется до того, как обход заглянет внутрь
+     */
+
+    private void walk(Path dir, EntryConsumer consumer) throws IOException {
+        try (Stream<Path> paths = recursive ? Files.walk(dir) : Files.list(dir)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (path.equals(dir)) continue;
+
+                boolean isDirectory = Files.isDirectory(path);
+                if (isDirectory && recursive) {
+                    register(path);
+                }
+                consumer.accept(watchDir.relativize(path).toString(), isDirectory);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void register(Path dir) throws IOException {
+        keys.add(hub == null ? dir.register(watchService, KINDS) : hub.register(dir, this));
+    }
+
+    private String getName(Path dir, WatchEvent<Path> watchEvent) {
+        return dir.equals(watchDir)
+                ? watchEvent.context().toString()
+                : watchDir.relativize(dir.resolve(watchEvent.context())).toString();
+    }
 
     /**
      * Останавливает процесс (и поток) наблюдения. Возможен повторный перезапуск
@@ -149,6 +438,13 @@ public class DirWatcher implements AutoCloseable {
 
     public void stopWatch() {
         checkIsClosed();
+        if (hub != null) {
+            synchronized (lock) {
+                started = false;
+            }
+            return;
+        }
+
         isStopped = true;
         if (watchedThread != null) {
             watchedThread.interrupt();
@@ -156,14 +452,28 @@ public class DirWatcher implements AutoCloseable {
         }
     }
 
+    /**
+     * Ждет окончания наблюдения. С хабом своего потока нет, поэтому ждет закрытия
+     */
+
     public void join() {
         try {
-            watchedThread.join();
+            if (hub == null) {
+                watchedThread.join();
+                return;
+            }
+
+            synchronized (this) {
+                while (!isClosed) {
+                    wait();
+                }
+            }
         } catch (InterruptedException e) {
             throw new IllegalStateException("Был прерван метод join");
         }
     }
 
+
     public void addListener(DirWatcherListener listener) {
         if (listener == null) {
             throw new IllegalArgumentException("Передан null");
@@ -210,6 +520,25 @@ public class DirWatcher implements AutoCloseable {
         });
     }
 
+    public void addChangesListener(DirChangesListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Передан null");
+        }
+        changesListeners.add(listener);
+    }
+
+    /**
+     * Содержимое директории, как его видит наблюдатель. До {@link #startWatch()}
+     * это первоначальный скан: события о том, что в него попало, придут как modified,
+     * а не created, так что начальный список и события не задваиваются
+     */
+
+    public Set<String> getEntries() {
+        synchronized (lock) {
+            return new HashSet<>(entries.keySet());
+        }
+    }
+
     public boolean removeListener(DirWatcherListener listener) {
         if (listener == null) {
             throw new IllegalArgumentException("Передан null");
@@ -225,15 +554,27 @@ public class DirWatcher implements AutoCloseable {
 
         try {
             stopWatch();
-            watchService.close();
+            if (hub != null) {
+                hub.unregister(this, keys);
+            } else if (watchService != null) {
+                watchService.close();
+            }
         } catch (IOException e) {
             throw new IllegalStateException("Ошибка при закрытии сервиса", e);
         } finally {
-            isClosed = true;
+            synchronized (this) {
+                isClosed = true;
+                notifyAll();
+            }
         }
     }
 
     public boolean isStarted() {
+        if (hub != null) {
+            synchronized (lock) {
+                return started;
+            }
+        }
         return watchedThread != null;
     }
 
@@ -252,6 +593,45 @@ public class DirWatcher implements AutoCloseable {
         return (WatchEvent<Path>) event;
     }
 
+    /**
+     * Свернутая пачка изменений, имена - относительно наблюдаемой директории
+     *
+     * @param overflow часть событий была потеряна, пачка дополнена сканом директории
+     */
+
+    public record Changes(Set<String> created, Set<String> modified, Set<String> deleted, boolean overflow) {
+    }
+
+    public interface DirChangesListener {
+        void onChanges(Changes changes);
+    }
+
+    private class Batch {
+        private final Map<String, Fold> folds = new LinkedHashMap<>();
+        private boolean overflow = false;
+
+        Fold touch(String name) {
+            return folds.computeIfAbsent(name, key -> new Fold(entries.containsKey(key)));
+        }
+    }
+
+    private record ParkedEvent(Path dir, WatchEvent<?> event) {
+    }
+
+    private interface EntryConsumer {
+        void accept(String name, boolean isDirectory);
+    }
+
+    private static class Fold {
+        private final boolean wasKnown;
+        private boolean exists;
+        private boolean modified;
+
+        Fold(boolean wasKnown) {
+            this.wasKnown = wasKnown;
+        }
+    }
+
     public interface OnEventCallback {
         void onEvent(WatchEvent<Path> event);
     }
@@ -0,0 +1,72 @@
+package devs.lair.ipc.jmx.service;
+
+import devs.lair.ipc.jmx.Arbiter;
+import devs.lair.ipc.jmx.Player;
+import devs.lair.ipc.jmx.PlayerProducer;
+import devs.lair.ipc.jmx.service.enums.ProcessType;
+import devs.lair.ipc.jmx.service.interfaces.ConfigurableProcess;
+import devs.lair.ipc.jmx.service.interfaces.IPlayerProvider;
+import devs.lair.ipc.jmx.service.model.ActorProcess;
+import devs.lair.ipc.jmx.service.model.ArbiterProcess;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class EmbeddedStarter {
+    private final Map<String, ActorProcess> actors = new ConcurrentHashMap<>();
+    private final ConfigProvider configProvider;
+    private final IPlayerProvider playerProvider;
+
+    /**
+     * Запускает игроков, арбитров и производителя игроков виртуальными потоками
+     * внутри JVM контроллера. Все акторы делят один {@link ConfigProvider},
+     * а арбитры обращаются к провайдеру игроков напрямую, без RMI
+     *
+     * @param configProvider общий, уже инициализированный провайдер конфига
+     * @param playerProvider провайдер игроков контроллера
+     */
+
+    public EmbeddedStarter(ConfigProvider configProvider, IPlayerProvider playerProvider) {
+        this.configProvider = configProvider;
+        this.playerProvider = playerProvider;
+    }
+
+    public boolean supports(ProcessType type) {
+        return type == ProcessType.PLAYER
+                || type == ProcessType.ARBITER
+                || type == ProcessType.PLAYER_PRODUCER;
+    }
+
+    public ActorProcess start(ProcessType type, String name) {
+        ConfigurableProcess actor = switch (type) {
+            case PLAYER -> new Player(name, configProvider);
+            case ARBITER -> new Arbiter(name, configProvider, playerProvider);
+            case PLAYER_PRODUCER -> new PlayerProducer(configProvider);
+            default -> throw new IllegalArgumentException("Тип не поддерживается во встроенном режиме: " + type);
+        };
+
+        Thread thread = Thread.ofVirtual().name(name).unstarted(() -> {
+            try {
+                actor.start();
+            } finally {
+                actors.remove(name);
+            }
+        });
+
+        ActorProcess actorProcess = type == ProcessType.ARBITER
+                ? new ArbiterProcess(actor, thread, type, name)
+                : new ActorProcess(actor, thread, type, name);
+
+        actors.put(name, actorProcess);
+        thread.start();
+        return actorProcess;
+    }
+
+    public ActorProcess find(String name) {
+        return actors.get(name);
+    }
+
+    public int getActorsCount() {
+        return actors.size();
+    }
+}
@@ -0,0 +1,321 @@
+package devs.lair.ipc.jmx.service;
+
+import devs.lair.ipc.jmx.service.model.RoundRecord;
+import devs.lair.ipc.jmx.service.model.RoundRecord.Outcome;
+import devs.lair.ipc.jmx.utils.Move;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.*;
+
+public class GameJournal implements AutoCloseable {
+    private static final int MAGIC = 0x4E524A47;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int ROUND_SIZE = 32;
+    private static final int NAME_HEADER_SIZE = 8;
+    private static final int MAX_NAME_BYTES = 255;
+    private static final int MAX_APPEND_SIZE = ROUND_SIZE + 2 * (NAME_HEADER_SIZE + MAX_NAME_BYTES + 7);
+
+    private static final int TYPE_NAME = 1;
+    private static final int TYPE_ROUND = 2;
+    private static final int ARBITER_ID = 0;
+    private static final int NO_NAME_ID = -1;
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final long FLUSH_INTERVAL_MILLIS = 200;
+
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final VarHandle INT = MethodHandles
+            .byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final Path dir;
+    private final String owner;
+    private final int segmentSize;
+    private final Map<String, Integer> names = new HashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private MappedByteBuffer segment;
+    private int segmentNumber = -1;
+    private int position;
+    private int flushedPosition;
+    private boolean closed = false;
+
+    /**
+     * Журнал сыгранных раундов одного арбитра: только дописывание
+     * в отображенные в память сегменты dir/owner-NNNNNN.journal.
+     * Раунд - запись фиксированных 32 байт, имена игроков пишутся
+     * в сегмент один раз отдельной записью и дальше идут по номеру,
+     * поэтому каждый сегмент читается сам по себе.
+     * Заголовок записи публикуется последним, нулевой заголовок - конец данных,
+     * так что недописанная при падении запись просто не видна.
+     * На диск сбрасывается пачками раз в {@link #FLUSH_INTERVAL_MILLIS} мс
+     * в фоновом потоке, запись раунда - несколько put в память под коротким локом.
+     * Первый сегмент создается на первом раунде, так что арбитр
+     * без единой игры не оставляет пустых файлов
+     *
+     * @param dir   директория журнала
+     * @param owner имя арбитра
+     * @throws IOException если не удалось создать директорию журнала
+     */
+
+    public GameJournal(Path dir, String owner) throws IOException {
+        this(dir, owner, DEFAULT_SEGMENT_SIZE);
+    }
+
+    GameJournal(Path dir, String owner, int segmentSize) throws IOException {
+        if (owner == null || owner.isEmpty()) {
+            throw new IllegalArgumentException("Имя не может быть пустым");
+        }
+
+        if (segmentSize < HEADER_SIZE + 2 * MAX_APPEND_SIZE) {
+            throw new IllegalArgumentException("Слишком маленький сегмент журнала: " + segmentSize);
+        }
+
+        this.dir = dir;
+        this.owner = owner;
+        this.segmentSize = segmentSize;
+
+        Files.createDirectories(dir);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("journal-" + owner).daemon().factory());
+        flusher.scheduleWithFixedDelay(this::flush,
+                FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void appendRound(int table, int round,
+                                         String firstPlayer, String secondPlayer,
+                                         Move firstMove, Move secondMove,
+                                         Outcome outcome, long durationNanos) {
+        if (closed) return;
+
+        if ((segment == null || position + MAX_APPEND_SIZE > segmentSize) && !roll()) {
+            return;
+        }
+
+        int firstId = getNameId(firstPlayer);
+        int secondId = getNameId(secondPlayer);
+
+        int offset = position;
+        segment.putShort(offset + 4, (short) table);
+        segment.putShort(offset + 6, (short) round);
+        segment.putInt(offset + 8, firstId);
+        segment.putInt(offset + 12, secondId);
+        segment.putLong(offset + 16, System.currentTimeMillis());
+        segment.putLong(offset + 24, durationNanos);
+
+        int header = TYPE_ROUND
+                | encode(firstMove) << 8
+                | encode(secondMove) << 16
+                | outcome.ordinal() << 24;
+        INT.setRelease(segment, offset, header);
+        position += ROUND_SIZE;
+    }
+
+    /**
+     * Сбрасывает на диск все, что дописано после прошлого сброса
+     */
+
+    public void flush() {
+        MappedByteBuffer dirty;
+        int from;
+        int length;
+        synchronized (this) {
+            if (segment == null || position == flushedPosition) return;
+
+            dirty = segment;
+            from = flushedPosition;
+            length = position - flushedPosition;
+            flushedPosition = position;
+        }
+        dirty.force(from, length);
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+
+        flusher.shutdownNow();
+        flush();
+    }
+
+    /**
+     * @return сегменты журнала арбитра по порядку записи
+     */
+
+    public static List<Path> getSegments(Path dir, String owner) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> isSegmentOf(file, owner))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Читает все раунды одного сегмента
+     *
+     * @throws IllegalStateException если сегмент поврежден
+     */
+
+    public static List<RoundRecord> read(Path segmentFile) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segmentFile, READ)) {
+            buffer = channel.map(READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.nativeOrder());
+
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Файл не является журналом игр: " + segmentFile.getFileName());
+        }
+
+        Map<Integer, String> names = new HashMap<>();
+        List<RoundRecord> rounds = new ArrayList<>();
+        int offset = HEADER_SIZE;
+        while (offset + NAME_HEADER_SIZE <= buffer.limit()) {
+            int header = (int) INT.getAcquire(buffer, offset);
+            switch (header & 0xFF) {
+                case 0 -> {
+                    return rounds;
+                }
+                case TYPE_NAME -> {
+                    int length = header >>> 8;
+                    byte[] bytes = new byte[length];
+                    buffer.get(offset + NAME_HEADER_SIZE, bytes);
+                    names.put(buffer.getInt(offset + 4), new String(bytes, StandardCharsets.UTF_8));
+                    offset += getNameRecordSize(length);
+                }
+                case TYPE_ROUND -> {
+                    rounds.add(new RoundRecord(names.get(ARBITER_ID),
+                            buffer.getShort(offset + 4),
+                            buffer.getShort(offset + 6),
+                            names.get(buffer.getInt(offset + 8)),
+                            names.get(buffer.getInt(offset + 12)),
+                            decode(header >>> 8 & 0xFF),
+                            decode(header >>> 16 & 0xFF),
+                            Outcome.values()[header >>> 24 & 0xFF],
+                            buffer.getLong(offset + 16),
+                            buffer.getLong(offset + 24)));
+                    offset += ROUND_SIZE;
+                }
+                default -> throw new IllegalStateException("Поврежден журнал игр: " + segmentFile.getFileName());
+            }
+        }
+        return rounds;
+    }
+
+    private boolean roll() {
+        flush();
+        try {
+            if (segmentNumber < 0) {
+                List<Path> existing = getSegments(dir, owner);
+                segmentNumber = existing.isEmpty() ? -1 : getSegmentNumber(existing.getLast());
+            }
+
+            segmentNumber++;
+            openSegment();
+            return true;
+        } catch (IOException e) {
+            closed = true;
+            segment = null;
+            System.out.println("Не удалось открыть новый сегмент журнала " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void openSegment() throws IOException {
+        Path file = dir.resolve(String.format("%s-%06d%s", owner, segmentNumber, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, CREATE_NEW, READ, WRITE)) {
+            segment = channel.map(READ_WRITE, 0, segmentSize);
+        }
+        segment.order(ByteOrder.nativeOrder());
+
+        segment.putInt(4, VERSION);
+        segment.putLong(8, System.currentTimeMillis());
+        INT.setRelease(segment, 0, MAGIC);
+
+        position = HEADER_SIZE;
+        flushedPosition = 0;
+        names.clear();
+        writeName(owner, ARBITER_ID);
+    }
+
+    private int getNameId(String name) {
+        if (name == null) {
+            return NO_NAME_ID;
+        }
+
+        Integer id = names.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        int newId = names.size();
+        writeName(name, newId);
+        return newId;
+    }
+
+    private void writeName(String name, int id) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_NAME_BYTES);
+
+        segment.putInt(position + 4, id);
+        segment.put(position + NAME_HEADER_SIZE, bytes, 0, length);
+        INT.setRelease(segment, position, TYPE_NAME | length << 8);
+
+        names.put(name, id);
+        position += getNameRecordSize(length);
+    }
+
+    private static int getNameRecordSize(int length) {
+        //Записи выровнены по 8 байт, иначе заголовок не прочитать атомарно
+        return (NAME_HEADER_SIZE + length + 7) & ~7;
+    }
+
+    private static int encode(Move move) {
+        return move == null ? 0 : move.ordinal() + 1;
+    }
+
+    private static Move decode(int code) {
+        return code == 0 ? null : Move.values()[code - 1];
+    }
+
+    private static boolean isSegmentOf(Path file, String owner) {
+        String fileName = file.getFileName().toString();
+        return fileName.startsWith(owner + "-")
+                && fileName.endsWith(SEGMENT_SUFFIX)
+                && fileName.length() == owner.length() + 7 + SEGMENT_SUFFIX.length();
+    }
+
+    private static int getSegmentNumber(Path file) {
+        String fileName = file.getFileName().toString();
+        int end = fileName.length() - SEGMENT_SUFFIX.length();
+        return Integer.parseInt(fileName.substring(end - 6, end));
+    }
+}
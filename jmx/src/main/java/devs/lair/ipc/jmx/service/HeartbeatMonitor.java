@@ -0,0 +1,96 @@
+package devs.lair.ipc.jmx.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class HeartbeatMonitor {
+    private final HeartbeatTable table;
+    private final Map<Long, Tracked> tracked = new HashMap<>();
+    private long lastScanNanos;
+
+    /**
+     * Сторона контроллера: просматривает {@link HeartbeatTable} и для отслеживаемых
+     * имен запоминает, когда счетчик ударов менялся в последний раз.
+     * Число пропущенных ударов - время без изменений, деленное на интервал,
+     * который актор объявил последним ударом. Время берется на стороне контроллера,
+     * так что часы акторов и их ход не важны
+     *
+     * @param table таблица пульса
+     */
+
+    public HeartbeatMonitor(HeartbeatTable table) {
+        this.table = table;
+    }
+
+    public synchronized void track(String name) {
+        tracked.computeIfAbsent(HeartbeatTable.getKey(name), key -> new Tracked());
+    }
+
+    public synchronized void forget(String name) {
+        tracked.remove(HeartbeatTable.getKey(name));
+    }
+
+    /**
+     * Актор убит контроллером: перестаем следить и освобождаем его слот
+     */
+
+    public synchronized void release(String name) {
+        forget(name);
+        table.release(name);
+    }
+
+    /**
+     * Один проход по занятым слотам таблицы
+     *
+     * @param nowNanos текущее время по {@link System#nanoTime()}
+     */
+
+    public synchronized void scan(long nowNanos) {
+        lastScanNanos = nowNanos;
+        tracked.values().forEach(t -> t.found = false);
+        if (tracked.isEmpty()) return;
+
+        int highWater = table.getHighWater();
+        for (int slot = 1; slot < highWater; slot++) {
+            Tracked t = tracked.get(table.getSlotKey(slot));
+            if (t == null) continue;
+
+            long beats = table.getBeats(slot);
+            if (t.slot != slot || t.beats != beats) {
+                t.slot = slot;
+                t.beats = beats;
+                t.lastChangeNanos = nowNanos;
+            }
+            t.intervalMillis = table.getIntervalMillis(slot);
+            t.found = true;
+        }
+    }
+
+    /**
+     * @return состояние пульса на последнем проходе или null, если актор
+     * слота не занимал, освободил его или еще ни разу не ударил
+     */
+
+    public synchronized Status getStatus(String name) {
+        Tracked t = tracked.get(HeartbeatTable.getKey(name));
+        if (t == null || !t.found || t.beats == 0 || t.intervalMillis <= 0) {
+            return null;
+        }
+
+        long silence = lastScanNanos - t.lastChangeNanos;
+        long interval = TimeUnit.MILLISECONDS.toNanos(t.intervalMillis);
+        return new Status(silence / interval, silence, interval);
+    }
+
+    public record Status(long missedBeats, long silenceNanos, long intervalNanos) {
+    }
+
+    private static class Tracked {
+        private int slot = -1;
+        private long beats;
+        private long lastChangeNanos;
+        private int intervalMillis;
+        private boolean found;
+    }
+}
@@ -0,0 +1,253 @@
+package devs.lair.ipc.jmx.service;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static devs.lair.ipc.jmx.utils.Constants.HEARTBEAT_PATH;
+import static java.nio.file.StandardOpenOption.*;
+
+public class HeartbeatTable {
+    public static final int SLOT_SIZE = 64;
+    public static final int DEFAULT_SLOTS = 8192;
+    public static final long FREE = 0;
+
+    private static final int MAGIC = 0x54424848;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int HIGH_WATER_OFFSET = 4;
+
+    private static final int KEY_OFFSET = 0;
+    private static final int PID_OFFSET = 8;
+    private static final int BEATS_OFFSET = 16;
+    private static final int INTERVAL_OFFSET = 24;
+
+    private static final VarHandle LONG = MethodHandles
+            .byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles
+            .byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private static HeartbeatTable shared;
+    private static boolean sharedFailed = false;
+
+    private final MappedByteBuffer memory;
+    private final int slots;
+
+    /**
+     * Таблица пульса процессов в отображенном файле. Каждый актор занимает
+     * свой слот в 64 байта (кэш-линия, чтобы соседние процессы не мешали друг другу)
+     * и на каждом проходе основного цикла увеличивает в нем счетчик ударов.
+     * Слот занимается CAS ключа с нуля на хэш имени актора, слоты умерших
+     * процессов переиспользуются, если свободных не осталось. Нулевой слот - заголовок,
+     * в нем верхняя граница занятых слотов, так что просмотр таблицы
+     * не читает хвост, до которого никто не дошел
+     *
+     * @param file  файл таблицы, создается при первом открытии
+     * @param slots число слотов вместе с заголовком
+     * @throws IOException если файл не удалось отобразить
+     */
+
+    public HeartbeatTable(Path file, int slots) throws IOException {
+        if (slots < 2) {
+            throw new IllegalArgumentException("В таблице пульса должен быть хотя бы один слот");
+        }
+
+        this.slots = slots;
+        try (FileChannel channel = FileChannel.open(file, CREATE, READ, WRITE)) {
+            memory = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) slots * SLOT_SIZE);
+        }
+        memory.order(ByteOrder.nativeOrder());
+
+        int magic = (int) INT.getAcquire(memory, MAGIC_OFFSET);
+        if (magic == 0) {
+            INT.compareAndSet(memory, MAGIC_OFFSET, 0, MAGIC);
+        } else if (magic != MAGIC) {
+            throw new IllegalStateException("Файл не является таблицей пульса: " + file.getFileName());
+        }
+    }
+
+    /**
+     * @return общая на процесс таблица в {@link devs.lair.ipc.jmx.utils.Constants#HEARTBEAT_PATH}
+     * или null, если ее не удалось открыть
+     */
+
+    public static synchronized HeartbeatTable shared() {
+        if (shared == null && !sharedFailed) {
+            try {
+                shared = new HeartbeatTable(HEARTBEAT_PATH, DEFAULT_SLOTS);
+            } catch (IOException | RuntimeException e) {
+                sharedFailed = true;
+                System.out.println("Не удалось открыть таблицу пульса " + e.getMessage());
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Занимает слот под актора
+     *
+     * @param name имя актора
+     * @return пульс актора
+     * @throws IllegalStateException если свободных слотов нет
+     */
+
+    public Heartbeat claim(String name) {
+        long key = getKey(name);
+        long pid = ProcessHandle.current().pid();
+
+        int slot = claimFree(key);
+        if (slot < 0) {
+            slot = claimDead(key);
+        }
+        if (slot < 0) {
+            throw new IllegalStateException("В таблице пульса нет свободных слотов");
+        }
+
+        int offset = slot * SLOT_SIZE;
+        LONG.setOpaque(memory, offset + PID_OFFSET, pid);
+        LONG.setRelease(memory, offset + BEATS_OFFSET, 0L);
+        raiseHighWater(slot);
+        return new Heartbeat(slot, key);
+    }
+
+    /**
+     * Освобождает слот за актора, который сам этого уже не сделает:
+     * процесс убит через destroyForcibly, и его finally не выполнится
+     *
+     * @return true, если слот был занят этим актором
+     */
+
+    public boolean release(String name) {
+        long key = getKey(name);
+        int highWater = getHighWater();
+        for (int slot = 1; slot < highWater; slot++) {
+            int offset = slot * SLOT_SIZE;
+            if ((long) LONG.getAcquire(memory, offset + KEY_OFFSET) == key) {
+                return free(offset, key);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return верхняя граница занятых слотов, исключительно
+     */
+
+    public int getHighWater() {
+        return (int) INT.getAcquire(memory, HIGH_WATER_OFFSET);
+    }
+
+    public long getSlotKey(int slot) {
+        return (long) LONG.getAcquire(memory, checkSlot(slot) * SLOT_SIZE + KEY_OFFSET);
+    }
+
+    public long getBeats(int slot) {
+        return (long) LONG.getAcquire(memory, checkSlot(slot) * SLOT_SIZE + BEATS_OFFSET);
+    }
+
+    public int getIntervalMillis(int slot) {
+        return (int) INT.getOpaque(memory, checkSlot(slot) * SLOT_SIZE + INTERVAL_OFFSET);
+    }
+
+    /**
+     * 64-битный FNV-1a от имени, 0 занят под свободный слот
+     */
+
+    public static long getKey(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Имя не может быть пустым");
+        }
+
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash == FREE ? 1 : hash;
+    }
+
+    private int claimFree(long key) {
+        for (int slot = 1; slot < slots; slot++) {
+            if (LONG.compareAndSet(memory, slot * SLOT_SIZE + KEY_OFFSET, FREE, key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int claimDead(long key) {
+        for (int slot = 1; slot < slots; slot++) {
+            int offset = slot * SLOT_SIZE;
+            long owner = (long) LONG.getAcquire(memory, offset + KEY_OFFSET);
+            long pid = (long) LONG.getOpaque(memory, offset + PID_OFFSET);
+            //pid 0 - слот только что заняли и еще не дописали
+            boolean dead = pid != 0 && !ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+            if (dead && LONG.compareAndSet(memory, offset + KEY_OFFSET, owner, key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean free(int offset, long key) {
+        //Сначала pid: слот с нулевым pid никто не сочтет брошенным
+        LONG.setRelease(memory, offset + PID_OFFSET, 0L);
+        return LONG.compareAndSet(memory, offset + KEY_OFFSET, key, FREE);
+    }
+
+    private void raiseHighWater(int slot) {
+        int current;
+        do {
+            current = getHighWater();
+        } while (current <= slot && !INT.compareAndSet(memory, HIGH_WATER_OFFSET, current, slot + 1));
+    }
+
+    private int checkSlot(int slot) {
+        if (slot < 1 || slot >= slots) {
+            throw new IllegalArgumentException("Нет такого слота " + slot);
+        }
+        return slot;
+    }
+
+    public class Heartbeat implements AutoCloseable {
+        private final int offset;
+        private final long key;
+        private boolean released = false;
+
+        private Heartbeat(int slot, long key) {
+            this.offset = slot * SLOT_SIZE;
+            this.key = key;
+        }
+
+        /**
+         * Удар пульса: увеличивает счетчик слота
+         *
+         * @param intervalMillis через сколько ждать следующего удара
+         */
+
+        public void beat(int intervalMillis) {
+            if (released) return;
+
+            INT.setOpaque(memory, offset + INTERVAL_OFFSET, intervalMillis);
+            LONG.getAndAddRelease(memory, offset + BEATS_OFFSET, 1L);
+        }
+
+        /**
+         * Освобождает слот, если его еще никто не перехватил
+         */
+
+        @Override
+        public void close() {
+            if (released) return;
+
+            released = true;
+            if ((long) LONG.getAcquire(memory, offset + KEY_OFFSET) == key) {
+                free(offset, key);
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package devs.lair.ipc.jmx.service;
+
+import devs.lair.ipc.jmx.service.interfaces.LeaderboardMBean;
+import devs.lair.ipc.jmx.service.metrics.Metrics;
+import devs.lair.ipc.jmx.service.model.PlayerStats;
+import devs.lair.ipc.jmx.service.model.RoundRecord.Outcome;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class Leaderboard implements LeaderboardMBean {
+    public static final int WIN_POINTS = 3;
+    public static final int DRAW_POINTS = 1;
+
+    private static final String SERVICE = "leaderboard";
+    private static final int TOP_TEN = 10;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] points = new int[INITIAL_CAPACITY];
+    private int[] wins = new int[INITIAL_CAPACITY];
+    private int[] draws = new int[INITIAL_CAPACITY];
+    private int[] losses = new int[INITIAL_CAPACITY];
+    private int[] timeouts = new int[INITIAL_CAPACITY];
+    private int size = 0;
+    private long rounds = 0;
+
+    //(очки << 32 | инвертированный id): по убыванию - лидеры, при равенстве кто раньше пришел
+    private final TreeSet<Long> ranking = new TreeSet<>();
+    //Дерево Фенвика: сколько игроков набрали ровно столько очков
+    private int[] pointsTree = new int[INITIAL_CAPACITY + 1];
+
+    /**
+     * Таблица лидеров, которая обновляется по каждому раунду, а не пересчитывается
+     * по истории. Игроку при первом появлении выдается компактный номер,
+     * счетчики лежат в массивах примитивов по этому номеру.
+     * Рядом поддерживаются упорядоченный индекс по очкам для топа
+     * и дерево Фенвика по очкам для места игрока, так что раунд,
+     * топ-K и статистика игрока стоят O(log n) (топ - плюс K)
+     */
+
+    public void register() {
+        Metrics.register(SERVICE, this, LeaderboardMBean.class);
+    }
+
+    public void unregister() {
+        Metrics.unregister(SERVICE);
+    }
+
+    /**
+     * Учитывает раунд. Для {@link Outcome#TIMEOUT} в паре указаны
+     * только не походившие игроки, у походившего место пустое
+     */
+
+    public synchronized void recordRound(String first, String second, Outcome outcome) {
+        if (outcome != Outcome.TIMEOUT && (first == null || second == null)) {
+            throw new IllegalArgumentException("В сыгранном раунде должны быть оба игрока");
+        }
+
+        int firstId = getOrAddId(first);
+        int secondId = getOrAddId(second);
+
+        switch (outcome) {
+            case DRAW -> {
+                draws[firstId]++;
+                draws[secondId]++;
+                addPoints(firstId, DRAW_POINTS);
+                addPoints(secondId, DRAW_POINTS);
+            }
+            case FIRST_WINS -> {
+                wins[firstId]++;
+                losses[secondId]++;
+                addPoints(firstId, WIN_POINTS);
+            }
+            case SECOND_WINS -> {
+                losses[firstId]++;
+                wins[secondId]++;
+                addPoints(secondId, WIN_POINTS);
+            }
+            case TIMEOUT -> {
+                if (firstId >= 0) timeouts[firstId]++;
+                if (secondId >= 0) timeouts[secondId]++;
+            }
+        }
+        rounds++;
+    }
+
+    /**
+     * @return не больше k лучших игроков по убыванию очков
+     */
+
+    public synchronized List<PlayerStats> getLeaders(int k) {
+        List<PlayerStats> leaders = new ArrayList<>(Math.min(Math.max(k, 0), size));
+        Iterator<Long> iterator = ranking.descendingIterator();
+        while (leaders.size() < k && iterator.hasNext()) {
+            leaders.add(toStats(getId(iterator.next())));
+        }
+        return leaders;
+    }
+
+    /**
+     * @return статистика игрока или null, если он не сыграл ни одного раунда
+     */
+
+    public synchronized PlayerStats getStats(String name) {
+        Integer id = ids.get(name);
+        return id == null ? null : toStats(id);
+    }
+
+    @Override
+    public synchronized int getPlayersCount() {
+        return size;
+    }
+
+    @Override
+    public synchronized long getRoundsCount() {
+        return rounds;
+    }
+
+    @Override
+    public String[] getTopTen() {
+        return getLeaders(TOP_TEN).stream()
+                .map(PlayerStats::toString)
+                .toArray(String[]::new);
+    }
+
+    @Override
+    public String describePlayer(String name) {
+        PlayerStats stats = getStats(name);
+        return stats == null ? "Игрок " + name + " еще не играл" : stats.toString();
+    }
+
+    private int getOrAddId(String name) {
+        if (name == null) {
+            return -1;
+        }
+
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        if (size == names.length) {
+            grow();
+        }
+
+        int newId = size++;
+        ids.put(name, newId);
+        names[newId] = name;
+        addToTree(0, 1);
+        ranking.add(getKey(newId));
+        return newId;
+    }
+
+    private void addPoints(int id, int delta) {
+        ranking.remove(getKey(id));
+        addToTree(points[id], -1);
+
+        points[id] += delta;
+
+        addToTree(points[id], 1);
+        ranking.add(getKey(id));
+    }
+
+    private PlayerStats toStats(int id) {
+        return new PlayerStats(names[id], getRank(id), points[id],
+                wins[id], draws[id], losses[id], timeouts[id]);
+    }
+
+    /**
+     * Место как в спорте: 1 + число игроков, у которых очков строго больше
+     */
+
+    private int getRank(int id) {
+        return 1 + size - countUpTo(points[id]);
+    }
+
+    private long getKey(int id) {
+        return (long) points[id] << 32 | (Integer.MAX_VALUE - id);
+    }
+
+    private int getId(long key) {
+        return Integer.MAX_VALUE - (int) key;
+    }
+
+    private void addToTree(int pointsValue, int delta) {
+        if (pointsValue + 1 >= pointsTree.length) {
+            rebuildTree(Math.max(pointsTree.length * 2, pointsValue + 2));
+        }
+
+        for (int i = pointsValue + 1; i < pointsTree.length; i += i & -i) {
+            pointsTree[i] += delta;
+        }
+    }
+
+    /**
+     * @return сколько игроков набрали не больше pointsValue очков
+     */
+
+    private int countUpTo(int pointsValue) {
+        int count = 0;
+        for (int i = Math.min(pointsValue + 1, pointsTree.length - 1); i > 0; i -= i & -i) {
+            count += pointsTree[i];
+        }
+        return count;
+    }
+
+    private void rebuildTree(int length) {
+        pointsTree = new int[length];
+        //Строим за O(n) по индексу, обновляемого сейчас игрока в нем еще нет
+        for (Long key : ranking) {
+            int i = (int) (key >>> 32) + 1;
+            pointsTree[i]++;
+        }
+        for (int i = 1; i < length; i++) {
+            int parent = i + (i & -i);
+            if (parent < length) {
+                pointsTree[parent] += pointsTree[i];
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        points = Arrays.copyOf(points, capacity);
+        wins = Arrays.copyOf(wins, capacity);
+        draws = Arrays.copyOf(draws, capacity);
+        losses = Arrays.copyOf(losses, capacity);
+        timeouts = Arrays.copyOf(timeouts, capacity);
+    }
+}
@@ -0,0 +1,72 @@
+package devs.lair.ipc.jmx.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static devs.lair.ipc.jmx.utils.Constants.PLAYER_FILE_SUFFIX;
+
+public class MoveNotifier implements AutoCloseable {
+    private final Map<String, Runnable> waiters = new ConcurrentHashMap<>();
+    private volatile DirWatcher dirWatcher;
+
+    /**
+     * Будит стол арбитра, как только игрок записал ход в свой файл.
+     * Стол регистрирует обработчик через {@link #expect(String, Runnable)} до проверки хода,
+     * поэтому событие, пришедшее между проверкой и планированием следующего шага,
+     * не теряется: обработчик просто запустит шаг раньше.
+     * Если наблюдение запустить не удалось, {@link #isWatching()} вернет false
+     * и стол продолжит опрашивать канал сам. Изменения приходят пачками,
+     * так что несколько записей одного игрока будят стол один раз,
+     * а после потери событий (OVERFLOW) будятся все ждущие столы
+     *
+     * @param playersDir директория с файлами игроков
+     */
+
+    public void startWatch(String playersDir) {
+        if (dirWatcher != null) return;
+
+        try {
+            dirWatcher = new DirWatcher(playersDir, 0, false, WatchHub.shared());
+            dirWatcher.addChangesListener(this::onChanges);
+            dirWatcher.startWatch();
+        } catch (Exception e) {
+            dirWatcher = null;
+            System.out.println("Не удалось запустить наблюдение за ходами игроков " + e.getMessage());
+        }
+    }
+
+    public boolean isWatching() {
+        return dirWatcher != null;
+    }
+
+    public void expect(String playerName, Runnable onMove) {
+        waiters.put(playerName + PLAYER_FILE_SUFFIX, onMove);
+    }
+
+    public void forget(String playerName) {
+        waiters.remove(playerName + PLAYER_FILE_SUFFIX);
+    }
+
+    private void onChanges(DirWatcher.Changes changes) {
+        if (changes.overflow()) {
+            waiters.values().forEach(Runnable::run);
+            return;
+        }
+
+        for (String fileName : changes.modified()) {
+            Runnable waiter = waiters.get(fileName);
+            if (waiter != null) {
+                waiter.run();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        waiters.clear();
+        if (dirWatcher != null) {
+            dirWatcher.close();
+            dirWatcher = null;
+        }
+    }
+}
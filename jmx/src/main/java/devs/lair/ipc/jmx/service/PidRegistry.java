@@ -0,0 +1,135 @@
+package devs.lair.ipc.jmx.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static devs.lair.ipc.jmx.utils.Constants.PID_DIR;
+import static devs.lair.ipc.jmx.utils.Utils.tryDelete;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+public class PidRegistry {
+    private static final String PID_FILE_SUFFIX = ".pid";
+    private static final long UNKNOWN_START = -1;
+
+    /**
+     * Реестр имя актора -> pid на pid-файлах в {@link devs.lair.ipc.jmx.utils.Constants#PID_DIR}.
+     * В файле pid и время старта процесса: по нему отсекаем файлы, оставшиеся
+     * от умерших процессов, чей pid уже занял кто-то другой.
+     * Поиск - одно чтение файла вместо обхода всей таблицы процессов
+     */
+
+    private PidRegistry() {
+    }
+
+    public static void register(String name) {
+        register(name, ProcessHandle.current());
+    }
+
+    public static void register(String name, ProcessHandle process) {
+        Path pidFile = getPidPath(name);
+        Path tmpFile = pidFile.resolveSibling(pidFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(pidFile.getParent());
+            Files.writeString(tmpFile, process.pid() + "\n" + getStartMillis(process));
+            Files.move(tmpFile, pidFile, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException e) {
+            tryDelete(tmpFile);
+            System.out.println("Не удалось записать pid файл " + e.getMessage());
+        }
+    }
+
+    public static void unregister(String name) {
+        tryDelete(getPidPath(name));
+    }
+
+    /**
+     * @param name имя актора
+     * @return живой процесс актора, либо null, если файла нет
+     * или процесс с этим pid уже другой
+     */
+
+    public static ProcessHandle find(String name) {
+        Path pidFile = getPidPath(name);
+        try {
+            List<String> lines = Files.readAllLines(pidFile);
+            long pid = Long.parseLong(lines.get(0).trim());
+            long startMillis = Long.parseLong(lines.get(1).trim());
+
+            Optional<ProcessHandle> process = ProcessHandle.of(pid);
+            if (process.isPresent() && isSameStart(process.get(), startMillis)) {
+                return process.get();
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Поврежден pid файл " + pidFile.getFileName());
+        }
+
+        tryDelete(pidFile);
+        return null;
+    }
+
+    /**
+     * @param prefix начало имени актора
+     * @return живые процессы всех акторов с таким началом имени
+     */
+
+    public static List<ProcessHandle> findAll(String prefix) {
+        List<String> names;
+        try (Stream<Path> files = Files.list(Paths.get(PID_DIR))) {
+            names = files.map(file -> file.getFileName().toString())
+                    .filter(fileName -> fileName.startsWith(prefix) && fileName.endsWith(PID_FILE_SUFFIX))
+                    .map(fileName -> fileName.substring(0, fileName.length() - PID_FILE_SUFFIX.length()))
+                    .toList();
+        } catch (NoSuchFileException e) {
+            return List.of();
+        } catch (IOException e) {
+            System.out.println("Не удалось прочитать директорию pid файлов " + e.getMessage());
+            return List.of();
+        }
+
+        return names.stream()
+                .map(PidRegistry::find)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Удаляет pid файлы умерших процессов, например убитых
+     * через destroyForcibly, у которых не отработал shutdown hook
+     *
+     * @return сколько живых процессов осталось в реестре
+     */
+
+    public static int removeStale() {
+        //find сам удаляет файл, если процесса уже нет или pid занят другим
+        return findAll("").size();
+    }
+
+    private static boolean isSameStart(ProcessHandle process, long startMillis) {
+        long actual = getStartMillis(process);
+        return startMillis == UNKNOWN_START || actual == UNKNOWN_START || actual == startMillis;
+    }
+
+    private static long getStartMillis(ProcessHandle process) {
+        return process.info().startInstant()
+                .map(Instant::toEpochMilli)
+                .orElse(UNKNOWN_START);
+    }
+
+    private static Path getPidPath(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Имя не может быть пустым");
+        }
+        return Paths.get(PID_DIR, name + PID_FILE_SUFFIX);
+    }
+}
@@ -1,39 +1,51 @@
 package devs.lair.ipc.jmx.service;
 
 import devs.lair.ipc.jmx.service.interfaces.IPlayerProvider;
+import devs.lair.ipc.jmx.service.metrics.PlayerMetrics;
+import devs.lair.ipc.jmx.service.model.ActorProcess;
+import devs.lair.ipc.jmx.service.model.RoundRecord.Outcome;
+import devs.lair.ipc.jmx.service.socket.ProviderSocketServer;
 import devs.lair.ipc.jmx.utils.Utils;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.WatchEvent;
 import java.rmi.AlreadyBoundException;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.rmi.server.UnicastRemoteObject;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static devs.lair.ipc.jmx.utils.Constants.PLAYER_DIR;
 import static devs.lair.ipc.jmx.utils.Constants.PLAYER_FILE_SUFFIX;
+import static devs.lair.ipc.jmx.utils.Constants.PROVIDER_SOCKET_PATH;
 import static devs.lair.ipc.jmx.utils.Utils.*;
 
 public class PlayerProvider implements IPlayerProvider, AutoCloseable {
 
+    private static final long DISCOVERY_COALESCE_MILLIS = 10;
+
     private DirWatcher dirWatcher;
+    private ProviderSocketServer socketServer;
     private final ArbiterProvider arbiterProvider;
-    private final Queue<String> players = new ConcurrentLinkedQueue<>();
+    private final PlayerQueue players = new PlayerQueue();
+    private final Map<String, Long> queuedAt = new ConcurrentHashMap<>();
+    private final Map<String, Long> leasedAt = new ConcurrentHashMap<>();
 
     private final AtomicInteger provided = new AtomicInteger(0);
     private final AtomicInteger returned = new AtomicInteger(0);
     private final AtomicInteger finished = new AtomicInteger(0);
     private final AtomicInteger added = new AtomicInteger(0);
     private final AtomicInteger zombie = new AtomicInteger(0);
+    private final AtomicInteger matches = new AtomicInteger(0);
+    private final AtomicLong matchNanos = new AtomicLong(0);
+    private final PlayerMetrics metrics = new PlayerMetrics(this);
+    private final Leaderboard leaderboard = new Leaderboard();
 
     public PlayerProvider(ArbiterProvider arbiterProvider) {
         this.arbiterProvider = arbiterProvider;
@@ -41,57 +53,150 @@ public class PlayerProvider implements IPlayerProvider, AutoCloseable {
 
     @Override
     public String getPlayerName(String arbiterName, int position) throws RemoteException {
+        long start = System.nanoTime();
         String playerName = players.poll();
         arbiterProvider.onArbiterRequest(arbiterName);
 
-        if (playerName != null && Files.exists(getPathFromName(playerName))) {
-            arbiterProvider.addPlayerToArbiter(arbiterName, position, playerName);
+        if (playerName != null) {
+            arbiterProvider.addPlayerToArbiter(arbiterName, playerName);
+            onLease(playerName, start);
             provided.incrementAndGet();
-            return playerName;
         }
-        return null;
+
+        metrics.getLeaseLatency().recordSince(start);
+        return playerName;
+    }
+
+    @Override
+    public String[] leasePair(String arbiterName) throws RemoteException {
+        long start = System.nanoTime();
+        arbiterProvider.onArbiterRequest(arbiterName);
+
+        String[] pair = players.pollPair();
+        if (pair != null) {
+            for (String playerName : pair) {
+                arbiterProvider.addPlayerToArbiter(arbiterName, playerName);
+                onLease(playerName, start);
+            }
+            provided.addAndGet(2);
+        }
+
+        metrics.getLeaseLatency().recordSince(start);
+        return pair;
     }
 
     @Override
     public void finishPlayer(String arbiterName, String[] players) throws RemoteException {
+        long gameStart = Long.MAX_VALUE;
         for (String playerName : players) {
             if (playerName == null) continue;
+            gameStart = Math.min(gameStart, leasedAt.getOrDefault(playerName, Long.MAX_VALUE));
+            leasedAt.remove(playerName);
             arbiterProvider.removePlayerFromArbiter(arbiterName, playerName);
             tryDelete(getPathFromName(playerName));
             finished.incrementAndGet();
         }
+
+        if (gameStart != Long.MAX_VALUE) {
+            long duration = System.nanoTime() - gameStart;
+            matchNanos.addAndGet(duration);
+            matches.incrementAndGet();
+            metrics.getMatchDuration().record(duration);
+        }
     }
 
     @Override
     public void returnPlayer(String arbiterName, String playerName) throws RemoteException {
+        if (playerName != null) {
+            leasedAt.remove(playerName);
+        }
+
         if (playerName != null && Files.exists(getPathFromName(playerName))) {
-            players.add(playerName);
-            returned.incrementAndGet();
+            if (offer(playerName)) {
+                returned.incrementAndGet();
+            }
             arbiterProvider.removePlayerFromArbiter(arbiterName, playerName);
         }
     }
 
     @Override
     public void killZombie(String arbiterName, String playerName) throws RemoteException {
-        ProcessHandle zombieProcess = Utils.findZombieProcess(playerName);
-
-        if (zombieProcess == null) {
+        if (!killPlayer(playerName)) {
             System.out.println("Не найден процесс зомби игрока");
             return;
         }
 
-        zombieProcess.destroyForcibly();
-        tryDelete(getPathFromName(playerName));
         arbiterProvider.removePlayerFromArbiter(arbiterName, playerName);
+        leasedAt.remove(playerName);
 
         zombie.incrementAndGet();
         System.out.println("Зомби игрок был убит: " + playerName);
     }
 
+    /**
+     * Зомби среди игроков в очереди: игрок пропустил {@link ArbiterProvider#MAX_MISSED_BEATS}
+     * ударов пульса и молчит дольше zombieTimeoutNanos. Иначе арбитр взял бы его
+     * в пару и потерял раунд на таймауте. Игроков за столами проверяет сам арбитр
+     *
+     * @param zombieTimeoutNanos сколько молчания терпеть, как минимум время ожидания хода
+     */
+
+    public void findAndKillZombie(long zombieTimeoutNanos) {
+        HeartbeatMonitor heartbeatMonitor = arbiterProvider.getHeartbeatMonitor();
+        if (heartbeatMonitor != null) {
+            findAndKillZombie(heartbeatMonitor, System.nanoTime(), zombieTimeoutNanos);
+        }
+    }
+
+    void findAndKillZombie(HeartbeatMonitor heartbeatMonitor, long nowNanos, long zombieTimeoutNanos) {
+        queuedAt.keySet().forEach(heartbeatMonitor::track);
+        heartbeatMonitor.scan(nowNanos);
+
+        for (String playerName : queuedAt.keySet()) {
+            HeartbeatMonitor.Status status = heartbeatMonitor.getStatus(playerName);
+            if (status == null || status.missedBeats() < ArbiterProvider.MAX_MISSED_BEATS
+                    || status.silenceNanos() < zombieTimeoutNanos) {
+                continue;
+            }
+
+            //Арбитр мог успеть забрать игрока, тогда решает он
+            if (players.remove(playerName)) {
+                queuedAt.remove(playerName);
+                killPlayer(playerName);
+                heartbeatMonitor.forget(playerName);
+                zombie.incrementAndGet();
+                System.out.println("Зомби игрок в очереди был убит: " + playerName);
+            }
+        }
+    }
+
+    @Override
+    public void reportCapacity(String arbiterName, int freeTables, int totalTables) throws RemoteException {
+        arbiterProvider.updateCapacity(arbiterName, freeTables, totalTables);
+    }
+
+    /**
+     * Итоги раундов пачкой: игроки i-го раунда лежат в players[2i] и players[2i + 1],
+     * итог - в outcomes[i] как номер {@link Outcome}
+     */
+
+    @Override
+    public void reportRounds(String arbiterName, String[] players, byte[] outcomes) throws RemoteException {
+        if (players.length != outcomes.length * 2) {
+            throw new IllegalArgumentException("Число игроков не совпадает с числом раундов");
+        }
+
+        Outcome[] values = Outcome.values();
+        for (int i = 0; i < outcomes.length; i++) {
+            leaderboard.recordRound(players[2 * i], players[2 * i + 1], values[outcomes[i]]);
+        }
+    }
+
     public void returnZombiePlayers(String[] fromZombie) {
         for (String player : fromZombie) {
-            if (player != null) {
-                players.add(player);
+            if (player == null) continue;
+            leasedAt.remove(player);
+            if (offer(player)) {
                 returned.incrementAndGet();
             }
         }
@@ -100,35 +205,111 @@ public class PlayerProvider implements IPlayerProvider, AutoCloseable {
     public void init() {
         startWatch();
         register();
+        startSocketServer();
+        metrics.register();
+        leaderboard.register();
     }
 
+    /**
+     * Начальный список игроков берется из того же скана, от которого DirWatcher
+     * считает изменения, поэтому игрок, созданный во время старта, не теряется
+     * и не ставится в очередь дважды. Во время массового запуска игроков
+     * события приходят пачками раз в {@link #DISCOVERY_COALESCE_MILLIS} мс
+     */
+
     private void startWatch() {
-        Path playerDir = Paths.get(PLAYER_DIR);
-        try (Stream<Path> playersFiles =
-                     Files.walk(playerDir.toAbsolutePath(), 1)) {
-            players.addAll(playersFiles
-                    .filter(p -> Files.isRegularFile(p) && p.toString().contains(PLAYER_FILE_SUFFIX))
-                    .map(p -> getNameFromPath(p.getFileName()))
-                    .toList());
+        dirWatcher = new DirWatcher(PLAYER_DIR, DISCOVERY_COALESCE_MILLIS, false, WatchHub.shared());
+        dirWatcher.getEntries().stream()
+                .filter(PlayerProvider::isPlayerFile)
+                .forEach(fileName -> offer(getNameFromPath(Path.of(fileName))));
 
-        } catch (IOException e) {
-            throw new IllegalStateException("Ошибка, при получении списка файлов", e);
-        }
+        dirWatcher.addChangesListener(this::onPlayersChanged);
+        dirWatcher.startWatch();
+    }
 
-        dirWatcher = new DirWatcher(PLAYER_DIR);
-        dirWatcher.addListener(new DirWatcher.DirWatcherListener() {
-            @Override
-            public void onCreate(WatchEvent<Path> event) {
-                Path eventPath = event.context();
-                String playerName = getNameFromPath(eventPath);
-                players.add(playerName);
+    void onPlayersChanged(DirWatcher.Changes changes) {
+        for (String fileName : changes.created()) {
+            if (isPlayerFile(fileName) && offer(getNameFromPath(Path.of(fileName)))) {
                 added.incrementAndGet();
             }
-        });
-        dirWatcher.startWatch();
+        }
+
+        for (String fileName : changes.deleted()) {
+            if (isPlayerFile(fileName)) {
+                removePlayer(getNameFromPath(Path.of(fileName)));
+            }
+        }
+    }
+
+    private static boolean isPlayerFile(String fileName) {
+        return fileName.endsWith(PLAYER_FILE_SUFFIX);
+    }
+
+    void removePlayer(String playerName) {
+        players.remove(playerName);
+        queuedAt.remove(playerName);
+        leasedAt.remove(playerName);
+
+        HeartbeatMonitor heartbeatMonitor = arbiterProvider.getHeartbeatMonitor();
+        if (heartbeatMonitor != null) {
+            heartbeatMonitor.forget(playerName);
+        }
+    }
+
+    /**
+     * @return false, если процесс игрока не найден
+     */
+
+    private boolean killPlayer(String playerName) {
+        ActorProcess embeddedPlayer = ProcessStarter.findEmbedded(playerName);
+        ProcessHandle zombieProcess = embeddedPlayer == null
+                ? Utils.findZombieProcess(playerName)
+                : null;
+
+        if (embeddedPlayer != null) {
+            embeddedPlayer.kill();
+        } else if (zombieProcess != null) {
+            zombieProcess.destroyForcibly();
+            //Shutdown hook и finally убитого процесса не сработают
+            PidRegistry.unregister(playerName);
+            HeartbeatMonitor heartbeatMonitor = arbiterProvider.getHeartbeatMonitor();
+            if (heartbeatMonitor != null) {
+                heartbeatMonitor.release(playerName);
+            }
+        }
+        tryDelete(getPathFromName(playerName));
+        return embeddedPlayer != null || zombieProcess != null;
+    }
+
+    private boolean offer(String playerName) {
+        if (playerName == null) {
+            return false;
+        }
+
+        //Время ставим до постановки в очередь, иначе арбитр может забрать игрока раньше
+        long now = System.nanoTime();
+        Long previous = queuedAt.putIfAbsent(playerName, now);
+        boolean offered = players.offer(playerName);
+        if (!offered && previous == null) {
+            queuedAt.remove(playerName, now);
+        }
+        return offered;
+    }
+
+    private void onLease(String playerName, long now) {
+        Long queued = queuedAt.remove(playerName);
+        if (queued != null) {
+            metrics.getQueueWait().record(now - queued);
+        }
+        leasedAt.put(playerName, now);
     }
 
     public void close() {
+        metrics.unregister();
+        leaderboard.unregister();
+        if (socketServer != null) {
+            socketServer.close();
+        }
         if (dirWatcher == null) return;
         dirWatcher.close();
     }
@@ -144,6 +325,21 @@ public class PlayerProvider implements IPlayerProvider, AutoCloseable {
         }
     }
 
+    /**
+     * Тот же PlayerProvider на unix domain сокете, для арбитров с provider.transport = socket.
+     * RMI при этом остается, выбор за арбитром
+     */
+
+    private void startSocketServer() {
+        socketServer = new ProviderSocketServer(this, PROVIDER_SOCKET_PATH);
+        try {
+            socketServer.start();
+        } catch (IOException e) {
+            socketServer = null;
+            System.out.println("Не удалось открыть сокет PlayerProvider " + e.getMessage());
+        }
+    }
+
     public int getQuerySize() {
         return players.size();
     }
@@ -167,4 +363,24 @@ public class PlayerProvider implements IPlayerProvider, AutoCloseable {
     public int getZombieCount() {
         return zombie.get();
     }
+
+    public PlayerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    public int getMatchCount() {
+        return matches.get();
+    }
+
+    /**
+     * @return суммарное время от выдачи пары арбитру до конца игры по всем доигранным играм
+     */
+
+    public long getMatchNanos() {
+        return matchNanos.get();
+    }
 }
\ No newline at end of file
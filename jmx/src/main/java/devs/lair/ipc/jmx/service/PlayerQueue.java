@@ -0,0 +1,92 @@
+package devs.lair.ipc.jmx.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class PlayerQueue {
+    private final LinkedHashMap<String, Long> fresh = new LinkedHashMap<>();
+    private final TreeMap<Long, String> returned = new TreeMap<>();
+    private final Map<String, Long> tickets = new HashMap<>();
+
+    private long nextTicket = 0;
+
+    /**
+     * Очередь игроков на подбор пары с семантикой множества: имя стоит
+     * в очереди не больше одного раза. Каждый игрок при первом появлении
+     * получает билет, и билет сохраняется, пока игрок жив. Новые игроки
+     * стоят в FIFO полосе, их билеты растут по порядку. Игроки с уже выданным
+     * билетом (вернувшиеся) идут в полосу, упорядоченную по билету,
+     * и выдается игрок со старшим билетом из двух полос,
+     * поэтому вернувшийся не ждет в хвосте за новыми.
+     * Операции с новыми игроками O(1), с вернувшимися O(log n)
+     */
+
+    public synchronized boolean offer(String playerName) {
+        if (playerName == null || contains(playerName)) {
+            return false;
+        }
+
+        Long ticket = tickets.get(playerName);
+        if (ticket == null) {
+            ticket = nextTicket++;
+            tickets.put(playerName, ticket);
+            fresh.put(playerName, ticket);
+        } else {
+            returned.put(ticket, playerName);
+        }
+        return true;
+    }
+
+    public synchronized String poll() {
+        if (returned.isEmpty() && fresh.isEmpty()) {
+            return null;
+        }
+
+        if (fresh.isEmpty() || !returned.isEmpty()
+                && returned.firstKey() < fresh.values().iterator().next()) {
+            return returned.pollFirstEntry().getValue();
+        }
+
+        Iterator<String> iterator = fresh.keySet().iterator();
+        String playerName = iterator.next();
+        iterator.remove();
+        return playerName;
+    }
+
+    /**
+     * @return двух игроков разом, либо null, если в очереди меньше двух
+     */
+
+    public synchronized String[] pollPair() {
+        if (size() < 2) {
+            return null;
+        }
+        return new String[]{poll(), poll()};
+    }
+
+    /**
+     * Игрок ушел насовсем: убираем из очереди и забываем билет
+     */
+
+    public synchronized boolean remove(String playerName) {
+        Long ticket = tickets.remove(playerName);
+        return fresh.remove(playerName) != null
+                | (ticket != null && returned.remove(ticket) != null);
+    }
+
+    public synchronized boolean contains(String playerName) {
+        if (fresh.containsKey(playerName)) {
+            return true;
+        }
+
+        Long ticket = tickets.get(playerName);
+        return ticket != null && returned.containsKey(ticket);
+    }
+
+    public synchronized int size() {
+        return fresh.size() + returned.size();
+    }
+}
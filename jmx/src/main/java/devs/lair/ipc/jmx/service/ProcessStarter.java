@@ -9,6 +9,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
 
 public class ProcessStarter {
     private static final ProcessBuilder processBuilder = new ProcessBuilder();
@@ -16,14 +19,57 @@ public class ProcessStarter {
             .getCodeSource().getLocation().getPath();
 
     private static final List<String> commands = List.of("java", "-cp", CLASS_PATH);
+    private static final Map<ProcessType, ZygotePool> pools = new ConcurrentHashMap<>();
+    private static EmbeddedStarter embeddedStarter;
+
+    public static void useEmbedded(EmbeddedStarter starter) {
+        embeddedStarter = starter;
+    }
+
+    public static ActorProcess findEmbedded(String name) {
+        return embeddedStarter == null ? null : embeddedStarter.find(name);
+    }
+
+    /**
+     * Включает пул заранее запущенных JVM для типа. Пока в пуле есть готовые,
+     * {@link #startProcess(ProcessType)} отдает их вместо холодного старта
+     *
+     * @param type         PLAYER или ARBITER
+     * @param sizeSupplier желаемое число готовых JVM, 0 отключает пополнение
+     */
+
+    public static void usePool(ProcessType type, IntSupplier sizeSupplier) {
+        ZygotePool pool = new ZygotePool(type, sizeSupplier);
+        ZygotePool previous = pools.put(type, pool);
+        if (previous != null) {
+            previous.close();
+        }
+        pool.start();
+    }
+
+    public static void closePools() {
+        pools.values().forEach(ZygotePool::close);
+        pools.clear();
+    }
 
     public static ActorProcess startProcess(ProcessType type, String[] args, boolean passName) {
         if (type == null)
             throw new IllegalArgumentException("Необходимо передать тип");
 
+        if (embeddedStarter != null && embeddedStarter.supports(type) && args == null) {
+            return embeddedStarter.start(type, Utils.generateUniqueName(type.toString().toLowerCase()));
+        }
+
+        ZygotePool pool = pools.get(type);
+        if (pool != null && passName && args == null) {
+            ZygotePool.WarmProcess warm = pool.take();
+            if (warm != null) {
+                return toActorProcess(warm.process(), type, warm.name());
+            }
+        }
+
         try {
-            List<String> executeLine = new ArrayList<>(commands);
-            executeLine.add(type.getMainClass().getCanonicalName());
+            List<String> executeLine = new ArrayList<>();
 
             String name = Utils.generateUniqueName(
                     type.toString().toLowerCase());
@@ -36,23 +82,37 @@ public class ProcessStarter {
                 executeLine.addAll(Arrays.stream(args).toList());
             }
 
-            Process process = processBuilder.command(executeLine).start();
-            ActorProcess actorProcess = (type == ProcessType.ARBITER)
-                        ? new ArbiterProcess(process.toHandle(), type ,name)
-                        : new ActorProcess(process, type, name);
-
-            System.out.printf("Процесс был запущен: имя %s, тип %s, pid = %d \n",
-                    actorProcess.getName(),
-                    actorProcess.getType(),
-                    actorProcess.getProcess().pid());
-
-            return actorProcess;
+            Process process = launch(type.getMainClass(), executeLine.toArray(String[]::new));
+            return toActorProcess(process, type, name);
         } catch (IOException e) {
             System.out.println("Не удалось запустить процесс " + e.getMessage());
         }
         return null;
     }
 
+    static Process launch(Class<?> mainClass, String... args) throws IOException {
+        List<String> executeLine = new ArrayList<>(commands);
+        executeLine.add(mainClass.getCanonicalName());
+        executeLine.addAll(Arrays.asList(args));
+
+        synchronized (processBuilder) {
+            return processBuilder.command(executeLine).start();
+        }
+    }
+
+    private static ActorProcess toActorProcess(Process process, ProcessType type, String name) {
+        ActorProcess actorProcess = (type == ProcessType.ARBITER)
+                    ? new ArbiterProcess(process.toHandle(), type ,name)
+                    : new ActorProcess(process, type, name);
+
+        System.out.printf("Процесс был запущен: имя %s, тип %s, pid = %d \n",
+                actorProcess.getName(),
+                actorProcess.getType(),
+                actorProcess.getProcess().pid());
+
+        return actorProcess;
+    }
+
     public static ActorProcess startProcess(ProcessType type) {
         return startProcess(type, null, true);
     }
@@ -0,0 +1,163 @@
+package devs.lair.ipc.jmx.service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class WatchHub implements AutoCloseable {
+    private static final String THREAD_NAME = "WatchHub";
+    private static WatchHub shared;
+
+    private final WatchService watchService;
+    private final Map<WatchKey, List<DirWatcher>> routes = new HashMap<>();
+    //Только поток хаба: наблюдатели с еще не опубликованной пачкой
+    private final Set<DirWatcher> pending = new LinkedHashSet<>();
+    private Thread thread;
+
+    /**
+     * Один {@link WatchService} и один поток на сколько угодно наблюдаемых директорий.
+     * {@link DirWatcher}, созданный с хабом, регистрирует в нем свои директории,
+     * а события по {@link WatchKey} раздаются наблюдателям этой директории.
+     * Одна и та же директория у разных наблюдателей - один ключ и одна
+     * регистрация в ядре, ключ отменяется, когда уходит последний наблюдатель.
+     * Пачки каждого наблюдателя собираются со своим окном ожидания,
+     * поток засыпает до ближайшего из них. Поток запускается на первой регистрации,
+     * слушатели вызываются в нем, поэтому им нельзя надолго его занимать
+     *
+     * @throws IllegalStateException на IOException
+     */
+
+    public WatchHub() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new IllegalStateException("Ошибка при создании WatchService", e);
+        }
+    }
+
+    /**
+     * @return общий на процесс хаб, он не закрывается
+     */
+
+    public static synchronized WatchHub shared() {
+        if (shared == null) {
+            shared = new WatchHub();
+        }
+        return shared;
+    }
+
+    public synchronized int getDirectoriesCount() {
+        return routes.size();
+    }
+
+    synchronized WatchKey register(Path dir, DirWatcher watcher) throws IOException {
+        WatchKey key = dir.register(watchService, DirWatcher.KINDS);
+        List<DirWatcher> watchers = routes.computeIfAbsent(key, k -> new ArrayList<>());
+        if (!watchers.contains(watcher)) {
+            watchers.add(watcher);
+        }
+
+        if (thread == null) {
+            thread = Thread.ofPlatform().name(THREAD_NAME).daemon().start(this::run);
+        }
+        return key;
+    }
+
+    synchronized void unregister(DirWatcher watcher, Collection<WatchKey> keys) {
+        for (WatchKey key : keys) {
+            List<DirWatcher> watchers = routes.get(key);
+            if (watchers == null) continue;
+
+            watchers.remove(watcher);
+            if (watchers.isEmpty()) {
+                routes.remove(key);
+                key.cancel();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Ошибка при закрытии сервиса", e);
+        }
+    }
+
+    private void run() {
+        while (true) {
+            try {
+                WatchKey key = pending.isEmpty()
+                        ? watchService.take()
+                        : watchService.poll(Math.max(0, getNextDeadline() - System.nanoTime()), TimeUnit.NANOSECONDS);
+
+                //Готовые ключи забираем все, чтобы пачка с нулевым окном была полной
+                while (key != null) {
+                    dispatch(key);
+                    key = watchService.poll();
+                }
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            }
+
+            long now = System.nanoTime();
+            pending.removeIf(watcher -> {
+                if (watcher.getPendingDeadline() - now > 0) {
+                    return false;
+                }
+                try {
+                    watcher.publishPending();
+                } catch (RuntimeException e) {
+                    System.out.println("Ошибка в слушателе директории " + e.getMessage());
+                }
+                return true;
+            });
+        }
+    }
+
+    private void dispatch(WatchKey key) {
+        List<WatchEvent<?>> events = key.pollEvents();
+        boolean valid = key.reset();
+
+        for (DirWatcher watcher : route(key, valid)) {
+            try {
+                watcher.deliver(key, events, valid);
+            } catch (RuntimeException e) {
+                System.out.println("Ошибка при разборе событий директории " + e.getMessage());
+            }
+            if (watcher.getPendingDeadline() != Long.MAX_VALUE) {
+                pending.add(watcher);
+            }
+        }
+    }
+
+    /**
+     * Невалидный ключ (директорию удалили) больше не придет, маршрут убирается сразу
+     */
+
+    private synchronized List<DirWatcher> route(WatchKey key, boolean valid) {
+        List<DirWatcher> watchers = valid ? routes.get(key) : routes.remove(key);
+        return watchers == null ? List.of() : List.copyOf(watchers);
+    }
+
+    private long getNextDeadline() {
+        long next = Long.MAX_VALUE;
+        for (DirWatcher watcher : pending) {
+            next = Math.min(next, watcher.getPendingDeadline());
+        }
+        return next;
+    }
+}
@@ -0,0 +1,192 @@
+package devs.lair.ipc.jmx.service;
+
+import devs.lair.ipc.jmx.Zygote;
+import devs.lair.ipc.jmx.service.enums.ProcessType;
+import devs.lair.ipc.jmx.utils.Utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+public class ZygotePool implements AutoCloseable {
+    private static final long REFILL_TIMEOUT = 1000;
+    private static final long READY_TIMEOUT = 30_000;
+    private static final long READY_POLL_MILLIS = 10;
+
+    private final ConcurrentLinkedQueue<WarmProcess> ready = new ConcurrentLinkedQueue<>();
+    private final ProcessType type;
+    private final IntSupplier sizeSupplier;
+    private final Object refillLock = new Object();
+
+    private Thread refillThread;
+    private volatile boolean isClosed = false;
+
+    /**
+     * Пул заранее запущенных JVM одного типа. Каждая JVM поднимает
+     * {@link Zygote} с уже выданным именем и ждет команды.
+     * Пул пополняется в фоновом потоке до размера, который отдает sizeSupplier
+     * (значение перечитывается, так что размер меняется вместе с конфигом)
+     *
+     * @param type         тип актора: PLAYER или ARBITER
+     * @param sizeSupplier желаемое число готовых JVM
+     */
+
+    public ZygotePool(ProcessType type, IntSupplier sizeSupplier) {
+        if (type != ProcessType.PLAYER && type != ProcessType.ARBITER) {
+            throw new IllegalArgumentException("Пул поддерживает только игроков и арбитров");
+        }
+
+        if (sizeSupplier == null) {
+            throw new IllegalArgumentException("Размер пула не может быть null");
+        }
+
+        this.type = type;
+        this.sizeSupplier = sizeSupplier;
+    }
+
+    public void start() {
+        refillThread = new Thread(this::refillLoop, "Zygote Pool " + type);
+        refillThread.setDaemon(true);
+        refillThread.start();
+    }
+
+    /**
+     * Отдает готовую JVM, отправив ей команду на старт.
+     * Если готовых нет, возвращает null, и вызывающий запускает процесс с нуля
+     */
+
+    public WarmProcess take() {
+        WarmProcess zygote;
+        while ((zygote = ready.poll()) != null) {
+            if (zygote.go()) {
+                break;
+            }
+        }
+
+        synchronized (refillLock) {
+            refillLock.notifyAll();
+        }
+        return zygote;
+    }
+
+    public int getReadyCount() {
+        return ready.size();
+    }
+
+    @Override
+    public void close() {
+        if (isClosed) return;
+
+        isClosed = true;
+        if (refillThread != null) {
+            refillThread.interrupt();
+            refillThread = null;
+        }
+
+        WarmProcess zygote;
+        while ((zygote = ready.poll()) != null) {
+            zygote.process().destroyForcibly();
+        }
+    }
+
+    private void refillLoop() {
+        while (!isClosed) {
+            try {
+                ready.removeIf(z -> !z.process().isAlive());
+                refill(sizeSupplier.getAsInt() - ready.size());
+
+                synchronized (refillLock) {
+                    refillLock.wait(REFILL_TIMEOUT);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    private void refill(int missing) {
+        if (missing <= 0) return;
+
+        //Сначала запускаем все JVM разом, потом ждем готовности каждой
+        List<WarmProcess> starting = new ArrayList<>(missing);
+        for (int i = 0; i < missing; i++) {
+            String name = Utils.generateUniqueName(type.toString().toLowerCase());
+            try {
+                Process process = ProcessStarter.launch(Zygote.class, type.name(), name);
+                starting.add(new WarmProcess(process, name));
+            } catch (IOException e) {
+                System.out.println("Не удалось запустить процесс для пула " + e.getMessage());
+                break;
+            }
+        }
+
+        //Общий срок на всю пачку: зависшая JVM не держит пополнение пула
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(READY_TIMEOUT);
+        for (WarmProcess zygote : starting) {
+            if (isClosed || !zygote.awaitReady(deadline)) {
+                zygote.process().destroyForcibly();
+            } else {
+                ready.add(zygote);
+            }
+        }
+    }
+
+    public record WarmProcess(Process process, String name) {
+
+        /**
+         * Ждет строку {@link Zygote#READY} до deadline. Блокирующий readLine
+         * не используется: JVM, зависшая до готовности, остановила бы весь пул
+         *
+         * @param deadline срок по {@link System#nanoTime()}
+         * @return false, если процесс не готов к сроку, умер или ответил не то
+         */
+
+        boolean awaitReady(long deadline) {
+            InputStream stdout = process.getInputStream();
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            try {
+                while (System.nanoTime() - deadline < 0) {
+                    if (stdout.available() == 0) {
+                        if (!process.isAlive()) return false;
+                        Thread.sleep(READY_POLL_MILLIS);
+                        continue;
+                    }
+
+                    int next = stdout.read();
+                    if (next < 0) return false;
+                    if (next == '\n') {
+                        return Zygote.READY.equals(line.toString(StandardCharsets.UTF_8).trim());
+                    }
+                    line.write(next);
+                }
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+
+            System.out.println("Процесс для пула не готов за " + READY_TIMEOUT + " мс " + name);
+            return false;
+        }
+
+        private boolean go() {
+            try {
+                OutputStream stdin = process.getOutputStream();
+                stdin.write((Zygote.GO + "\n").getBytes(StandardCharsets.UTF_8));
+                stdin.flush();
+                return true;
+            } catch (IOException e) {
+                process.destroyForcibly();
+                return false;
+            }
+        }
+    }
+}
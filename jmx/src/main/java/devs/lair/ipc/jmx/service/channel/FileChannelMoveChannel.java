@@ -0,0 +1,102 @@
+package devs.lair.ipc.jmx.service.channel;
+
+import devs.lair.ipc.jmx.service.enums.MoveEncoding;
+import devs.lair.ipc.jmx.service.interfaces.MoveChannel;
+import devs.lair.ipc.jmx.utils.Move;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.*;
+
+public class FileChannelMoveChannel implements MoveChannel {
+    private final Path playerFile;
+    private final FileChannel channel;
+    private final MoveEncoding encoding;
+    private final ByteBuffer buffer = ByteBuffer.allocate(Move.MAX_ENCODED_LENGTH);
+
+    /**
+     * Тот же протокол, что у {@link FileMoveChannel}: пустой файл - хода нет,
+     * иначе в файле ход, арбитр обнуляет файл после раунда. Но файл
+     * открыт все время игры, и ход пишется и читается с нулевой позиции
+     * без открытия и закрытия файла на каждом шаге.
+     * Удаление файла открытый канал не замечает, поэтому игрок узнает
+     * о завершении игры по отсутствию файла
+     *
+     * @param playerFile файл игрока
+     * @param channel    открытый на чтение и запись канал файла
+     * @param encoding   в какой кодировке игрок пишет ходы, арбитр читает любую
+     */
+
+    private FileChannelMoveChannel(Path playerFile, FileChannel channel, MoveEncoding encoding) {
+        this.playerFile = playerFile;
+        this.channel = channel;
+        this.encoding = encoding;
+    }
+
+    public static FileChannelMoveChannel create(Path playerFile, MoveEncoding encoding) throws IOException {
+        return new FileChannelMoveChannel(playerFile,
+                FileChannel.open(playerFile, CREATE_NEW, READ, WRITE), encoding);
+    }
+
+    public static FileChannelMoveChannel open(Path playerFile) throws IOException {
+        return new FileChannelMoveChannel(playerFile, FileChannel.open(playerFile, READ, WRITE), MoveEncoding.BYTE);
+    }
+
+    @Override
+    public boolean publish(Move move) throws IOException {
+        if (channel.size() != 0) {
+            return false;
+        }
+
+        buffer.clear().limit(move.encode(buffer.array(), 0, encoding));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+        return true;
+    }
+
+    @Override
+    public Move poll() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return null;
+        }
+        if (size > Move.MAX_ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Слишком длинный ход, байт: " + size);
+        }
+
+        buffer.clear().limit((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            //Дочитываем то, что уже есть в файле
+        }
+        return Move.decode(buffer.array(), 0, buffer.position());
+    }
+
+    @Override
+    public void clear() throws IOException {
+        channel.truncate(0);
+    }
+
+    @Override
+    public void finish() {
+        //Игрок узнает о завершении по удалению файла
+    }
+
+    @Override
+    public boolean isFinished() {
+        return Files.notExists(playerFile);
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Ошибка при закрытии файла игрока " + e.getMessage());
+        }
+    }
+}
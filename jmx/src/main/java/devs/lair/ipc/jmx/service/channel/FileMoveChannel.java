@@ -0,0 +1,70 @@
+package devs.lair.ipc.jmx.service.channel;
+
+import devs.lair.ipc.jmx.service.enums.MoveEncoding;
+import devs.lair.ipc.jmx.service.interfaces.MoveChannel;
+import devs.lair.ipc.jmx.utils.Move;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+
+public class FileMoveChannel implements MoveChannel {
+    private final Path playerFile;
+    private final byte[][] encoded = new byte[Move.values().length][];
+
+    public FileMoveChannel(Path playerFile) {
+        this(playerFile, MoveEncoding.TEXT);
+    }
+
+    /**
+     * @param encoding в какой кодировке игрок пишет ходы, арбитр читает любую
+     */
+
+    public FileMoveChannel(Path playerFile, MoveEncoding encoding) {
+        this.playerFile = playerFile;
+
+        byte[] buffer = new byte[Move.MAX_ENCODED_LENGTH];
+        for (Move move : Move.values()) {
+            encoded[move.ordinal()] = Arrays.copyOf(buffer, move.encode(buffer, 0, encoding));
+        }
+    }
+
+    @Override
+    public boolean publish(Move move) throws IOException {
+        if (Files.size(playerFile) != 0) {
+            return false;
+        }
+        Files.write(playerFile, encoded[move.ordinal()], WRITE);
+        return true;
+    }
+
+    @Override
+    public Move poll() throws IOException {
+        if (Files.size(playerFile) == 0) {
+            return null;
+        }
+        return Move.valueOf(Files.readAllBytes(playerFile));
+    }
+
+    @Override
+    public void clear() throws IOException {
+        Files.write(playerFile, "".getBytes());
+    }
+
+    @Override
+    public void finish() {
+        //Игрок узнает о завершении по удалению файла
+    }
+
+    @Override
+    public boolean isFinished() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,119 @@
+package devs.lair.ipc.jmx.service.channel;
+
+import devs.lair.ipc.jmx.service.interfaces.MoveChannel;
+import devs.lair.ipc.jmx.utils.Move;
+import devs.lair.ipc.jmx.utils.Utils;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.*;
+
+public class MemoryMoveChannel implements MoveChannel {
+    public static final int CAPACITY = 8;
+
+    private static final int MASK = CAPACITY - 1;
+    private static final int TAIL_OFFSET = 0;
+    private static final int HEAD_OFFSET = 64;
+    private static final int FINISHED_OFFSET = 128;
+    private static final int SLOTS_OFFSET = 192;
+    public static final int SIZE = SLOTS_OFFSET + CAPACITY;
+
+    private static final VarHandle LONG = MethodHandles
+            .byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles
+            .byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final MappedByteBuffer memory;
+    private long tail;
+    private long head;
+    private boolean closed;
+
+    /**
+     * Кольцевой буфер single-producer/single-consumer поверх файла игрока,
+     * отображенного в память. Игрок пишет ход в слот и публикует его сдвигом tail,
+     * арбитр читает слот и освобождает его сдвигом head. Счетчики лежат
+     * в разных кэш-линиях, упорядочивание через acquire/release.
+     * Как и в файле, в кольце лежит не больше одного хода: игрок не публикует
+     * новый, пока арбитр не забрал прошлый, а очистка после раунда
+     * выбрасывает все, что осталось
+     *
+     * @param memory отображенная область размером не меньше {@link #SIZE}
+     */
+
+    private MemoryMoveChannel(MappedByteBuffer memory) {
+        this.memory = memory;
+        this.tail = (long) LONG.getAcquire(memory, TAIL_OFFSET);
+        this.head = (long) LONG.getAcquire(memory, HEAD_OFFSET);
+    }
+
+    public static MemoryMoveChannel create(Path playerFile) throws IOException {
+        try (FileChannel fc = FileChannel.open(playerFile, CREATE_NEW, READ, WRITE)) {
+            return new MemoryMoveChannel(fc.map(FileChannel.MapMode.READ_WRITE, 0, SIZE));
+        }
+    }
+
+    public static MemoryMoveChannel open(Path playerFile) throws IOException {
+        try (FileChannel fc = FileChannel.open(playerFile, READ, WRITE)) {
+            return new MemoryMoveChannel(fc.map(FileChannel.MapMode.READ_WRITE, 0, SIZE));
+        }
+    }
+
+    @Override
+    public boolean publish(Move move) {
+        long consumed = (long) LONG.getAcquire(memory, HEAD_OFFSET);
+        if (tail != consumed) {
+            return false;
+        }
+
+        memory.put(SLOTS_OFFSET + (int) (tail & MASK), move.encode());
+        LONG.setRelease(memory, TAIL_OFFSET, ++tail);
+        return true;
+    }
+
+    @Override
+    public Move poll() {
+        long published = (long) LONG.getAcquire(memory, TAIL_OFFSET);
+        if (head == published) {
+            return null;
+        }
+
+        byte code = memory.get(SLOTS_OFFSET + (int) (head & MASK));
+        LONG.setRelease(memory, HEAD_OFFSET, ++head);
+        return Move.decode(code);
+    }
+
+    @Override
+    public void clear() {
+        head = (long) LONG.getAcquire(memory, TAIL_OFFSET);
+        LONG.setRelease(memory, HEAD_OFFSET, head);
+    }
+
+    @Override
+    public void finish() {
+        INT.setRelease(memory, FINISHED_OFFSET, 1);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return (int) INT.getAcquire(memory, FINISHED_OFFSET) == 1;
+    }
+
+    /**
+     * Снимает отображение сразу: у арбитра каналы открываются на каждый матч,
+     * и без этого отображения копились бы до сборки мусора
+     */
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            Utils.unmap(memory);
+        }
+    }
+}
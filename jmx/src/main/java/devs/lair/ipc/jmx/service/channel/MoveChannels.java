@@ -0,0 +1,49 @@
+package devs.lair.ipc.jmx.service.channel;
+
+import devs.lair.ipc.jmx.service.enums.MoveEncoding;
+import devs.lair.ipc.jmx.service.enums.TransportType;
+import devs.lair.ipc.jmx.service.interfaces.MoveChannel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MoveChannels {
+
+    private MoveChannels() {
+    }
+
+    /**
+     * Сторона игрока. Создает файл игрока и канал поверх него.
+     * Кодировка важна только файловым каналам, остальные пишут код хода
+     *
+     * @throws java.nio.file.FileAlreadyExistsException если игрок уже играет
+     */
+
+    public static MoveChannel create(TransportType type, MoveEncoding encoding, Path playerFile) throws IOException {
+        return switch (type) {
+            case FILE -> {
+                Files.createFile(playerFile);
+                yield new FileMoveChannel(playerFile, encoding);
+            }
+            case MEMORY -> MemoryMoveChannel.create(playerFile);
+            case SOCKET -> SocketMoveChannel.create(playerFile);
+            case CHANNEL -> FileChannelMoveChannel.create(playerFile, encoding);
+        };
+    }
+
+    /**
+     * Сторона арбитра. Открывает канал поверх уже созданного файла игрока
+     *
+     * @throws java.nio.file.NoSuchFileException если файла игрока нет
+     */
+
+    public static MoveChannel open(TransportType type, Path playerFile) throws IOException {
+        return switch (type) {
+            case FILE -> new FileMoveChannel(playerFile);
+            case MEMORY -> MemoryMoveChannel.open(playerFile);
+            case SOCKET -> SocketMoveChannel.open(playerFile);
+            case CHANNEL -> FileChannelMoveChannel.open(playerFile);
+        };
+    }
+}
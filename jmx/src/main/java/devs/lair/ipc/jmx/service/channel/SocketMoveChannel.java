@@ -0,0 +1,204 @@
+package devs.lair.ipc.jmx.service.channel;
+
+import devs.lair.ipc.jmx.service.interfaces.MoveChannel;
+import devs.lair.ipc.jmx.utils.Move;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+public class SocketMoveChannel implements MoveChannel {
+    private static final byte FINISH_FRAME = 0x7F;
+    private static final int INBOX_SIZE = 64;
+
+    private final ServerSocketChannel server;
+    private SocketChannel peer;
+    private final ByteBuffer inbox = ByteBuffer.allocate(INBOX_SIZE).flip();
+    private final ByteBuffer frame = ByteBuffer.allocate(1);
+    private boolean finished = false;
+
+    /**
+     * Канал ходов поверх unix domain сокета, который и есть файл игрока:
+     * игрок слушает сокет по пути своего файла, арбитр подключается к нему
+     * при посадке за стол. Кадр - один байт: код хода {@link Move#encode()}
+     * от игрока или {@link #FINISH_FRAME} от арбитра. Обе стороны неблокирующие,
+     * так что publish и poll не ждут друг друга, как и у остальных каналов.
+     * Игрок, которого вернули в очередь, примет подключение следующего арбитра
+     *
+     * @param server слушающий сокет игрока или null на стороне арбитра
+     * @param peer   подключение арбитра к игроку или null, пока его нет
+     */
+
+    private SocketMoveChannel(ServerSocketChannel server, SocketChannel peer) {
+        this.server = server;
+        this.peer = peer;
+    }
+
+    public static SocketMoveChannel create(Path playerFile) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(getAddress(playerFile));
+            server.configureBlocking(false);
+        } catch (BindException e) {
+            server.close();
+            throw new FileAlreadyExistsException(playerFile.toString());
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        return new SocketMoveChannel(server, null);
+    }
+
+    public static SocketMoveChannel open(Path playerFile) throws IOException {
+        SocketChannel peer = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            peer.connect(getAddress(playerFile));
+            peer.configureBlocking(false);
+        } catch (SocketException e) {
+            peer.close();
+            throw new NoSuchFileException(playerFile.toString());
+        } catch (IOException e) {
+            peer.close();
+            throw e;
+        }
+        return new SocketMoveChannel(null, peer);
+    }
+
+    @Override
+    public boolean publish(Move move) throws IOException {
+        acceptArbiter();
+        if (peer == null) {
+            return false;
+        }
+
+        try {
+            frame.clear();
+            frame.put(move.encode()).flip();
+            return peer.write(frame) == 1;
+        } catch (IOException e) {
+            //Арбитр отпустил игрока, ждем следующего
+            dropPeer();
+            return false;
+        }
+    }
+
+    @Override
+    public Move poll() throws IOException {
+        if (!inbox.hasRemaining()) {
+            inbox.clear();
+            int read = readFromPlayer();
+            inbox.flip();
+            if (read == 0) {
+                return null;
+            }
+        }
+
+        return Move.decode(inbox.get());
+    }
+
+    @Override
+    public void clear() throws IOException {
+        //Ходы, пришедшие за время раунда, устарели, как и очищенный файл
+        inbox.clear();
+        while (readFromPlayer() > 0) {
+            inbox.clear();
+        }
+        inbox.flip();
+    }
+
+    @Override
+    public void finish() {
+        try {
+            frame.clear();
+            frame.put(FINISH_FRAME).flip();
+            peer.write(frame);
+        } catch (IOException e) {
+            //Игрок уже ушел
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        if (finished || peer == null) {
+            return finished;
+        }
+
+        try {
+            inbox.clear();
+            int read = peer.read(inbox);
+            inbox.flip();
+            if (read < 0) {
+                dropPeer();
+            }
+            while (inbox.hasRemaining()) {
+                finished |= inbox.get() == FINISH_FRAME;
+            }
+        } catch (IOException e) {
+            dropPeer();
+        }
+        return finished;
+    }
+
+    @Override
+    public void close() {
+        dropPeer();
+        if (server != null) {
+            try {
+                server.close();
+            } catch (IOException e) {
+                //Файл сокета удалит владелец
+            }
+        }
+    }
+
+    /**
+     * Для арбитра ушедший игрок - то же, что удаленный файл игрока
+     */
+
+    private int readFromPlayer() throws IOException {
+        try {
+            int read = peer.read(inbox);
+            if (read >= 0) {
+                return read;
+            }
+        } catch (SocketException e) {
+            //Соединение сброшено
+        }
+        throw new NoSuchFileException("Игрок закрыл сокет");
+    }
+
+    private void acceptArbiter() throws IOException {
+        SocketChannel accepted = server.accept();
+        if (accepted == null) {
+            return;
+        }
+
+        dropPeer();
+        accepted.configureBlocking(false);
+        peer = accepted;
+    }
+
+    private void dropPeer() {
+        if (peer == null) return;
+
+        try {
+            peer.close();
+        } catch (IOException e) {
+            //Закрываем и так
+        }
+        peer = null;
+    }
+
+    private static UnixDomainSocketAddress getAddress(Path playerFile) {
+        //Путь сокета ограничен ~100 байтами, относительные ../ тратят их зря
+        return UnixDomainSocketAddress.of(playerFile.toAbsolutePath().normalize());
+    }
+}
@@ -0,0 +1,87 @@
+package devs.lair.ipc.jmx.service.enums;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static devs.lair.ipc.jmx.utils.Constants.MAX_ATTEMPT_KEY;
+import static devs.lair.ipc.jmx.utils.Constants.MOVE_ENCODING_KEY;
+import static devs.lair.ipc.jmx.utils.Constants.MOVE_TRANSPORT_KEY;
+
+public enum ConfigSlot {
+    PLAYER_TICK(0, "player.tick"),
+    ARBITER_TICK(1, "arbiter.tick"),
+    ARBITER_MAX_ROUND(2, "arbiter.maxRound"),
+    ARBITER_MAX_ATTEMPT(3, MAX_ATTEMPT_KEY),
+    ARBITER_ZOMBIE_TIMEOUT(4, "arbiter.zombieTimeout"),
+    PRODUCER_MAX_PLAYERS(5, "producer.maxPlayers"),
+    PRODUCER_TICK(6, "producer.tick"),
+    MOVE_TRANSPORT(7, MOVE_TRANSPORT_KEY),
+    STARTER_PLAYER_POOL(8, "starter.playerPool"),
+    STARTER_ARBITER_POOL(9, "starter.arbiterPool"),
+    ARBITER_TABLES(10, "arbiter.tables"),
+    PROVIDER_TRANSPORT(11, "provider.transport"),
+    MOVE_ENCODING(12, MOVE_ENCODING_KEY);
+
+    public static final int MAX_SLOTS = 16;
+    public static final int ABSENT = Integer.MIN_VALUE;
+
+    private final int index;
+    private final String key;
+
+    /**
+     * Типизированный слот конфига в memory.config. Индекс - часть бинарного
+     * формата: существующие индексы не меняются, новые слоты добавляются
+     * в конец, но не дальше {@link #MAX_SLOTS}. Отсутствующее или
+     * нечитаемое значение записывается как {@link #ABSENT}
+     */
+
+    ConfigSlot(int index, String key) {
+        this.index = index;
+        this.key = key;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Разбирает конфиг один раз на стороне Config Loader,
+     * чтобы читателям достались готовые int
+     */
+
+    public static int[] parseAll(byte[] configBytes) throws IOException {
+        Properties props = new Properties();
+        props.load(new ByteArrayInputStream(configBytes));
+
+        int[] slots = new int[MAX_SLOTS];
+        Arrays.fill(slots, ABSENT);
+        for (ConfigSlot slot : values()) {
+            slots[slot.index] = slot.parse(props.getProperty(slot.key));
+        }
+        return slots;
+    }
+
+    private int parse(String value) {
+        if (value == null || value.isBlank()) {
+            return ABSENT;
+        }
+
+        try {
+            return switch (this) {
+                case MOVE_TRANSPORT -> TransportType.valueOf(value.trim().toUpperCase()).ordinal();
+                case PROVIDER_TRANSPORT -> ProviderTransport.valueOf(value.trim().toUpperCase()).ordinal();
+                case MOVE_ENCODING -> MoveEncoding.valueOf(value.trim().toUpperCase()).ordinal();
+                default -> Integer.parseInt(value.trim());
+            };
+        } catch (IllegalArgumentException e) {
+            System.out.printf("Ошибка парсинга %s %s \n", key, e.getMessage());
+            return ABSENT;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package devs.lair.ipc.jmx.service.enums;
+
+public enum ProviderTransport {
+    RMI,
+    SOCKET
+}
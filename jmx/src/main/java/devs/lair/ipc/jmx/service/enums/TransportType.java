@@ -0,0 +1,8 @@
+package devs.lair.ipc.jmx.service.enums;
+
+public enum TransportType {
+    FILE,
+    MEMORY,
+    SOCKET,
+    CHANNEL
+}
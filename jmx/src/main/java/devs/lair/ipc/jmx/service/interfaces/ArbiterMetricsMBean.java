@@ -0,0 +1,11 @@
+package devs.lair.ipc.jmx.service.interfaces;
+
+public interface ArbiterMetricsMBean {
+    int getArbitersCount();
+
+    int getFreeTables();
+
+    int getZombieCount();
+
+    double getZombiePerSecond();
+}
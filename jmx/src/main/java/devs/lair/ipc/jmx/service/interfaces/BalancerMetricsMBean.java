@@ -0,0 +1,13 @@
+package devs.lair.ipc.jmx.service.interfaces;
+
+public interface BalancerMetricsMBean {
+    int getLastDecision();
+
+    int getArbitersStarted();
+
+    int getArbitersFinished();
+
+    double getStartedPerSecond();
+
+    double getFinishedPerSecond();
+}
@@ -1,19 +1,42 @@
 package devs.lair.ipc.jmx.service.interfaces;
 
 import devs.lair.ipc.jmx.service.ConfigProvider;
+import devs.lair.ipc.jmx.service.HeartbeatTable;
+import devs.lair.ipc.jmx.service.PidRegistry;
 import sun.misc.Signal;
 
+import java.io.OutputStream;
+import java.io.PrintStream;
+
 public abstract class ConfigurableProcess {
-    protected final ConfigProvider configProvider = new ConfigProvider();
-    protected Thread mainTread;
+    protected final ConfigProvider configProvider;
+    protected volatile Thread mainTread;
 
     protected String name;
-    protected boolean interrupted = false;
+    protected volatile boolean interrupted = false;
+
+    private final boolean embedded;
+    private HeartbeatTable.Heartbeat heartbeat;
 
     public ConfigurableProcess() {
+        configProvider = new ConfigProvider();
+        embedded = false;
         init();
     }
 
+    /**
+     * Встроенный режим: актор живет в потоке общей JVM, поэтому не трогает
+     * обработчики сигналов и System.out, а конфиг берет общий, не закрывая его.
+     * Главным считается поток, вызвавший {@link #start()}
+     *
+     * @param sharedConfigProvider уже инициализированный общий провайдер конфига
+     */
+
+    protected ConfigurableProcess(ConfigProvider sharedConfigProvider) {
+        configProvider = sharedConfigProvider;
+        embedded = true;
+    }
+
     protected void init() {
         Signal.handle(new Signal("TERM"), sig -> stop());
         Signal.handle(new Signal("INT"), sig -> stop());
@@ -22,14 +45,81 @@ public abstract class ConfigurableProcess {
         mainTread = Thread.currentThread();
     }
 
+    public abstract void start();
+
     public void stop() {
-        configProvider.close();
+        interrupted = true;
+        releaseConfig();
 
-        if (mainTread != null) {
-            mainTread.interrupt();
+        Thread thread = mainTread;
+        if (thread != null) {
+            thread.interrupt();
             mainTread = null;
         }
+    }
 
-        interrupted = true;
+    public boolean isEmbedded() {
+        return embedded;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    protected void prepareStart() {
+        if (embedded) {
+            mainTread = Thread.currentThread();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            if (name != null) {
+                //Файл живет, пока жива JVM: зависший актор остается находимым
+                String actorName = name;
+                PidRegistry.register(actorName);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> PidRegistry.unregister(actorName)));
+            }
+        }
+        claimHeartbeat();
+    }
+
+    /**
+     * Удар пульса в таблице {@link HeartbeatTable}, по пропущенным ударам
+     * контроллер находит зависших акторов
+     *
+     * @param intervalMillis через сколько будет следующий удар
+     */
+
+    protected void heartbeat(int intervalMillis) {
+        if (heartbeat != null) {
+            heartbeat.beat(intervalMillis);
+        }
+    }
+
+    protected void releaseHeartbeat() {
+        if (heartbeat != null) {
+            heartbeat.close();
+            heartbeat = null;
+        }
+    }
+
+    private void claimHeartbeat() {
+        HeartbeatTable table = HeartbeatTable.shared();
+        if (name == null || table == null) {
+            return;
+        }
+
+        try {
+            heartbeat = table.claim(name);
+        } catch (IllegalStateException e) {
+            System.out.println("Актор " + name + " работает без пульса " + e.getMessage());
+        }
+    }
+
+    protected void releaseConfig() {
+        if (!embedded) {
+            configProvider.close();
+        }
     }
 }
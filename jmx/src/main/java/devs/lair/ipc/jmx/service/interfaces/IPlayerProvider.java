@@ -5,7 +5,10 @@ import java.rmi.RemoteException;
 
 public interface IPlayerProvider extends Remote {
     String getPlayerName(String arbiterName, int position) throws RemoteException;
+    String[] leasePair(String arbiterName) throws RemoteException;
     void returnPlayer(String arbiterName, String player) throws RemoteException;
     void killZombie(String arbiterName, String player) throws RemoteException;
     void finishPlayer(String arbiterName, String[] players) throws RemoteException;
+    void reportCapacity(String arbiterName, int freeTables, int totalTables) throws RemoteException;
+    void reportRounds(String arbiterName, String[] players, byte[] outcomes) throws RemoteException;
 }
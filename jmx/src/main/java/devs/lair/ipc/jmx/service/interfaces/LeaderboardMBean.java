@@ -0,0 +1,11 @@
+package devs.lair.ipc.jmx.service.interfaces;
+
+public interface LeaderboardMBean {
+    int getPlayersCount();
+
+    long getRoundsCount();
+
+    String[] getTopTen();
+
+    String describePlayer(String name);
+}
@@ -0,0 +1,40 @@
+package devs.lair.ipc.jmx.service.interfaces;
+
+import devs.lair.ipc.jmx.utils.Move;
+
+import java.io.IOException;
+
+public interface MoveChannel extends AutoCloseable {
+
+    /**
+     * Сторона игрока. Публикует ход, если арбитр забрал предыдущий
+     *
+     * @return false, если канал заполнен и ход не был опубликован
+     */
+    boolean publish(Move move) throws IOException;
+
+    /**
+     * Сторона арбитра. Забирает очередной ход игрока
+     *
+     * @return ход или null, если игрок еще не походил
+     */
+    Move poll() throws IOException;
+
+    /**
+     * Сторона арбитра. Сбрасывает канал после сыгранного раунда
+     */
+    void clear() throws IOException;
+
+    /**
+     * Сторона арбитра. Сообщает игроку о завершении игры
+     */
+    void finish();
+
+    /**
+     * Сторона игрока. Признак того, что арбитр завершил игру
+     */
+    boolean isFinished();
+
+    @Override
+    void close();
+}
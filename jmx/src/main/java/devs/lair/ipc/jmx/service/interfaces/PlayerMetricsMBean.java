@@ -0,0 +1,17 @@
+package devs.lair.ipc.jmx.service.interfaces;
+
+public interface PlayerMetricsMBean {
+    int getQuerySize();
+
+    double getAddedPerSecond();
+
+    double getProvidedPerSecond();
+
+    double getReturnedPerSecond();
+
+    double getFinishedPerSecond();
+
+    double getZombiePerSecond();
+
+    double getMatchesPerSecond();
+}
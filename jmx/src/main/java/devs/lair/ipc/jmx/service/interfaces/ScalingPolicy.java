@@ -0,0 +1,14 @@
+package devs.lair.ipc.jmx.service.interfaces;
+
+import devs.lair.ipc.jmx.service.model.LoadSample;
+
+public interface ScalingPolicy {
+
+    /**
+     * Решает, сколько арбитров добавить или остановить по очередному замеру нагрузки
+     *
+     * @return больше нуля - запустить столько арбитров, меньше нуля - остановить,
+     * ноль - ничего не менять
+     */
+    int decide(LoadSample sample);
+}
@@ -0,0 +1,18 @@
+package devs.lair.ipc.jmx.service.interfaces;
+
+import devs.lair.ipc.jmx.utils.OutcomeTable;
+
+public interface Strategy {
+
+    /**
+     * Выбирает ход игрока в турнире без процессов. Состояние стратегии
+     * не хранит: все, что ей нужно знать о матче, приходит аргументами
+     *
+     * @param table        таблица исходов игры
+     * @param round        номер раунда в матче, с 1
+     * @param opponentLast прошлый ход соперника или -1 в первом раунде
+     * @param random       случайные 64 бита, свои на каждый ход
+     * @return индекс хода в таблице
+     */
+    int nextMove(OutcomeTable table, int round, int opponentLast, long random);
+}
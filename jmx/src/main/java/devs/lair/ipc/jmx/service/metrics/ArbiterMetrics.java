@@ -0,0 +1,60 @@
+package devs.lair.ipc.jmx.service.metrics;
+
+import devs.lair.ipc.jmx.service.ArbiterProvider;
+import devs.lair.ipc.jmx.service.interfaces.ArbiterMetricsMBean;
+import devs.lair.ipc.jmx.service.interfaces.LatencyHistogramMBean;
+
+public class ArbiterMetrics implements ArbiterMetricsMBean {
+    private static final String SERVICE = "arbiterProvider";
+
+    private final ArbiterProvider arbiterProvider;
+    private final LatencyHistogram zombieDetectionLag = new LatencyHistogram();
+    private final RateMeter zombie;
+
+    /**
+     * Метрики ArbiterProvider. Задержка обнаружения зомби - сколько
+     * прошло сверх arbiter.zombieTimeout, прежде чем молчащего арбитра убили
+     */
+
+    public ArbiterMetrics(ArbiterProvider arbiterProvider) {
+        this.arbiterProvider = arbiterProvider;
+        zombie = new RateMeter(arbiterProvider::getZombieCount);
+    }
+
+    public void register() {
+        Metrics.register(SERVICE, this, ArbiterMetricsMBean.class);
+        Metrics.register(SERVICE, "zombieDetectionLag", zombieDetectionLag, LatencyHistogramMBean.class);
+    }
+
+    public void unregister() {
+        Metrics.unregister(SERVICE);
+    }
+
+    public void tick(long nowNanos) {
+        zombie.tick(nowNanos);
+    }
+
+    public LatencyHistogram getZombieDetectionLag() {
+        return zombieDetectionLag;
+    }
+
+    @Override
+    public int getArbitersCount() {
+        return arbiterProvider.getArbitersCount();
+    }
+
+    @Override
+    public int getFreeTables() {
+        return arbiterProvider.getFreeTables(0);
+    }
+
+    @Override
+    public int getZombieCount() {
+        return arbiterProvider.getZombieCount();
+    }
+
+    @Override
+    public double getZombiePerSecond() {
+        return zombie.getPerSecond();
+    }
+}
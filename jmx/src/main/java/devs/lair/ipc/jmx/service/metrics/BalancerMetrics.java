@@ -0,0 +1,63 @@
+package devs.lair.ipc.jmx.service.metrics;
+
+import devs.lair.ipc.jmx.service.interfaces.BalancerMetricsMBean;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BalancerMetrics implements BalancerMetricsMBean {
+    private static final String SERVICE = "balancer";
+
+    private final AtomicInteger started = new AtomicInteger(0);
+    private final AtomicInteger finished = new AtomicInteger(0);
+    private final RateMeter startedRate = new RateMeter(started::get);
+    private final RateMeter finishedRate = new RateMeter(finished::get);
+
+    private volatile int lastDecision = 0;
+
+    public void register() {
+        Metrics.register(SERVICE, this, BalancerMetricsMBean.class);
+    }
+
+    public void unregister() {
+        Metrics.unregister(SERVICE);
+    }
+
+    public void onDecision(int delta) {
+        lastDecision = delta;
+        if (delta > 0) {
+            started.addAndGet(delta);
+        } else if (delta < 0) {
+            finished.addAndGet(-delta);
+        }
+    }
+
+    public void tick(long nowNanos) {
+        startedRate.tick(nowNanos);
+        finishedRate.tick(nowNanos);
+    }
+
+    @Override
+    public int getLastDecision() {
+        return lastDecision;
+    }
+
+    @Override
+    public int getArbitersStarted() {
+        return started.get();
+    }
+
+    @Override
+    public int getArbitersFinished() {
+        return finished.get();
+    }
+
+    @Override
+    public double getStartedPerSecond() {
+        return startedRate.getPerSecond();
+    }
+
+    @Override
+    public double getFinishedPerSecond() {
+        return finishedRate.getPerSecond();
+    }
+}
@@ -0,0 +1,55 @@
+package devs.lair.ipc.jmx.service.metrics;
+
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+
+public class Metrics {
+    private static final String DOMAIN = "devs.lair.ipc";
+
+    /**
+     * Дерево MBean метрик: devs.lair.ipc:type=metrics,service=<сервис>
+     * и гистограммы сервиса под ним с ключом name=<гистограмма>.
+     * Повторная регистрация заменяет прежний MBean, чтобы пересозданный
+     * сервис (например, в тестах) не падал на занятом имени
+     */
+
+    private Metrics() {
+    }
+
+    public static <T> void register(String service, T mbean, Class<T> type) {
+        register(service, null, mbean, type);
+    }
+
+    public static <T> void register(String service, String name, T mbean, Class<T> type) {
+        try {
+            ObjectName objectName = getObjectName(service, name);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(new StandardMBean(mbean, type), objectName);
+        } catch (Exception e) {
+            System.out.println("Не удалось зарегистрировать MBean метрик " + service);
+        }
+    }
+
+    public static void unregister(String service) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName pattern = new ObjectName(DOMAIN + ":type=metrics,service=" + service + ",*");
+            for (ObjectName objectName : server.queryNames(pattern, null)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            System.out.println("Не удалось снять с регистрации MBean метрик " + service);
+        }
+    }
+
+    static ObjectName getObjectName(String service, String name) throws MalformedObjectNameException {
+        return new ObjectName(DOMAIN + ":type=metrics,service=" + service
+                + (name == null ? "" : ",name=" + name));
+    }
+}
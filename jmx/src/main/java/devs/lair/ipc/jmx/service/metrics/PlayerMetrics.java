@@ -0,0 +1,106 @@
+package devs.lair.ipc.jmx.service.metrics;
+
+import devs.lair.ipc.jmx.service.PlayerProvider;
+import devs.lair.ipc.jmx.service.interfaces.LatencyHistogramMBean;
+import devs.lair.ipc.jmx.service.interfaces.PlayerMetricsMBean;
+
+public class PlayerMetrics implements PlayerMetricsMBean {
+    private static final String SERVICE = "playerProvider";
+
+    private final PlayerProvider playerProvider;
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram leaseLatency = new LatencyHistogram();
+    private final LatencyHistogram matchDuration = new LatencyHistogram();
+
+    private final RateMeter added;
+    private final RateMeter provided;
+    private final RateMeter returned;
+    private final RateMeter finished;
+    private final RateMeter zombie;
+    private final RateMeter matches;
+
+    /**
+     * Метрики PlayerProvider: темпы по его счетчикам и гистограммы
+     * ожидания в очереди, времени выдачи игроков арбитру (getPlayerName и leasePair)
+     * и длительности игры
+     */
+
+    public PlayerMetrics(PlayerProvider playerProvider) {
+        this.playerProvider = playerProvider;
+
+        added = new RateMeter(playerProvider::getTotalPlayersCount);
+        provided = new RateMeter(playerProvider::getProvidedPlayersCount);
+        returned = new RateMeter(playerProvider::getReturnedCount);
+        finished = new RateMeter(playerProvider::getFinishedPlayersCount);
+        zombie = new RateMeter(playerProvider::getZombieCount);
+        matches = new RateMeter(playerProvider::getMatchCount);
+    }
+
+    public void register() {
+        Metrics.register(SERVICE, this, PlayerMetricsMBean.class);
+        Metrics.register(SERVICE, "queueWait", queueWait, LatencyHistogramMBean.class);
+        Metrics.register(SERVICE, "leaseLatency", leaseLatency, LatencyHistogramMBean.class);
+        Metrics.register(SERVICE, "matchDuration", matchDuration, LatencyHistogramMBean.class);
+    }
+
+    public void unregister() {
+        Metrics.unregister(SERVICE);
+    }
+
+    public void tick(long nowNanos) {
+        added.tick(nowNanos);
+        provided.tick(nowNanos);
+        returned.tick(nowNanos);
+        finished.tick(nowNanos);
+        zombie.tick(nowNanos);
+        matches.tick(nowNanos);
+    }
+
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    public LatencyHistogram getLeaseLatency() {
+        return leaseLatency;
+    }
+
+    public LatencyHistogram getMatchDuration() {
+        return matchDuration;
+    }
+
+    @Override
+    public int getQuerySize() {
+        return playerProvider.getQuerySize();
+    }
+
+    @Override
+    public double getAddedPerSecond() {
+        return added.getPerSecond();
+    }
+
+    @Override
+    public double getProvidedPerSecond() {
+        return provided.getPerSecond();
+    }
+
+    @Override
+    public double getReturnedPerSecond() {
+        return returned.getPerSecond();
+    }
+
+    @Override
+    public double getFinishedPerSecond() {
+        return finished.getPerSecond();
+    }
+
+    @Override
+    public double getZombiePerSecond() {
+        return zombie.getPerSecond();
+    }
+
+    @Override
+    public double getMatchesPerSecond() {
+        return matches.getPerSecond();
+    }
+}
@@ -0,0 +1,41 @@
+package devs.lair.ipc.jmx.service.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+public class RateMeter {
+    private static final double SMOOTHING = 0.3;
+    private static final double NANOS_IN_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final LongSupplier counter;
+
+    private long lastNanos = -1;
+    private long lastValue;
+    private volatile double perSecond = 0;
+
+    /**
+     * Темп роста накопительного счетчика в секунду, сглаженный EWMA.
+     * Счетчик не трогается на горячем пути: разницу снимает {@link #tick(long)}
+     *
+     * @param counter накопительный счетчик, который уже ведет сервис
+     */
+
+    public RateMeter(LongSupplier counter) {
+        this.counter = counter;
+    }
+
+    public synchronized void tick(long nowNanos) {
+        long value = counter.getAsLong();
+        if (lastNanos >= 0 && nowNanos > lastNanos) {
+            double rate = (value - lastValue) * NANOS_IN_SECOND / (nowNanos - lastNanos);
+            perSecond += SMOOTHING * (rate - perSecond);
+        }
+
+        lastNanos = nowNanos;
+        lastValue = value;
+    }
+
+    public double getPerSecond() {
+        return perSecond;
+    }
+}
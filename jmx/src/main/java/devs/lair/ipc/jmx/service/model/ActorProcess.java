@@ -2,6 +2,7 @@ package devs.lair.ipc.jmx.service.model;
 
 import devs.lair.ipc.jmx.service.enums.ProcessStatus;
 import devs.lair.ipc.jmx.service.enums.ProcessType;
+import devs.lair.ipc.jmx.service.interfaces.ConfigurableProcess;
 import devs.lair.ipc.jmx.utils.Utils;
 
 import static devs.lair.ipc.jmx.service.enums.ProcessStatus.*;
@@ -11,6 +12,8 @@ public class ActorProcess {
     private final String name;
     private final ProcessHandle process;
     private final ProcessType type;
+    private final ConfigurableProcess embeddedActor;
+    private final Thread embeddedThread;
 
     private ProcessStatus status = STARTED;
 
@@ -24,15 +27,52 @@ public class ActorProcess {
         this.process = processHandle;
         this.name = name;
         this.type = type;
+        this.embeddedActor = null;
+        this.embeddedThread = null;
+    }
+
+    /**
+     * Актор, запущенный в потоке текущей JVM. Процессом считается текущий,
+     * а завершение и проверка жизни идут через сам актор и его поток
+     */
+
+    public ActorProcess(ConfigurableProcess actor, Thread thread, ProcessType type, String name) {
+        checkArgs(ProcessHandle.current(), name, type);
+        if (actor == null || thread == null) {
+            throw new IllegalArgumentException("Актор и поток не могут быть null");
+        }
+
+        this.process = ProcessHandle.current();
+        this.name = name;
+        this.type = type;
+        this.embeddedActor = actor;
+        this.embeddedThread = thread;
     }
 
     public void terminate() {
         status = TERMINATING;
-        process.destroy();
+        if (isEmbedded()) {
+            embeddedActor.stop();
+        } else {
+            process.destroy();
+        }
         System.out.printf("Процессу отправлен сигнал на завершение: имя %s, тип %s, pid = %d \n",
                 name, type, process.pid());
     }
 
+    public void kill() {
+        if (isEmbedded()) {
+            embeddedActor.stop();
+            embeddedThread.interrupt();
+        } else {
+            process.destroyForcibly();
+        }
+    }
+
+    public boolean isEmbedded() {
+        return embeddedThread != null;
+    }
+
     public boolean isArbiter() {
         return type == ARBITER;
     }
@@ -46,7 +86,7 @@ public class ActorProcess {
             return true;
         }
         
-        if (!process.isAlive()) {
+        if (isEmbedded() ? !embeddedThread.isAlive() : !process.isAlive()) {
             status = DEAD;
             return true;
         }
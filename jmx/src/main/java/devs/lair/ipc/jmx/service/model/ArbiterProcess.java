@@ -1,10 +1,19 @@
 package devs.lair.ipc.jmx.service.model;
 
 import devs.lair.ipc.jmx.service.enums.ProcessType;
+import devs.lair.ipc.jmx.service.interfaces.ConfigurableProcess;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ArbiterProcess extends ActorProcess {
-    private long lastTimeUsage;
-    private final String[] players = new String[2];
+    public static final int UNREPORTED = -1;
+
+    private volatile long lastTimeUsage;
+    private final Set<String> players = ConcurrentHashMap.newKeySet();
+
+    private volatile int freeTables = UNREPORTED;
+    private volatile int totalTables = UNREPORTED;
 
     public ArbiterProcess(ProcessHandle processHandle, ProcessType type, String name) {
         super(processHandle, type, name);
@@ -12,20 +21,19 @@ public class ArbiterProcess extends ActorProcess {
         lastTimeUsage = System.currentTimeMillis();
     }
 
-    public void setPlayer(String playerName, int position) {
-        players[position] = playerName;
+    public ArbiterProcess(ConfigurableProcess actor, Thread thread, ProcessType type, String name) {
+        super(actor, thread, type, name);
+
         lastTimeUsage = System.currentTimeMillis();
     }
 
-    public void removePlayer(String playerName) {
-        if (playerName.equals(players[0])) {
-            players[0] = null;
-        }
-
-        if (playerName.equals(players[1])) {
-            players[1] = null;
-        }
+    public void addPlayer(String playerName) {
+        players.add(playerName);
+        lastTimeUsage = System.currentTimeMillis();
+    }
 
+    public void removePlayer(String playerName) {
+        players.remove(playerName);
         lastTimeUsage = System.currentTimeMillis();
     }
 
@@ -37,7 +45,29 @@ public class ArbiterProcess extends ActorProcess {
         this.lastTimeUsage = lastTimeUsage;
     }
 
+    /**
+     * @return снимок игроков, которые сейчас сидят за столами арбитра
+     */
+
     public String[] getPlayers() {
-        return players;
+        return players.toArray(new String[0]);
+    }
+
+    public void setCapacity(int freeTables, int totalTables) {
+        this.freeTables = freeTables;
+        this.totalTables = totalTables;
+        lastTimeUsage = System.currentTimeMillis();
+    }
+
+    /**
+     * @return число свободных столов, либо {@link #UNREPORTED}, если арбитр еще не отчитался
+     */
+
+    public int getFreeTables() {
+        return freeTables;
+    }
+
+    public int getTotalTables() {
+        return totalTables;
     }
 }
@@ -0,0 +1,25 @@
+package devs.lair.ipc.jmx.service.model;
+
+/**
+ * Замер нагрузки за один тик балансировщика. Счетчики накопительные,
+ * политика сама берет разницу между соседними замерами
+ *
+ * @param timeNanos        момент замера, System.nanoTime()
+ * @param arbiters         сколько арбитров сейчас живо
+ * @param tablesPerArbiter сколько столов держит один арбитр
+ * @param freeTables       сколько столов свободно по всем арбитрам
+ * @param querySize        сколько игроков ждет в очереди
+ * @param addedPlayers     сколько игроков пришло за все время
+ * @param matches          сколько игр доиграно за все время
+ * @param matchNanos       суммарная длительность доигранных игр
+ */
+
+public record LoadSample(long timeNanos,
+                         int arbiters,
+                         int tablesPerArbiter,
+                         int freeTables,
+                         int querySize,
+                         int addedPlayers,
+                         int matches,
+                         long matchNanos) {
+}
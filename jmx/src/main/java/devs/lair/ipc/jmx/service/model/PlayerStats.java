@@ -0,0 +1,28 @@
+package devs.lair.ipc.jmx.service.model;
+
+/**
+ * Итоги игрока в таблице лидеров
+ *
+ * @param name     имя игрока
+ * @param rank     место в таблице, с 1
+ * @param points   очки: победа 3, ничья 1
+ * @param wins     выигранные раунды
+ * @param draws    ничьи
+ * @param losses   проигранные раунды
+ * @param timeouts раунды, в которых игрок не походил
+ */
+
+public record PlayerStats(String name,
+                          int rank,
+                          int points,
+                          int wins,
+                          int draws,
+                          int losses,
+                          int timeouts) {
+
+    @Override
+    public String toString() {
+        return String.format("%d. %s: %d очк. (%d/%d/%d, таймаутов %d)",
+                rank, name, points, wins, draws, losses, timeouts);
+    }
+}
@@ -0,0 +1,37 @@
+package devs.lair.ipc.jmx.service.model;
+
+import devs.lair.ipc.jmx.utils.Move;
+
+/**
+ * Раунд, прочитанный из журнала игр
+ *
+ * @param arbiter       имя арбитра, владельца сегмента
+ * @param table         номер стола
+ * @param round         номер раунда в игре
+ * @param firstPlayer   игрок за первым местом
+ * @param secondPlayer  игрок за вторым местом
+ * @param firstMove     ход первого игрока, null - не походил
+ * @param secondMove    ход второго игрока, null - не походил
+ * @param outcome       итог раунда
+ * @param timeMillis    время окончания раунда
+ * @param durationNanos длительность раунда
+ */
+
+public record RoundRecord(String arbiter,
+                          int table,
+                          int round,
+                          String firstPlayer,
+                          String secondPlayer,
+                          Move firstMove,
+                          Move secondMove,
+                          Outcome outcome,
+                          long timeMillis,
+                          long durationNanos) {
+
+    public enum Outcome {
+        DRAW,
+        FIRST_WINS,
+        SECOND_WINS,
+        TIMEOUT
+    }
+}
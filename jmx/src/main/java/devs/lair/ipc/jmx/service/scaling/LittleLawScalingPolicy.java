@@ -0,0 +1,97 @@
+package devs.lair.ipc.jmx.service.scaling;
+
+import devs.lair.ipc.jmx.service.interfaces.ScalingPolicy;
+import devs.lair.ipc.jmx.service.model.LoadSample;
+
+import java.util.concurrent.TimeUnit;
+
+public class LittleLawScalingPolicy implements ScalingPolicy {
+    private static final double SMOOTHING = 0.3;
+    private static final double HEADROOM = 1.2;
+    private static final double LOW_WATERMARK = 0.7;
+    private static final int MAX_STEP = 4;
+    private static final long UP_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(3);
+    private static final long DOWN_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(15);
+    private static final double NANOS_IN_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ScalingPolicy fallback;
+
+    private LoadSample previous;
+    private double arrivalRate = -1;
+    private double matchSeconds = -1;
+    private long lastScaleNanos;
+    private boolean scaled = false;
+
+    /**
+     * Считает нужное число арбитров по закону Литтла: занятых столов
+     * в среднем столько, сколько пар приходит в секунду, умноженное
+     * на длительность игры, плюс пары, уже ждущие в очереди.
+     * Темп прихода игроков и длительность игры сглаживаются EWMA.
+     * Вверх шагаем сразу на несколько арбитров, вниз - только когда нагрузка
+     * с запасом помещается в меньшее число арбитров (гистерезис), и у каждого
+     * направления своя пауза после последнего изменения.
+     * Пока замеров нет, решает запасная политика
+     *
+     * @param fallback политика на время, пока модели не хватает данных
+     */
+
+    public LittleLawScalingPolicy(ScalingPolicy fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public int decide(LoadSample sample) {
+        observe(sample);
+
+        int tablesPerArbiter = sample.tablesPerArbiter();
+        if (arrivalRate < 0 || matchSeconds < 0 || tablesPerArbiter <= 0) {
+            return fallback.decide(sample);
+        }
+
+        double neededTables = (arrivalRate / 2 * matchSeconds + sample.querySize() / 2.0) * HEADROOM;
+        int upTarget = Math.max(1, (int) Math.ceil(neededTables / tablesPerArbiter));
+        int downTarget = Math.max(1, (int) Math.ceil(neededTables / (tablesPerArbiter * LOW_WATERMARK)));
+
+        int arbiters = sample.arbiters();
+        if (upTarget > arbiters && (arbiters == 0 || isCooledDown(sample, UP_COOLDOWN_NANOS))) {
+            return scale(sample, Math.min(upTarget - arbiters, MAX_STEP));
+        }
+
+        if (downTarget < arbiters && isCooledDown(sample, DOWN_COOLDOWN_NANOS)) {
+            return scale(sample, -Math.min(arbiters - downTarget, MAX_STEP));
+        }
+
+        return 0;
+    }
+
+    private void observe(LoadSample sample) {
+        if (previous != null) {
+            double seconds = (sample.timeNanos() - previous.timeNanos()) / NANOS_IN_SECOND;
+            if (seconds > 0) {
+                double rate = (sample.addedPlayers() - previous.addedPlayers()) / seconds;
+                arrivalRate = smooth(arrivalRate, rate);
+            }
+
+            int matches = sample.matches() - previous.matches();
+            if (matches > 0) {
+                double mean = (sample.matchNanos() - previous.matchNanos()) / NANOS_IN_SECOND / matches;
+                matchSeconds = smooth(matchSeconds, mean);
+            }
+        }
+        previous = sample;
+    }
+
+    private boolean isCooledDown(LoadSample sample, long cooldownNanos) {
+        return !scaled || sample.timeNanos() - lastScaleNanos >= cooldownNanos;
+    }
+
+    private int scale(LoadSample sample, int delta) {
+        scaled = true;
+        lastScaleNanos = sample.timeNanos();
+        return delta;
+    }
+
+    private static double smooth(double current, double value) {
+        return current < 0 ? value : current + SMOOTHING * (value - current);
+    }
+}
@@ -0,0 +1,31 @@
+package devs.lair.ipc.jmx.service.scaling;
+
+import devs.lair.ipc.jmx.service.interfaces.ScalingPolicy;
+import devs.lair.ipc.jmx.service.model.LoadSample;
+
+public class ThresholdScalingPolicy implements ScalingPolicy {
+    private static final int START_QUERY_SIZE = 20;
+    private static final int FINISH_QUERY_SIZE = 10;
+
+    /**
+     * Прежние пороги по длине очереди: по одному арбитру за тик.
+     * Нужна, пока у модели нет замеров, и как простой запасной вариант
+     */
+
+    @Override
+    public int decide(LoadSample sample) {
+        int querySize = sample.querySize();
+        int freeTables = sample.freeTables();
+
+        //New process only when free tables can't seat the queue
+        if (sample.arbiters() == 0 || (querySize > START_QUERY_SIZE && querySize / 2 > freeTables)) {
+            return 1;
+        }
+
+        if (sample.arbiters() > 1 && querySize <= FINISH_QUERY_SIZE && freeTables >= sample.tablesPerArbiter()) {
+            return -1;
+        }
+
+        return 0;
+    }
+}
@@ -0,0 +1,161 @@
+package devs.lair.ipc.jmx.service.socket;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+final class Frame {
+    private static final int LENGTH_SIZE = Integer.BYTES;
+    private static final int MAX_LENGTH = 16 * 1024 * 1024;
+    private static final int NULL_LENGTH = -1;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+    /**
+     * Кадр вызова PlayerProvider через сокет: int длина и за ней поля подряд.
+     * Строка - int длина и UTF-8 байты (null - длина -1), массив - int число
+     * элементов и элементы. Буфер переиспользуется от кадра к кадру и растет
+     * только под самый большой кадр, поэтому вызов не аллоцирует ничего,
+     * кроме прочитанных строк
+     */
+
+    Frame begin() {
+        buffer.clear();
+        buffer.position(LENGTH_SIZE);
+        return this;
+    }
+
+    Frame putByte(int value) {
+        ensure(1);
+        buffer.put((byte) value);
+        return this;
+    }
+
+    Frame putInt(int value) {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+        return this;
+    }
+
+    Frame putString(String value) {
+        if (value == null) {
+            return putInt(NULL_LENGTH);
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensure(bytes.length);
+        buffer.put(bytes);
+        return this;
+    }
+
+    Frame putStrings(String[] values) {
+        if (values == null) {
+            return putInt(NULL_LENGTH);
+        }
+
+        putInt(values.length);
+        for (String value : values) {
+            putString(value);
+        }
+        return this;
+    }
+
+    Frame putBytes(byte[] values) {
+        putInt(values.length);
+        ensure(values.length);
+        buffer.put(values);
+        return this;
+    }
+
+    byte getByte() {
+        return buffer.get();
+    }
+
+    int getInt() {
+        return buffer.getInt();
+    }
+
+    String getString() {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    String[] getStrings() {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+
+        String[] values = new String[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = getString();
+        }
+        return values;
+    }
+
+    byte[] getBytes() {
+        byte[] values = new byte[buffer.getInt()];
+        buffer.get(values);
+        return values;
+    }
+
+    void send(SocketChannel channel) throws IOException {
+        buffer.putInt(0, buffer.position() - LENGTH_SIZE);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Читает следующий кадр целиком, после чего из него читаются поля
+     *
+     * @throws EOFException если собеседник закрыл сокет
+     */
+
+    Frame receive(SocketChannel channel) throws IOException {
+        buffer.clear().limit(LENGTH_SIZE);
+        readFully(channel);
+
+        int length = buffer.getInt(0);
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new IOException("Некорректная длина кадра " + length);
+        }
+
+        buffer.clear();
+        ensure(length);
+        buffer.limit(length);
+        readFully(channel);
+        buffer.flip();
+        return this;
+    }
+
+    private void readFully(SocketChannel channel) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Сокет закрыт");
+            }
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+}
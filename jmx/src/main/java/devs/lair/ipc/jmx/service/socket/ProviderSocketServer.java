@@ -0,0 +1,143 @@
+package devs.lair.ipc.jmx.service.socket;
+
+import devs.lair.ipc.jmx.service.interfaces.IPlayerProvider;
+import devs.lair.ipc.jmx.utils.Utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.rmi.RemoteException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static devs.lair.ipc.jmx.service.socket.SocketPlayerProvider.*;
+
+public class ProviderSocketServer implements AutoCloseable {
+    private final IPlayerProvider target;
+    private final Path socketFile;
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+
+    private ServerSocketChannel server;
+    private Thread acceptThread;
+
+    /**
+     * Серверная сторона {@link SocketPlayerProvider}: слушает unix domain сокет
+     * и исполняет кадры вызовов на настоящем PlayerProvider.
+     * Каждое подключение арбитра обслуживает свой виртуальный поток
+     *
+     * @param target     PlayerProvider контроллера
+     * @param socketFile путь сокета, оставшийся от прошлого запуска файл удаляется
+     */
+
+    public ProviderSocketServer(IPlayerProvider target, Path socketFile) {
+        this.target = target;
+        this.socketFile = socketFile;
+    }
+
+    public void start() throws IOException {
+        Utils.tryDelete(socketFile);
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(getAddress(socketFile));
+
+        acceptThread = Thread.ofPlatform().name("Provider Socket Thread").daemon().start(this::acceptLoop);
+    }
+
+    @Override
+    public void close() {
+        if (server == null) return;
+
+        try {
+            server.close();
+        } catch (IOException e) {
+            System.out.println("Ошибка при закрытии сокета PlayerProvider");
+        }
+        connections.forEach(this::closeConnection);
+        acceptThread.interrupt();
+        Utils.tryDelete(socketFile);
+        server = null;
+    }
+
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel connection = server.accept();
+                connections.add(connection);
+                Thread.ofVirtual().name("provider-socket-", 0).start(() -> serve(connection));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                System.out.println("Ошибка при подключении к сокету PlayerProvider " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        Frame frame = new Frame();
+        try {
+            while (true) {
+                frame.receive(connection);
+                dispatch(frame);
+                frame.send(connection);
+            }
+        } catch (EOFException | ClosedChannelException e) {
+            //Арбитр отключился
+        } catch (IOException e) {
+            System.out.println("Ошибка в соединении с арбитром " + e.getMessage());
+        } finally {
+            closeConnection(connection);
+        }
+    }
+
+    private void dispatch(Frame frame) {
+        byte operation = frame.getByte();
+        String arbiterName = frame.getString();
+        try {
+            switch (operation) {
+                case GET_PLAYER_NAME -> {
+                    String playerName = target.getPlayerName(arbiterName, frame.getInt());
+                    frame.begin().putByte(OK).putString(playerName);
+                }
+                case LEASE_PAIR -> {
+                    String[] pair = target.leasePair(arbiterName);
+                    frame.begin().putByte(OK).putStrings(pair);
+                }
+                case RETURN_PLAYER -> {
+                    target.returnPlayer(arbiterName, frame.getString());
+                    frame.begin().putByte(OK);
+                }
+                case KILL_ZOMBIE -> {
+                    target.killZombie(arbiterName, frame.getString());
+                    frame.begin().putByte(OK);
+                }
+                case FINISH_PLAYER -> {
+                    target.finishPlayer(arbiterName, frame.getStrings());
+                    frame.begin().putByte(OK);
+                }
+                case REPORT_CAPACITY -> {
+                    target.reportCapacity(arbiterName, frame.getInt(), frame.getInt());
+                    frame.begin().putByte(OK);
+                }
+                case REPORT_ROUNDS -> {
+                    target.reportRounds(arbiterName, frame.getStrings(), frame.getBytes());
+                    frame.begin().putByte(OK);
+                }
+                default -> throw new IllegalArgumentException("Неизвестная операция " + operation);
+            }
+        } catch (RemoteException | RuntimeException e) {
+            frame.begin().putByte(ERROR).putString(String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void closeConnection(SocketChannel connection) {
+        connections.remove(connection);
+        try {
+            connection.close();
+        } catch (IOException e) {
+            //Закрываем и так
+        }
+    }
+}
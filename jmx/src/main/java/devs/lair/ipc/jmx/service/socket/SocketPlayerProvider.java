@@ -0,0 +1,128 @@
+package devs.lair.ipc.jmx.service.socket;
+
+import devs.lair.ipc.jmx.service.interfaces.IPlayerProvider;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.rmi.ConnectException;
+import java.rmi.RemoteException;
+import java.rmi.ServerException;
+
+public class SocketPlayerProvider implements IPlayerProvider, AutoCloseable {
+    static final byte GET_PLAYER_NAME = 1;
+    static final byte LEASE_PAIR = 2;
+    static final byte RETURN_PLAYER = 3;
+    static final byte KILL_ZOMBIE = 4;
+    static final byte FINISH_PLAYER = 5;
+    static final byte REPORT_CAPACITY = 6;
+    static final byte REPORT_ROUNDS = 7;
+
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+
+    private final SocketChannel channel;
+    private final Frame frame = new Frame();
+
+    /**
+     * Клиент PlayerProvider для арбитра поверх unix domain сокета контроллера,
+     * замена RMI/TCP с тем же интерфейсом. Вызов - кадр {@link Frame}
+     * с кодом операции и аргументами, ответ - кадр со статусом и результатом.
+     * Вызовы столов одного арбитра идут по одному соединению по очереди.
+     * Ошибки ввода-вывода закрывают соединение и приходят как {@link RemoteException},
+     * так что арбитр переподключается так же, как после потери RMI
+     */
+
+    private SocketPlayerProvider(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    public static SocketPlayerProvider connect(Path socketFile) throws RemoteException {
+        try {
+            SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            try {
+                channel.connect(getAddress(socketFile));
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            return new SocketPlayerProvider(channel);
+        } catch (IOException e) {
+            throw new ConnectException("Не удалось подключиться к сокету PlayerProvider", e);
+        }
+    }
+
+    @Override
+    public synchronized String getPlayerName(String arbiterName, int position) throws RemoteException {
+        frame.begin().putByte(GET_PLAYER_NAME).putString(arbiterName).putInt(position);
+        return call().getString();
+    }
+
+    @Override
+    public synchronized String[] leasePair(String arbiterName) throws RemoteException {
+        frame.begin().putByte(LEASE_PAIR).putString(arbiterName);
+        return call().getStrings();
+    }
+
+    @Override
+    public synchronized void returnPlayer(String arbiterName, String player) throws RemoteException {
+        frame.begin().putByte(RETURN_PLAYER).putString(arbiterName).putString(player);
+        call();
+    }
+
+    @Override
+    public synchronized void killZombie(String arbiterName, String player) throws RemoteException {
+        frame.begin().putByte(KILL_ZOMBIE).putString(arbiterName).putString(player);
+        call();
+    }
+
+    @Override
+    public synchronized void finishPlayer(String arbiterName, String[] players) throws RemoteException {
+        frame.begin().putByte(FINISH_PLAYER).putString(arbiterName).putStrings(players);
+        call();
+    }
+
+    @Override
+    public synchronized void reportCapacity(String arbiterName, int freeTables, int totalTables)
+            throws RemoteException {
+        frame.begin().putByte(REPORT_CAPACITY).putString(arbiterName).putInt(freeTables).putInt(totalTables);
+        call();
+    }
+
+    @Override
+    public synchronized void reportRounds(String arbiterName, String[] players, byte[] outcomes)
+            throws RemoteException {
+        frame.begin().putByte(REPORT_ROUNDS).putString(arbiterName).putStrings(players).putBytes(outcomes);
+        call();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            //Закрываем и так
+        }
+    }
+
+    private Frame call() throws RemoteException {
+        try {
+            frame.send(channel);
+            frame.receive(channel);
+        } catch (IOException e) {
+            close();
+            throw new RemoteException("Потеряно соединение с PlayerProvider", e);
+        }
+
+        if (frame.getByte() == ERROR) {
+            throw new ServerException(frame.getString());
+        }
+        return frame;
+    }
+
+    static UnixDomainSocketAddress getAddress(Path socketFile) {
+        return UnixDomainSocketAddress.of(socketFile.toAbsolutePath().normalize());
+    }
+}
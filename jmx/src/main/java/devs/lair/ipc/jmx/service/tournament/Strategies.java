@@ -0,0 +1,33 @@
+package devs.lair.ipc.jmx.service.tournament;
+
+import devs.lair.ipc.jmx.service.interfaces.Strategy;
+
+public class Strategies {
+    //Как у игрока jmx: каждый раунд случайный ход
+    public static final Strategy RANDOM = (table, round, opponentLast, random) ->
+            (int) ((random >>> 1) % table.size());
+    public static final Strategy CONSTANT = (table, round, opponentLast, random) -> 0;
+    public static final Strategy CYCLE = (table, round, opponentLast, random) -> (round - 1) % table.size();
+    //Бьет прошлый ход соперника
+    public static final Strategy COUNTER = (table, round, opponentLast, random) -> opponentLast < 0
+            ? RANDOM.nextMove(table, round, opponentLast, random)
+            : table.getCounter(opponentLast);
+
+    private Strategies() {
+    }
+
+    /**
+     * @return стратегия по имени, без учета регистра
+     * @throws IllegalArgumentException если такой стратегии нет
+     */
+
+    public static Strategy valueOf(String name) {
+        return switch (name.trim().toUpperCase()) {
+            case "RANDOM" -> RANDOM;
+            case "CONSTANT" -> CONSTANT;
+            case "CYCLE" -> CYCLE;
+            case "COUNTER" -> COUNTER;
+            default -> throw new IllegalArgumentException("Нет стратегии " + name);
+        };
+    }
+}
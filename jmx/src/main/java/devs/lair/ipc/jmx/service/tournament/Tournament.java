@@ -0,0 +1,179 @@
+package devs.lair.ipc.jmx.service.tournament;
+
+import devs.lair.ipc.jmx.service.interfaces.Strategy;
+import devs.lair.ipc.jmx.utils.OutcomeTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static devs.lair.ipc.jmx.service.Leaderboard.DRAW_POINTS;
+import static devs.lair.ipc.jmx.service.Leaderboard.WIN_POINTS;
+
+public class Tournament {
+    private static final int MIN_MATCHES_PER_TASK = 256;
+    private static final int TASKS_PER_THREAD = 8;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    //Индекс - исход раунда для игрока + 1: поражение, ничья, победа
+    private static final int[] POINTS = {0, DRAW_POINTS, WIN_POINTS};
+    static final int LOSSES = 0;
+    static final int DRAWS = 1;
+    static final int WINS = 2;
+    static final int SCORE = 3;
+
+    private final OutcomeTable table;
+    private final int maxRound;
+    private final long seed;
+    private final List<String> names = new ArrayList<>();
+    private final List<Strategy> strategies = new ArrayList<>();
+
+    /**
+     * Турнир без процессов и файлов: игроки - стратегии в памяти,
+     * каждая пара играет между собой заданное число матчей по правилам арбитра
+     * (maxRound раундов, очки как в таблице лидеров). Матчи делятся
+     * между потоками {@link ForkJoinPool}, счетчики игроков лежат в массивах
+     * long у каждой задачи (миллионы раундов в секунду переполнили бы int)
+     * и складываются при join. Случайность
+     * каждого матча выводится из seed и номера матча, так что результат
+     * не зависит от числа потоков и разбиения на задачи
+     *
+     * @param table    таблица исходов
+     * @param maxRound раундов в матче
+     * @param seed     зерно случайных ходов
+     */
+
+    public Tournament(OutcomeTable table, int maxRound, long seed) {
+        if (maxRound <= 0) {
+            throw new IllegalArgumentException("Раундов в матче должно быть больше нуля");
+        }
+
+        this.table = table;
+        this.maxRound = maxRound;
+        this.seed = seed;
+    }
+
+    public void addPlayer(String name, Strategy strategy) {
+        names.add(name);
+        strategies.add(strategy);
+    }
+
+    public TournamentResult play(int matchesPerPair) {
+        return play(matchesPerPair, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Каждая пара игроков играет matchesPerPair матчей
+     */
+
+    public TournamentResult play(int matchesPerPair, ForkJoinPool pool) {
+        int players = names.size();
+        if (players < 2) {
+            throw new IllegalStateException("Для турнира нужно хотя бы два игрока");
+        }
+
+        int pairs = players * (players - 1) / 2;
+        int[] firsts = new int[pairs];
+        int[] seconds = new int[pairs];
+        int pair = 0;
+        for (int first = 0; first < players; first++) {
+            for (int second = first + 1; second < players; second++) {
+                firsts[pair] = first;
+                seconds[pair++] = second;
+            }
+        }
+
+        long matches = (long) pairs * matchesPerPair;
+        long perTask = Math.max(MIN_MATCHES_PER_TASK,
+                matches / ((long) pool.getParallelism() * TASKS_PER_THREAD));
+        Strategy[] playing = strategies.toArray(Strategy[]::new);
+
+        long start = System.nanoTime();
+        long[][] counters = pool.invoke(new MatchTask(playing, firsts, seconds, 0, matches, perTask));
+        long elapsed = System.nanoTime() - start;
+
+        return new TournamentResult(names.toArray(String[]::new), counters,
+                matches * maxRound, elapsed);
+    }
+
+    private final class MatchTask extends RecursiveTask<long[][]> {
+        private final Strategy[] strategies;
+        private final int[] firsts;
+        private final int[] seconds;
+        private final long from;
+        private final long to;
+        private final long perTask;
+
+        private MatchTask(Strategy[] strategies, int[] firsts, int[] seconds, long from, long to, long perTask) {
+            this.strategies = strategies;
+            this.firsts = firsts;
+            this.seconds = seconds;
+            this.from = from;
+            this.to = to;
+            this.perTask = perTask;
+        }
+
+        @Override
+        protected long[][] compute() {
+            if (to - from <= perTask) {
+                return playMatches();
+            }
+
+            long middle = (from + to) >>> 1;
+            MatchTask left = new MatchTask(strategies, firsts, seconds, from, middle, perTask);
+            left.fork();
+            long[][] right = new MatchTask(strategies, firsts, seconds, middle, to, perTask).compute();
+            long[][] merged = left.join();
+            for (int kind = 0; kind < merged.length; kind++) {
+                for (int player = 0; player < merged[kind].length; player++) {
+                    merged[kind][player] += right[kind][player];
+                }
+            }
+            return merged;
+        }
+
+        /**
+         * @return [поражения, ничьи, победы, очки][игрок]
+         */
+
+        private long[][] playMatches() {
+            long[][] counters = new long[SCORE + 1][strategies.length];
+            long[] points = counters[SCORE];
+
+            for (long match = from; match < to; match++) {
+                //Пары чередуются, чтобы у каждой задачи были все пары
+                int pair = (int) (match % firsts.length);
+                int first = firsts[pair];
+                int second = seconds[pair];
+                Strategy firstStrategy = strategies[first];
+                Strategy secondStrategy = strategies[second];
+
+                long state = mix(seed + match * GOLDEN_GAMMA);
+                int firstLast = -1;
+                int secondLast = -1;
+                for (int round = 1; round <= maxRound; round++) {
+                    int firstMove = firstStrategy.nextMove(table, round, secondLast, mix(state += GOLDEN_GAMMA));
+                    int secondMove = secondStrategy.nextMove(table, round, firstLast, mix(state += GOLDEN_GAMMA));
+
+                    int result = table.compare(firstMove, secondMove) + 1;
+                    counters[result][first]++;
+                    counters[2 - result][second]++;
+                    points[first] += POINTS[result];
+                    points[second] += POINTS[2 - result];
+
+                    firstLast = firstMove;
+                    secondLast = secondMove;
+                }
+            }
+            return counters;
+        }
+    }
+
+    //SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,67 @@
+package devs.lair.ipc.jmx.service.tournament;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static devs.lair.ipc.jmx.service.tournament.Tournament.*;
+
+public class TournamentResult {
+    private final String[] names;
+    private final long[][] counters;
+    private final long rounds;
+    private final long elapsedNanos;
+
+    public record PlayerStats(String name, long points, long wins, long draws, long losses) {
+    }
+
+    TournamentResult(String[] names, long[][] counters, long rounds, long elapsedNanos) {
+        this.names = names;
+        this.counters = counters;
+        this.rounds = rounds;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return статистика игрока или null, если такого игрока не было
+     */
+
+    public PlayerStats getStats(String name) {
+        for (int player = 0; player < names.length; player++) {
+            if (names[player].equals(name)) {
+                return getStats(player);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return первые count игроков по очкам, при равенстве - в порядке добавления
+     */
+
+    public List<PlayerStats> getLeaders(int count) {
+        List<PlayerStats> stats = new ArrayList<>(names.length);
+        for (int player = 0; player < names.length; player++) {
+            stats.add(getStats(player));
+        }
+        stats.sort(Comparator.comparingLong(PlayerStats::points).reversed());
+        return stats.subList(0, Math.min(count, stats.size()));
+    }
+
+    public long getRounds() {
+        return rounds;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getRoundsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rounds * 1_000_000_000D / elapsedNanos;
+    }
+
+    private PlayerStats getStats(int player) {
+        return new PlayerStats(names[player], counters[SCORE][player],
+                counters[WINS][player], counters[DRAWS][player], counters[LOSSES][player]);
+    }
+}
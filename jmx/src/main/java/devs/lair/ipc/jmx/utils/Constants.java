@@ -8,19 +8,27 @@ public class Constants {
     public static final String PLAYER_DIR = BASE_DIR + "players";
     public static final String CONFIG_DIR = BASE_DIR + "config";
     public static final String ARBITER_DIR = BASE_DIR + "arbiters";
+    public static final String PID_DIR = BASE_DIR + "pids";
+    public static final String JOURNAL_DIR = BASE_DIR + "journal";
 
     public static final String CONFIG_FILE = "config.properties";
     public static final String MEMORY_CONFIG_FILE = "memory.config";
+    public static final String PROVIDER_SOCKET_FILE = "provider.sock";
+    public static final String HEARTBEAT_FILE = "heartbeat.table";
     public static final String INITIAL_PLAYER_COUNT_KEY = "producer.initialPlayerCount";
     public static final String MAX_ATTEMPT_KEY = "arbiter.maxAttempt";
+    public static final String MOVE_TRANSPORT_KEY = "move.transport";
+    public static final String MOVE_ENCODING_KEY = "move.encoding";
+    public static final String OUTCOME_RULES_KEY = "arbiter.rules";
     public static final String PLAYER_FILE_SUFFIX = ".move";
     public static final int MEMORY_SIZE = 1000;
 
     //Not final for tests
     public static int DEFAULT_POLL_TIMEOUT = 1000;
-    public static int WAIT_OTHERS_TIMEOUT = 25;
     public static final Path CONFIG_PATH = Paths.get(CONFIG_DIR + "/" + CONFIG_FILE);
     public static final Path MEMORY_CONFIG_PATH = Paths.get(CONFIG_DIR + "/" + MEMORY_CONFIG_FILE);
+    public static final Path PROVIDER_SOCKET_PATH = Paths.get(BASE_DIR + PROVIDER_SOCKET_FILE);
+    public static final Path HEARTBEAT_PATH = Paths.get(BASE_DIR + HEARTBEAT_FILE);
 
     private Constants() {
     }
@@ -1,37 +1,90 @@
 package devs.lair.ipc.jmx.utils;
 
-import java.util.Random;
+import devs.lair.ipc.jmx.service.enums.MoveEncoding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
 
 public enum Move {
     ROCK,
     SCISSORS,
     PAPER;
 
+    //Код хода - порядковый номер со старшим битом, у ASCII имен он всегда 0
+    public static final int CODE_MARKER = 0x80;
+    public static final int MAX_ENCODED_LENGTH = 8;
+
+    private static final Move[] VALUES = values();
+
+    private final byte code = (byte) (CODE_MARKER | ordinal());
+    private final byte[] text = name().getBytes(StandardCharsets.US_ASCII);
+
     public int compareWith(Move other) {
-        if (this == other)  return 0;
+        return OutcomeTable.CLASSIC.compare(ordinal(), other.ordinal());
+    }
 
-        return this == ROCK && other == SCISSORS
-                || this == PAPER && other == ROCK
-                || this == SCISSORS && other == PAPER
-                ? 1
-                : -1;
+    public byte encode() {
+        return code;
     }
 
-    private static final Random random = new Random();
+    /**
+     * Пишет ход в буфер без выделения памяти
+     *
+     * @return сколько байт записано, не больше {@link #MAX_ENCODED_LENGTH}
+     */
+
+    public int encode(byte[] target, int offset, MoveEncoding encoding) {
+        if (encoding == MoveEncoding.BYTE) {
+            target[offset] = code;
+            return 1;
+        }
+
+        System.arraycopy(text, 0, target, offset, text.length);
+        return text.length;
+    }
+
+    /**
+     * @throws IllegalArgumentException если это не код хода
+     */
+
+    public static Move decode(byte code) {
+        int ordinal = (code & 0xFF) ^ CODE_MARKER;
+        if (ordinal < 0 || ordinal >= VALUES.length) {
+            throw new IllegalArgumentException("Неизвестный код хода " + code);
+        }
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Разбирает ход в любой из кодировок без выделения памяти
+     *
+     * @throws IllegalArgumentException если в буфере не ход
+     */
+
+    public static Move decode(byte[] source, int offset, int length) {
+        if (length == 1 && (source[offset] & CODE_MARKER) != 0) {
+            return decode(source[offset]);
+        }
+
+        for (Move move : VALUES) {
+            if (move.text.length == length
+                    && Arrays.equals(move.text, 0, length, source, offset, offset + length)) {
+                return move;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный ход " + new String(source, offset, length));
+    }
 
     public static Move getRandomMove() {
-        return switch (random.nextInt(3)) {
-            case 0 -> ROCK;
-            case 1 -> SCISSORS;
-            default -> PAPER;
-        };
+        return VALUES[ThreadLocalRandom.current().nextInt(VALUES.length)];
     }
 
     public static Move valueOf(byte[] bytes) {
-        return valueOf(new String(bytes));
+        return decode(bytes, 0, bytes.length);
     }
 
     public static byte[] getRandomMoveBytes() {
-        return getRandomMove().toString().getBytes();
+        return getRandomMove().text.clone();
     }
 }
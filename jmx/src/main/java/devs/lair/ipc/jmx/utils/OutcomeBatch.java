@@ -0,0 +1,53 @@
+package devs.lair.ipc.jmx.utils;
+
+public class OutcomeBatch {
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+
+    private OutcomeBatch() {
+    }
+
+    /**
+     * Исходы пачки раундов: outcomes[i] = table.compare(first[i], second[i]).
+     * Ходы - индексы таблицы (для классики - {@link Move#ordinal()}).
+     * Если JVM запущена с --add-modules jdk.incubator.vector и таблица
+     * помещается в вектор, пары считаются векторами, иначе - обычным циклом
+     *
+     * @param first    ходы первого игрока
+     * @param second   ходы второго игрока
+     * @param outcomes куда записать исходы, считается outcomes.length пар
+     * @throws IllegalArgumentException  если ходов меньше, чем исходов
+     * @throws IndexOutOfBoundsException если ход не индекс таблицы
+     */
+
+    public static void evaluate(OutcomeTable table, byte[] first, byte[] second, byte[] outcomes) {
+        int length = checkLength(first, second, outcomes);
+        int done = VECTORIZED && VectorOutcomes.supports(table)
+                ? VectorOutcomes.evaluate(table, first, second, outcomes, length)
+                : 0;
+        evaluateScalar(table, first, second, outcomes, done, length);
+    }
+
+    public static void evaluateScalar(OutcomeTable table, byte[] first, byte[] second, byte[] outcomes) {
+        evaluateScalar(table, first, second, outcomes, 0, checkLength(first, second, outcomes));
+    }
+
+    public static boolean isVectorized(OutcomeTable table) {
+        return VECTORIZED && VectorOutcomes.supports(table);
+    }
+
+    private static void evaluateScalar(OutcomeTable table, byte[] first, byte[] second,
+                                       byte[] outcomes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            outcomes[i] = (byte) table.compare(first[i], second[i]);
+        }
+    }
+
+    private static int checkLength(byte[] first, byte[] second, byte[] outcomes) {
+        if (first.length < outcomes.length || second.length < outcomes.length) {
+            throw new IllegalArgumentException("Ходов меньше, чем исходов: "
+                    + first.length + ", " + second.length + " < " + outcomes.length);
+        }
+        return outcomes.length;
+    }
+}
@@ -0,0 +1,216 @@
+package devs.lair.ipc.jmx.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class OutcomeTable {
+    public static final byte FIRST_WINS = 1;
+    public static final byte DRAW = 0;
+    public static final byte SECOND_WINS = -1;
+
+    //Порядок ходов совпадает с Move.ordinal()
+    public static final OutcomeTable CLASSIC = balanced("ROCK", "SCISSORS", "PAPER");
+    public static final OutcomeTable RPSLS = parse("""
+            ROCK = SCISSORS, LIZARD
+            PAPER = ROCK, SPOCK
+            SCISSORS = PAPER, LIZARD
+            LIZARD = SPOCK, PAPER
+            SPOCK = SCISSORS, ROCK
+            """);
+
+    private final String[] moves;
+    private final byte[][] table;
+    private final int[] counters;
+    private final byte[] flat;
+
+    /**
+     * Таблица исходов игры на N ходов: table[first][second] - результат
+     * с точки зрения первого игрока, как у {@link Move#compareWith(Move)}.
+     * Таблица считается один раз, сравнение - два чтения из массива без ветвлений.
+     * Ходы адресуются индексами, имена нужны только для разбора правил
+     *
+     * @param moves имена ходов
+     * @param table исходы, антисимметричная матрица moves.length x moves.length
+     */
+
+    private OutcomeTable(String[] moves, byte[][] table) {
+        this.moves = moves;
+        this.table = table;
+
+        flat = new byte[moves.length * moves.length];
+        for (int first = 0; first < moves.length; first++) {
+            System.arraycopy(table[first], 0, flat, first * moves.length, moves.length);
+        }
+
+        counters = new int[moves.length];
+        for (int move = 0; move < moves.length; move++) {
+            counters[move] = move;
+            for (int candidate = 0; candidate < moves.length; candidate++) {
+                if (table[candidate][move] == FIRST_WINS) {
+                    counters[move] = candidate;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Сбалансированный вариант на нечетное число ходов: каждый ход бьет
+     * (N - 1) / 2 следующих за ним по кругу и проигрывает остальным
+     */
+
+    public static OutcomeTable balanced(String... moves) {
+        int size = moves.length;
+        if (size < 3 || size % 2 == 0) {
+            throw new IllegalArgumentException("Сбалансированная игра бывает только на нечетное число ходов: " + size);
+        }
+
+        byte[][] table = new byte[size][size];
+        for (int first = 0; first < size; first++) {
+            for (int shift = 1; shift <= size / 2; shift++) {
+                int second = (first + shift) % size;
+                table[first][second] = FIRST_WINS;
+                table[second][first] = SECOND_WINS;
+            }
+        }
+        return new OutcomeTable(moves.clone(), table);
+    }
+
+    public static OutcomeTable balanced(int size) {
+        String[] moves = new String[size];
+        for (int i = 0; i < size; i++) {
+            moves[i] = "MOVE" + i;
+        }
+        return balanced(moves);
+    }
+
+    /**
+     * Разбирает правила вида "ход = кого бьет, через запятую", по строке на ход.
+     * Пары, не упомянутые в правилах, - ничья. Индексы ходов идут
+     * в порядке первого упоминания
+     *
+     * @throws IllegalArgumentException если правила противоречат друг другу
+     */
+
+    public static OutcomeTable parse(String rules) {
+        List<String> moves = new ArrayList<>();
+        List<int[]> wins = new ArrayList<>();
+        for (String line : rules.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            int separator = line.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Нет '=' в правиле: " + line);
+            }
+
+            int winner = register(moves, line.substring(0, separator));
+            for (String loser : line.substring(separator + 1).split(",")) {
+                if (!loser.isBlank()) {
+                    wins.add(new int[]{winner, register(moves, loser)});
+                }
+            }
+        }
+
+        byte[][] table = new byte[moves.size()][moves.size()];
+        for (int[] win : wins) {
+            if (win[0] == win[1] || table[win[0]][win[1]] == SECOND_WINS) {
+                throw new IllegalArgumentException("Противоречивое правило: "
+                        + moves.get(win[0]) + " и " + moves.get(win[1]));
+            }
+            table[win[0]][win[1]] = FIRST_WINS;
+            table[win[1]][win[0]] = SECOND_WINS;
+        }
+        return new OutcomeTable(moves.toArray(String[]::new), table);
+    }
+
+    public static OutcomeTable load(Path rulesFile) throws IOException {
+        return parse(Files.readString(rulesFile));
+    }
+
+    /**
+     * Таблица только из данных ходов и в их порядке, например в порядке {@link Move}
+     *
+     * @throws IllegalArgumentException если какого-то хода в правилах нет
+     */
+
+    public OutcomeTable select(String... names) {
+        int[] indexes = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            indexes[i] = indexOf(names[i]);
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException("В правилах нет хода " + names[i]);
+            }
+        }
+
+        byte[][] selected = new byte[names.length][names.length];
+        for (int first = 0; first < names.length; first++) {
+            for (int second = 0; second < names.length; second++) {
+                selected[first][second] = table[indexes[first]][indexes[second]];
+            }
+        }
+        return new OutcomeTable(names.clone(), selected);
+    }
+
+    /**
+     * @return {@link #FIRST_WINS}, {@link #DRAW} или {@link #SECOND_WINS}
+     */
+
+    public int compare(int first, int second) {
+        return table[first][second];
+    }
+
+    /**
+     * @return первый ход, который бьет данный, или сам ход, если его никто не бьет
+     */
+
+    public int getCounter(int move) {
+        return counters[move];
+    }
+
+    /**
+     * @return таблица по строкам: исход first против second лежит по индексу first * size() + second
+     */
+
+    byte[] getFlat() {
+        return flat;
+    }
+
+    public int size() {
+        return moves.length;
+    }
+
+    public String getMove(int index) {
+        return moves[index];
+    }
+
+    /**
+     * @return индекс хода или -1, если такого хода нет
+     */
+
+    public int indexOf(String move) {
+        for (int i = 0; i < moves.length; i++) {
+            if (moves[i].equals(move)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int register(List<String> moves, String move) {
+        String name = move.trim().toUpperCase();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Пустое имя хода");
+        }
+
+        int index = moves.indexOf(name);
+        if (index < 0) {
+            moves.add(name);
+            index = moves.size() - 1;
+        }
+        return index;
+    }
+}
@@ -1,9 +1,12 @@
 package devs.lair.ipc.jmx.utils;
 
+import devs.lair.ipc.jmx.service.PidRegistry;
 import devs.lair.ipc.jmx.service.enums.ProcessType;
 import devs.lair.ipc.jmx.service.model.ActorProcess;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.MappedByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -29,6 +32,21 @@ public class Utils {
         return true;
     }
 
+    /**
+     * Освобождает отображение файла сразу, не дожидаясь сборщика мусора.
+     * После вызова обращаться к буферу нельзя
+     */
+
+    public static void unmap(MappedByteBuffer buffer) {
+        try {
+            Field field = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            ((sun.misc.Unsafe) field.get(null)).invokeCleaner(buffer);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось освободить отображение файла", e);
+        }
+    }
+
     public static void createDirectoryIfNotExist(Path path) throws IOException {
         if (!Files.exists(path)) {
             Files.createDirectory(path);
@@ -74,8 +92,14 @@ public class Utils {
         return s == null || s.length == 0;
     }
 
-    public static ProcessHandle findZombieProcess(String argumentValue) {
-        return findProcessByArgument(argumentValue);
+    /**
+     * Ищет процесс по pid-файлу, а если файла нет (процесс запущен без реестра
+     * или файл потерян) - по аргументам командной строки
+     */
+
+    public static ProcessHandle findZombieProcess(String name) {
+        ProcessHandle process = PidRegistry.find(name);
+        return process != null ? process : findProcessByArgument(name);
     }
 
     public static ProcessHandle findProcessByArgument(String argumentValue) {
@@ -95,9 +119,9 @@ public class Utils {
     }
 
     public static ActorProcess findProcessByFile(Path p) {
-        ProcessHandle processByArgument = Utils.findProcessByArgument(p.getFileName().toString());
-        if (processByArgument != null) {
-            return new ActorProcess(processByArgument,
+        ProcessHandle process = findZombieProcess(p.getFileName().toString());
+        if (process != null) {
+            return new ActorProcess(process,
                     ProcessType.ARBITER,
                     p.getFileName().toString());
         } else {
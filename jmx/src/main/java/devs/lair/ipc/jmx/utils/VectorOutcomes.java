@@ -0,0 +1,56 @@
+package devs.lair.ipc.jmx.utils;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+final class VectorOutcomes {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private VectorOutcomes() {
+    }
+
+    /**
+     * Таблица целиком помещается в один вектор, и исход по индексу
+     * first * size + second достается перестановкой внутри регистра
+     * (selectFrom), без обращений к памяти и ветвлений
+     */
+
+    static boolean supports(OutcomeTable table) {
+        return table.size() * table.size() <= SPECIES.length();
+    }
+
+    /**
+     * Считает полные векторы, хвост короче вектора оставляет вызывающему
+     *
+     * @return сколько пар посчитано
+     * @throws IndexOutOfBoundsException если ход не индекс таблицы
+     */
+
+    static int evaluate(OutcomeTable table, byte[] first, byte[] second, byte[] outcomes, int length) {
+        byte[] flat = table.getFlat();
+        byte size = (byte) table.size();
+        ByteVector outcomeTable = ByteVector.fromArray(SPECIES, flat, 0, SPECIES.indexInRange(0, flat.length));
+
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            ByteVector firstMoves = ByteVector.fromArray(SPECIES, first, i);
+            ByteVector secondMoves = ByteVector.fromArray(SPECIES, second, i);
+
+            //Отрицательные байты при беззнаковом сравнении тоже больше size
+            VectorMask<Byte> invalid = firstMoves.compare(VectorOperators.UNSIGNED_GE, size)
+                    .or(secondMoves.compare(VectorOperators.UNSIGNED_GE, size));
+            if (invalid.anyTrue()) {
+                int lane = i + invalid.firstTrue();
+                throw new IndexOutOfBoundsException("Недопустимый ход в паре " + lane
+                        + ": " + first[lane] + ", " + second[lane]);
+            }
+
+            firstMoves.mul(size).add(secondMoves)
+                    .selectFrom(outcomeTable)
+                    .intoArray(outcomes, i);
+        }
+        return bound;
+    }
+}
@@ -2,6 +2,7 @@ package devs.lair.ipc.jmx;
 
 import devs.lair.ipc.jmx.service.ConfigProvider;
 import devs.lair.ipc.jmx.service.interfaces.IPlayerProvider;
+import devs.lair.ipc.jmx.service.model.RoundRecord.Outcome;
 import devs.lair.ipc.jmx.utils.Move;
 import devs.lair.ipc.jmx.utils.Utils;
 import org.apache.commons.lang3.reflect.FieldUtils;
@@ -10,7 +11,6 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 
-import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
@@ -20,7 +20,10 @@ import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -42,13 +45,12 @@ class ArbiterTest {
     @Test
     @DisplayName("Test without providers")
     void startWithoutProvider() {
-        Arbiter arbiter = spy(Arbiter.class);
+        Arbiter arbiter = spy(new Arbiter(null));
 
         Thread starter = new Thread(arbiter::start);
         starter.start();
 
-        //careful with default
-        verify(arbiter, timeout(600).times(1)).playersReady();
+        verify(arbiter, timeout(600).atLeastOnce()).leasePair();
         arbiter.stop();
         starter.interrupt();
     }
@@ -57,7 +59,7 @@ class ArbiterTest {
     @Test
     @DisplayName("Test without providers, and throw")
     void startWithoutProviderTestNotBound() {
-        Arbiter arbiter = spy(Arbiter.class);
+        Arbiter arbiter = spy(new Arbiter(null));
 
         Thread starter = new Thread(() -> {
             try (MockedStatic<LocateRegistry> locate = mockStatic(LocateRegistry.class)) {
@@ -70,7 +72,7 @@ class ArbiterTest {
 
         starter.start();
 
-        verify(arbiter, timeout(600).times(1)).playersReady();
+        verify(arbiter, timeout(600).atLeastOnce()).leasePair();
         arbiter.stop();
         starter.interrupt();
     }
@@ -90,6 +92,11 @@ class ArbiterTest {
                         return "pl";
                     }
 
+                    @Override
+                    public String[] leasePair(String arbiterName) throws RemoteException {
+                        return new String[]{"pl", "pl"};
+                    }
+
                     @Override
                     public void returnPlayer(String arbiterName, String player) throws RemoteException {
 
@@ -104,6 +111,18 @@ class ArbiterTest {
                     public void finishPlayer(String name, String[] players) throws RemoteException {
 
                     }
+
+                    @Override
+                    public void reportCapacity(String arbiterName, int freeTables, int totalTables)
+                            throws RemoteException {
+
+                    }
+
+                    @Override
+                    public void reportRounds(String arbiterName, String[] players, byte[] outcomes)
+                            throws RemoteException {
+
+                    }
                 });
 
                 locate.when(LocateRegistry::getRegistry).thenReturn(registry);
@@ -130,7 +149,7 @@ class ArbiterTest {
         starter.start();
 
         int arbiterTick = configProvider.getArbiterTick();
-        verify(playerProvider, timeout(3L * arbiterTick).times(4)).getPlayerName(anyString(), anyInt());
+        verify(playerProvider, timeout(3L * arbiterTick).times(2)).leasePair(anyString());
         verify(configProvider, timeout(3L * arbiterTick).times(3)).getArbiterTick();
 
         arbiter.stop();
@@ -139,53 +158,44 @@ class ArbiterTest {
 
     @Test
     @DisplayName("Start with mocks, players file exists")
-    void startWithMocksPlayerFilesExists() throws IOException, IllegalAccessException {
-        Arbiter arbiter = new Arbiter(null);
+    void startWithMocksPlayerFilesExists() throws Exception {
+        Arbiter arbiter = spy(new Arbiter(null));
 
         ConfigProvider configProvider = getSpyForConfigProvider();
         IPlayerProvider playerProvider = getSpyForPlayerProvider();
-        writeMocks(arbiter, configProvider, playerProvider);
-        int arbiterTick = configProvider.getArbiterTick();
         int maxRound = configProvider.getMaxRound();
+        AtomicInteger pairsLeft = leasePairs(playerProvider, maxRound, 1);
+        writeMocks(arbiter, configProvider, playerProvider);
 
-        Thread starter = new Thread(() -> {
-            try (MockedStatic<Files> files = mockStatic(Files.class)) {
-                files.when(() -> Files.size(any(Path.class))).thenReturn(0L);
-                files.when(() -> Files.exists(any(Path.class))).thenReturn(true);
-                files.when(() -> Files.newByteChannel(any(), any(OpenOption[].class))).thenCallRealMethod();
-                arbiter.start();
-            }
-        });
-        starter.start();
+        try (MockedStatic<Files> files = mockStatic(Files.class)) {
+            files.when(() -> Files.size(any(Path.class))).thenReturn(0L);
+            files.when(() -> Files.exists(any(Path.class))).thenReturn(true);
+            //Every pair waits for arbiterTick * maxAttempt before giving up
+            playTable(arbiter, pairsLeft);
+        }
 
-        verify(configProvider, timeout((long) (maxRound) * 3 * arbiterTick).times(maxRound)).getArbiterTick();
-        arbiter.stop();
-        starter.interrupt();
+        verify(arbiter, times(maxRound)).recordRound(anyString(), anyString(), eq(Outcome.TIMEOUT));
     }
 
     @Test
     @DisplayName("Start with player answer")
     void playerAnswer() throws Exception {
-        Arbiter arbiter = new Arbiter(null);
+        Arbiter arbiter = spy(new Arbiter(null));
 
         ConfigProvider configProvider = getSpyForConfigProvider();
         IPlayerProvider playerProvider = getSpyForPlayerProvider();
+        AtomicInteger pairsLeft = leasePairs(playerProvider, 5, 1);
         writeMocks(arbiter, configProvider, playerProvider);
 
-        Thread starter = new Thread(() -> {
-            try (MockedStatic<Files> files = mockStatic(Files.class)) {
-                files.when(() -> Files.newByteChannel(any(), any(OpenOption[].class))).thenCallRealMethod();
-                files.when(() -> Files.exists(any(Path.class))).thenReturn(true);
-                files.when(() -> Files.size(any(Path.class))).thenReturn(1L);
-                files.when(() -> Files.readAllBytes(any())).thenAnswer(invocation -> Move.getRandomMoveBytes());
-                arbiter.start();
-            }
-        });
-        starter.start();
+        try (MockedStatic<Files> files = mockStatic(Files.class)) {
+            files.when(() -> Files.exists(any(Path.class))).thenReturn(true);
+            files.when(() -> Files.size(any(Path.class))).thenReturn(1L);
+            files.when(() -> Files.readAllBytes(any())).thenAnswer(invocation -> Move.getRandomMoveBytes());
+            playTable(arbiter, pairsLeft);
+        }
 
-        verify(configProvider, timeout(1000).times(25)).getArbiterTick();
-        arbiter.stop();
-        starter.interrupt();
+        verify(arbiter, times(25)).recordRound(anyString(), anyString(), any(Outcome.class));
+        verify(playerProvider, times(5)).finishPlayer(anyString(), any());
     }
 
     @Test
@@ -195,53 +205,40 @@ class ArbiterTest {
 
         ConfigProvider configProvider = getSpyForConfigProvider();
         IPlayerProvider playerProvider = getSpyForPlayerProvider();
+        AtomicInteger pairsLeft = leasePairs(playerProvider, 5, 1);
         writeMocks(arbiter, configProvider, playerProvider);
 
-        Thread starter = new Thread(() -> {
-            try (MockedStatic<Files> files = mockStatic(Files.class)) {
-                files.when(() -> Files.newByteChannel(any(), any(OpenOption[].class))).thenCallRealMethod();
-                files.when(() -> Files.exists(any(Path.class))).thenReturn(true);
-                files.when(() -> Files.size(any(Path.class))).thenReturn(1L);
-                files.when(() -> Files.readAllBytes(any())).thenAnswer(invocation -> "INVALID".getBytes());
-                arbiter.start();
-            }
-        });
-        starter.start();
+        try (MockedStatic<Files> files = mockStatic(Files.class)) {
+            files.when(() -> Files.exists(any(Path.class))).thenReturn(true);
+            files.when(() -> Files.size(any(Path.class))).thenReturn(1L);
+            files.when(() -> Files.readAllBytes(any())).thenAnswer(invocation -> "INVALID".getBytes());
+            playTable(arbiter, pairsLeft);
+        }
 
-        verify(configProvider, timeout(1000).times(5)).getArbiterTick();
-        arbiter.stop();
-        starter.interrupt();
+        verify(playerProvider, times(5)).killZombie(anyString(), startsWith("first"));
+        verify(playerProvider, times(5)).killZombie(anyString(), startsWith("second"));
     }
 
 
     @Test
     @DisplayName("Only one player ready")
     void playerOnlyOneReady() throws Exception {
-        Arbiter arbiter = new Arbiter(null);
+        Arbiter arbiter = spy(new Arbiter(null));
 
         ConfigProvider configProvider = getSpyForConfigProvider();
         IPlayerProvider playerProvider = getSpyForPlayerProvider();
-        when(playerProvider.getPlayerName(anyString(), anyInt())).thenAnswer(
-                invocation -> new Random().nextInt(3) == 0
-                        ? Utils.generateUniqueName(null, "player")
-                        : null);
-
+        //Пара находится только на каждый третий запрос
+        AtomicInteger pairsLeft = leasePairs(playerProvider, 5, 3);
         writeMocks(arbiter, configProvider, playerProvider);
 
-        Thread starter = new Thread(() -> {
-            try (MockedStatic<Files> files = mockStatic(Files.class)) {
-                files.when(() -> Files.newByteChannel(any(), any(OpenOption[].class))).thenCallRealMethod();
-                files.when(() -> Files.exists(any(Path.class))).thenReturn(true);
-                files.when(() -> Files.size(any(Path.class))).thenReturn(1L);
-                files.when(() -> Files.readAllBytes(any())).thenAnswer(invocation -> Move.getRandomMoveBytes());
-                arbiter.start();
-            }
-        });
-        starter.start();
+        try (MockedStatic<Files> files = mockStatic(Files.class)) {
+            files.when(() -> Files.exists(any(Path.class))).thenReturn(true);
+            files.when(() -> Files.size(any(Path.class))).thenReturn(1L);
+            files.when(() -> Files.readAllBytes(any())).thenAnswer(invocation -> Move.getRandomMoveBytes());
+            playTable(arbiter, pairsLeft);
+        }
 
-        verify(configProvider, timeout(1000).times(25)).getArbiterTick();
-        arbiter.stop();
-        starter.interrupt();
+        verify(arbiter, times(25)).recordRound(anyString(), anyString(), any(Outcome.class));
     }
 
     @Test
@@ -271,6 +268,47 @@ class ArbiterTest {
     }
 
 
+    @Test
+    @DisplayName("Several tables report capacity")
+    void severalTablesReportCapacity() throws Exception {
+        ConfigProvider configProvider = getSpyForConfigProvider();
+        when(configProvider.getArbiterTables()).thenReturn(3);
+        IPlayerProvider playerProvider = spy(IPlayerProvider.class);
+
+        Arbiter arbiter = new Arbiter(Utils.generateUniqueName(null, "arbiter"), configProvider, playerProvider);
+        Thread starter = new Thread(arbiter::start);
+        starter.start();
+
+        verify(playerProvider, timeout(1000).atLeastOnce()).reportCapacity(anyString(), eq(3), eq(3));
+        verify(playerProvider, timeout(1000).atLeast(3)).leasePair(anyString());
+
+        arbiter.stop();
+        starter.join(1000);
+        assertThat(starter.isAlive()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Heartbeat follows table steps")
+    @SuppressWarnings("unchecked")
+    void heartbeatFollowsTableSteps() throws Exception {
+        Arbiter arbiter = new Arbiter(null);
+        ConfigProvider configProvider = getSpyForConfigProvider();
+        IPlayerProvider playerProvider = getSpyForPlayerProvider();
+        when(playerProvider.leasePair(anyString())).thenReturn(null);
+        writeMocks(arbiter, configProvider, playerProvider);
+
+        GameTable table = new GameTable(arbiter, 0);
+        ((List<GameTable>) FieldUtils.readField(arbiter, "tables", true)).add(table);
+        assertThat((boolean) MethodUtils.invokeMethod(arbiter, true, "tablesProgress", 1000)).isTrue();
+
+        //Стол не заканчивал шагов дольше таймаута хода
+        FieldUtils.writeField(table, "lastStepNanos", System.nanoTime() - TimeUnit.SECONDS.toNanos(10), true);
+        assertThat((boolean) MethodUtils.invokeMethod(arbiter, true, "tablesProgress", 1000)).isFalse();
+
+        table.run();
+        assertThat((boolean) MethodUtils.invokeMethod(arbiter, true, "tablesProgress", 1000)).isTrue();
+    }
+
     @Test
     @DisplayName("deletePlayersFiles coverege test")
     void deletePlayersFilesCoverageTest() throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
@@ -285,13 +323,13 @@ class ArbiterTest {
     @Test
     @DisplayName("Exception on clear file, coverage test")
     void clearPlayersFilesTest() throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
-        Arbiter arbiter = new Arbiter(null);
+        GameTable table = new GameTable(new Arbiter(null), 0);
 
-        FieldUtils.writeField(arbiter, "players", new String[]{"one", "two"}, true);
+        FieldUtils.writeField(table, "players", new String[]{"one", "two"}, true);
 
         MockedStatic<Files> files = mockStatic(Files.class);
         files.when(()->Files.write(any(), any(byte[].class))).thenThrow(new NoSuchFileException(null));
-        MethodUtils.invokeMethod(arbiter, true, "clearPlayersFiles");
+        MethodUtils.invokeMethod(table, true, "clearPlayersFiles");
         files.close();
     }
 
@@ -317,13 +355,55 @@ class ArbiterTest {
         ConfigProvider configProvider = spy(ConfigProvider.class);
         when(configProvider.getArbiterTick()).thenReturn(10);
         when(configProvider.getMaxRound()).thenReturn(5);
+        when(configProvider.getArbiterTables()).thenReturn(1);
         return configProvider;
     }
 
+    /**
+     * Гоняет один стол в потоке теста, пока провайдер не раздаст все пары
+     * и стол не освободится: статический мок Files действует только в этом потоке,
+     * а на планировщике арбитра шаги шли бы в других
+     */
+
+    private void playTable(Arbiter arbiter, AtomicInteger pairsLeft) throws InterruptedException {
+        GameTable table = new GameTable(arbiter, 0);
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((pairsLeft.get() > 0 || table.isPlaying()) && System.currentTimeMillis() < deadline) {
+            table.run();
+            Thread.sleep(1);
+        }
+        assertThat(table.isPlaying()).isFalse();
+    }
+
+    /**
+     * Провайдер выдает ровно pairs пар игрок first* - игрок second*,
+     * каждую на callsPerPair-й запрос, потом только null
+     *
+     * @return сколько пар еще не выдано
+     */
+
+    private AtomicInteger leasePairs(IPlayerProvider playerProvider, int pairs, int callsPerPair)
+            throws RemoteException {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger pairsLeft = new AtomicInteger(pairs);
+        when(playerProvider.leasePair(anyString())).thenAnswer(invocation -> {
+            int call = calls.getAndIncrement();
+            if (pairsLeft.get() == 0 || call % callsPerPair != callsPerPair - 1) {
+                return null;
+            }
+            int pair = pairs - pairsLeft.getAndDecrement();
+            return new String[]{"first" + pair, "second" + pair};
+        });
+        return pairsLeft;
+    }
+
     private IPlayerProvider getSpyForPlayerProvider() throws RemoteException {
         IPlayerProvider playerProvider = spy(IPlayerProvider.class);
         when(playerProvider.getPlayerName(anyString(), anyInt())).thenAnswer(invocation ->
                 Utils.generateUniqueName(null, "player"));
+        when(playerProvider.leasePair(anyString())).thenAnswer(invocation -> new String[]{
+                Utils.generateUniqueName(null, "player"),
+                Utils.generateUniqueName(null, "player")});
         return playerProvider;
     }
 }
\ No newline at end of file
@@ -124,9 +124,8 @@ class ConfigLoaderTest {
     }
 
     @Test
-    @DisplayName("Interrupt in sleep ")
-    void interruptInSleepMain() throws InterruptedException {
-        WAIT_OTHERS_TIMEOUT = 5000;
+    @DisplayName("Interrupt main")
+    void interruptMain() throws InterruptedException {
         Thread starter = new Thread(() -> ConfigLoader.main(new String[0]));
         starter.start();
         starter.setUncaughtExceptionHandler((t, e) ->
@@ -140,7 +139,6 @@ class ConfigLoaderTest {
                 .until(() -> !starter.isAlive());
 
         assertThat(starter.isAlive()).isFalse();
-        WAIT_OTHERS_TIMEOUT = 25;
     }
 
     @Test
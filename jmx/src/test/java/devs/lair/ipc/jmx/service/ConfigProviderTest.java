@@ -2,17 +2,23 @@ package devs.lair.ipc.jmx.service;
 
 import devs.lair.ipc.jmx.ConfigLoader;
 import devs.lair.ipc.jmx.utils.Constants;
+import devs.lair.ipc.jmx.utils.Move;
+import devs.lair.ipc.jmx.utils.OutcomeTable;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.apache.commons.lang3.reflect.MethodUtils;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static devs.lair.ipc.jmx.utils.Constants.DEFAULT_POLL_TIMEOUT;
@@ -136,11 +142,36 @@ class ConfigProviderTest {
     }
 
     @Test
-    @DisplayName("Throw when updating")
-    void throwWhenUpdating() throws IllegalAccessException {
-        ConfigProvider configProvider = new ConfigProvider();
-        FieldUtils.writeField(configProvider, "updating", true, true);
-        assertThrows(IllegalStateException.class, () -> configProvider.getProperty("SOME"));
+    @DisplayName("Typed values from slots")
+    void typedValuesFromSlots() throws IllegalAccessException {
+        try (ConfigLoader configLoader = new ConfigLoader();
+             ConfigProvider configProvider = new ConfigProvider()) {
+            configLoader.loadFileToMemory();
+            configProvider.loadConfig();
+
+            Properties props = (Properties) FieldUtils.readField(configProvider, "props", true);
+            assertThat(configProvider.getMaxAttempt())
+                    .isEqualTo(Integer.parseInt(configProvider.getProperty(Constants.MAX_ATTEMPT_KEY)));
+            assertThat(props).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Reload config from file")
+    void reloadConfigFromFile() throws IllegalAccessException {
+        try (ConfigLoader configLoader = new ConfigLoader();
+             ConfigProvider configProvider = new ConfigProvider()) {
+            configLoader.loadFileToMemory();
+            configProvider.loadConfig();
+            long generation = (long) FieldUtils.readField(configProvider, "generation", true);
+
+            configLoader.loadFileToMemory();
+            configProvider.loadConfig();
+
+            assertThat((long) FieldUtils.readField(configProvider, "generation", true))
+                    .isGreaterThan(generation);
+            assertThat(configProvider.getProperty(Constants.MAX_ATTEMPT_KEY)).isNotNull();
+        }
     }
 
     @Test
@@ -172,40 +203,111 @@ class ConfigProviderTest {
     }
 
     @Test
-    @DisplayName("Start watch without loader")
-    void startWatchWithoutLoader() throws IllegalAccessException {
+    @DisplayName("Subscribe without loader")
+    void subscribeWithoutLoader() throws Exception {
         ConfigProvider configProvider = Mockito.spy(ConfigProvider.class);
 
-        new Thread(configProvider::init).start();
-        verify(configProvider, timeout(2L * DEFAULT_POLL_TIMEOUT).times(2)).loadConfig();
+        configProvider.init();
+        verify(configProvider, times(1)).loadConfig();
+        assertThat(readWatchThread(configProvider)).isNull();
 
-        Thread watchThread = readWatchThread(configProvider);
-        assertThat(watchThread).isNotNull();
-        assertThat(watchThread.isAlive()).isTrue();
-
-        verify(configProvider, timeout(2L * DEFAULT_POLL_TIMEOUT).times(3)).loadConfig();
+        try (ConfigLoader configLoader = new ConfigLoader()) {
+            configLoader.loadFileToMemory();
+            verify(configProvider, times(2)).loadConfig();
+            assertThat(configProvider.getProperty(Constants.MAX_ATTEMPT_KEY)).isNotNull();
+        }
 
         configProvider.close();
+        assertThat(readIsStop(configProvider)).isTrue();
 
-        Awaitility.await()
-                .timeout(25, TimeUnit.MILLISECONDS)
-                .pollDelay(5, TimeUnit.MILLISECONDS)
-                .until(() -> !watchThread.isAlive());
+        try (ConfigLoader configLoader = new ConfigLoader()) {
+            configLoader.loadFileToMemory();
+            verify(configProvider, times(2)).loadConfig();
+        }
+    }
 
-        assertThat(watchThread.isAlive()).isFalse();
-        assertThat(readIsStop(configProvider)).isTrue();
+    @Test
+    @DisplayName("Reload on SIGHUP")
+    void reloadOnSignal() throws Exception {
+        //Подписчики прошлых тестов этой JVM не должны мешать
+        ConfigNotifier.reset();
+        try (ConfigProvider configProvider = Mockito.spy(ConfigProvider.class)) {
+            configProvider.init();
+
+            CountDownLatch reloaded = new CountDownLatch(1);
+            doAnswer(invocation -> {
+                invocation.callRealMethod();
+                reloaded.countDown();
+                return null;
+            }).when(configProvider).loadConfig();
+
+            Process kill = new ProcessBuilder("kill", "-HUP",
+                    String.valueOf(ProcessHandle.current().pid())).start();
+            assertThat(kill.waitFor()).isZero();
+
+            assertThat(reloaded.await(2L * DEFAULT_POLL_TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Failed subscriber does not stop others")
+    void failedSubscriberDoesNotStopOthers() {
+        ConfigNotifier.reset();
+        ConfigProvider failing = Mockito.spy(ConfigProvider.class);
+        doThrow(new IllegalStateException("test")).when(failing).loadConfig();
+        ConfigProvider healthy = Mockito.spy(ConfigProvider.class);
+
+        ConfigNotifier.subscribe(failing);
+        ConfigNotifier.subscribe(healthy);
+        try {
+            assertThat(ConfigNotifier.notifySubscribers()).isEqualTo(1);
+            verify(healthy, times(1)).loadConfig();
+        } finally {
+            ConfigNotifier.reset();
+        }
     }
 
     @Test
-    @DisplayName("Start watch with loader")
-    void startWatchWithLoader() {
+    @DisplayName("Reload by generation")
+    void reloadByGeneration() throws IllegalAccessException {
         try (ConfigLoader configLoader = new ConfigLoader();
-             ConfigProvider configProvider = Mockito.spy(ConfigProvider.class)) {
+             ConfigProvider configProvider = new ConfigProvider()) {
             configLoader.loadFileToMemory();
+            configProvider.loadConfig();
+            long generation = (long) FieldUtils.readField(configProvider, "generation", true);
 
-            new Thread(configProvider::init).start();
-            verify(configProvider, timeout(2L * DEFAULT_POLL_TIMEOUT)
-                    .times(2)).loadConfig();
+            //Не подписан: о новой публикации узнает только по поколению в памяти
+            configLoader.loadFileToMemory();
+            assertThat((long) FieldUtils.readField(configProvider, "generation", true)).isEqualTo(generation);
+
+            assertThat(configProvider.getArbiterTick()).isPositive();
+            assertThat((long) FieldUtils.readField(configProvider, "generation", true))
+                    .isGreaterThan(generation);
+        }
+    }
+
+    @Test
+    @DisplayName("Outcome rules from file")
+    void outcomeRulesFromFile(@TempDir Path rulesDir) throws IOException, IllegalAccessException {
+        Path reversed = rulesDir.resolve("reversed.rules");
+        Files.writeString(reversed, "ROCK = PAPER\nPAPER = SCISSORS\nSCISSORS = ROCK\n");
+        Path broken = rulesDir.resolve("broken.rules");
+        Files.writeString(broken, "ROCK = PAPER\n");
+
+        try (ConfigProvider configProvider = new ConfigProvider()) {
+            assertThat(configProvider.getOutcomeTable()).isSameAs(OutcomeTable.CLASSIC);
+
+            Properties props = new Properties();
+            props.setProperty(Constants.OUTCOME_RULES_KEY, reversed.toString());
+            FieldUtils.writeField(configProvider, "props", props, true);
+            FieldUtils.writeField(configProvider, "outcomesGeneration", -1L, true);
+            assertThat(configProvider.getOutcomeTable().compare(Move.ROCK.ordinal(), Move.PAPER.ordinal()))
+                    .isEqualTo(OutcomeTable.FIRST_WINS);
+
+            //В правилах нет хода SCISSORS
+            props.setProperty(Constants.OUTCOME_RULES_KEY, broken.toString());
+            FieldUtils.writeField(configProvider, "outcomesGeneration", -1L, true);
+            assertThat(configProvider.getOutcomeTable()).isSameAs(OutcomeTable.CLASSIC);
         }
     }
 
@@ -0,0 +1,133 @@
+package devs.lair.ipc.jmx.service;
+
+import devs.lair.ipc.jmx.service.enums.ConfigSlot;
+import devs.lair.ipc.jmx.service.enums.MoveEncoding;
+import devs.lair.ipc.jmx.service.enums.ProviderTransport;
+import devs.lair.ipc.jmx.service.enums.TransportType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static devs.lair.ipc.jmx.utils.Constants.MEMORY_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConfigRegionTest {
+    private static final int[] SLOTS = new int[ConfigSlot.MAX_SLOTS];
+
+    private final ByteBuffer memory = ByteBuffer.allocateDirect(MEMORY_SIZE).order(ByteOrder.nativeOrder());
+
+    @Test
+    @DisplayName("Nothing published")
+    void nothingPublished() {
+        assertThat(ConfigRegion.read(memory, 0)).isNull();
+        assertThat(ConfigRegion.getGeneration(memory)).isZero();
+    }
+
+    @Test
+    @DisplayName("Publish and read")
+    void publishAndRead() {
+        long generation = ConfigRegion.publish(memory, SLOTS, "a = 1".getBytes());
+
+        ConfigRegion.Snapshot snapshot = ConfigRegion.read(memory, 0);
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.generation()).isEqualTo(generation).isEven();
+        assertThat(new String(snapshot.data())).isEqualTo("a = 1");
+
+        assertThat(ConfigRegion.read(memory, generation)).isNull();
+    }
+
+    @Test
+    @DisplayName("Shorter config replaces longer")
+    void shorterReplacesLonger() {
+        ConfigRegion.publish(memory, SLOTS, "long.key = 100".getBytes());
+        long generation = ConfigRegion.publish(memory, SLOTS, "k = 1".getBytes());
+
+        ConfigRegion.Snapshot snapshot = ConfigRegion.read(memory, 0);
+        assertThat(snapshot.generation()).isEqualTo(generation);
+        assertThat(new String(snapshot.data())).isEqualTo("k = 1");
+    }
+
+    @Test
+    @DisplayName("Typed slots")
+    void typedSlots() throws IOException {
+        byte[] config = "player.tick = 7\narbiter.maxRound = oops\nmove.transport = memory\nprovider.transport = socket\nmove.encoding = text".getBytes();
+        long generation = ConfigRegion.publish(memory, ConfigSlot.parseAll(config), config);
+
+        int[] slots = new int[ConfigSlot.MAX_SLOTS];
+        assertThat(ConfigRegion.readSlots(memory, 0, slots)).isEqualTo(generation);
+        assertThat(slots[ConfigSlot.PLAYER_TICK.getIndex()]).isEqualTo(7);
+        assertThat(slots[ConfigSlot.ARBITER_MAX_ROUND.getIndex()]).isEqualTo(ConfigSlot.ABSENT);
+        assertThat(slots[ConfigSlot.ARBITER_TICK.getIndex()]).isEqualTo(ConfigSlot.ABSENT);
+        assertThat(slots[ConfigSlot.MOVE_TRANSPORT.getIndex()]).isEqualTo(TransportType.MEMORY.ordinal());
+        assertThat(slots[ConfigSlot.PROVIDER_TRANSPORT.getIndex()]).isEqualTo(ProviderTransport.SOCKET.ordinal());
+        assertThat(slots[ConfigSlot.MOVE_ENCODING.getIndex()]).isEqualTo(MoveEncoding.TEXT.ordinal());
+
+        assertThat(ConfigRegion.readSlots(memory, generation, slots)).isEqualTo(generation);
+    }
+
+    @Test
+    @DisplayName("Writer in progress")
+    void writerInProgress() {
+        memory.putLong(0, 3);
+        assertThat(ConfigRegion.read(memory, 0)).isNull();
+
+        //Broken writer is recovered by the next publish
+        assertThat(ConfigRegion.publish(memory, SLOTS, "a = 1".getBytes())).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Wrong size")
+    void wrongSize() {
+        assertThrows(IllegalArgumentException.class, () -> ConfigRegion.publish(memory, SLOTS, new byte[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> ConfigRegion.publish(memory, SLOTS, new byte[ConfigRegion.CAPACITY + 1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> ConfigRegion.publish(memory, new int[1], new byte[1]));
+    }
+
+    @Test
+    @DisplayName("Reader never sees torn config")
+    void neverTorn() throws InterruptedException {
+        byte[] first = new byte[ConfigRegion.CAPACITY];
+        byte[] second = new byte[ConfigRegion.CAPACITY / 2];
+        Arrays.fill(first, (byte) 'a');
+        Arrays.fill(second, (byte) 'b');
+
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; !stop.get(); i++) {
+                ConfigRegion.publish(memory, SLOTS, i % 2 == 0 ? first : second);
+                //On a single core the reader would otherwise only ever see odd sequences
+                Thread.yield();
+            }
+        });
+        writer.start();
+
+        try {
+            long seen = 0;
+            int snapshots = 0;
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+            while (System.nanoTime() < deadline) {
+                ConfigRegion.Snapshot snapshot = ConfigRegion.read(memory, seen);
+                if (snapshot == null) continue;
+
+                assertThat(snapshot.data()).satisfiesAnyOf(
+                        data -> assertThat(data).isEqualTo(first),
+                        data -> assertThat(data).isEqualTo(second));
+                seen = snapshot.generation();
+                snapshots++;
+            }
+            assertThat(snapshots).isPositive();
+        } finally {
+            stop.set(true);
+            writer.join();
+        }
+    }
+}
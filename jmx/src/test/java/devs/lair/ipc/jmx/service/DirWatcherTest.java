@@ -0,0 +1,108 @@
+package devs.lair.ipc.jmx.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DirWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<DirWatcher.Changes> batches = new CopyOnWriteArrayList<>();
+    private DirWatcher dirWatcher;
+
+    @AfterEach
+    void close() {
+        if (dirWatcher != null) {
+            dirWatcher.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Burst is coalesced into few batches")
+    void coalescedBurst() throws Exception {
+        startWatch(200);
+
+        for (int i = 0; i < 100; i++) {
+            Files.createFile(tempDir.resolve("player" + i + ".move"));
+        }
+
+        Set<String> created = awaitCreated(100);
+        assertThat(created).hasSize(100);
+        assertThat(batches.size()).isLessThan(10);
+    }
+
+    @Test
+    @DisplayName("Transient file is not reported, initial files are known")
+    void transientFile() throws Exception {
+        Files.createFile(tempDir.resolve("initial.move"));
+        startWatch(300);
+        assertThat(dirWatcher.getEntries()).containsExactly("initial.move");
+
+        Path transientFile = Files.createFile(tempDir.resolve("transient.move"));
+        Files.delete(transientFile);
+        Files.delete(tempDir.resolve("initial.move"));
+        Files.createFile(tempDir.resolve("marker.move"));
+
+        awaitCreated(1);
+        DirWatcher.Changes changes = batches.getFirst();
+        assertThat(changes.created()).containsExactly("marker.move");
+        assertThat(changes.deleted()).containsExactly("initial.move");
+        assertThat(changes.modified()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Overflow is recovered by rescan")
+    void overflow() throws Exception {
+        dirWatcher = new DirWatcher(tempDir.toString());
+        dirWatcher.addChangesListener(batches::add);
+
+        //Пока поток не запущен, события копятся, больше 512 на ключ - OVERFLOW
+        for (int i = 0; i < 2000; i++) {
+            Files.createFile(tempDir.resolve("player" + i + ".move"));
+        }
+        for (int i = 0; i < 10; i++) {
+            Files.delete(tempDir.resolve("player" + i + ".move"));
+        }
+        dirWatcher.startWatch();
+
+        Set<String> created = awaitCreated(1990);
+        assertThat(created).hasSize(1990).doesNotContain("player0.move");
+        assertThat(batches).anyMatch(DirWatcher.Changes::overflow);
+        assertThat(batches).allMatch(changes -> changes.deleted().isEmpty());
+        assertThat(dirWatcher.getEntries()).hasSize(1990);
+    }
+
+    private void startWatch(long coalesceMillis) {
+        dirWatcher = new DirWatcher(tempDir.toString(), coalesceMillis);
+        dirWatcher.addChangesListener(batches::add);
+        dirWatcher.startWatch();
+    }
+
+    private Set<String> awaitCreated(int count) throws InterruptedException {
+        Set<String> created = new HashSet<>();
+        for (int i = 0; i < 500 && created.size() < count; i++) {
+            Thread.sleep(10);
+            created.clear();
+            int total = 0;
+            for (DirWatcher.Changes changes : batches) {
+                created.addAll(changes.created());
+                total += changes.created().size();
+            }
+            assertThat(total).as("создание без повторов").isEqualTo(created.size());
+        }
+        return created;
+    }
+}
@@ -0,0 +1,65 @@
+package devs.lair.ipc.jmx.service;
+
+import devs.lair.ipc.jmx.service.enums.ProcessType;
+import devs.lair.ipc.jmx.service.interfaces.IPlayerProvider;
+import devs.lair.ipc.jmx.service.model.ActorProcess;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EmbeddedStarterTest {
+    private ConfigProvider configProvider;
+    private EmbeddedStarter starter;
+
+    @BeforeAll
+    void beforeAll() {
+        configProvider = new ConfigProvider();
+        starter = new EmbeddedStarter(configProvider, mock(IPlayerProvider.class));
+    }
+
+    @AfterAll
+    void afterAll() {
+        configProvider.close();
+    }
+
+    @Test
+    @DisplayName("Supported types")
+    void supportedTypes() {
+        assertThat(starter.supports(ProcessType.PLAYER)).isTrue();
+        assertThat(starter.supports(ProcessType.ARBITER)).isTrue();
+        assertThat(starter.supports(ProcessType.PLAYER_PRODUCER)).isTrue();
+        assertThat(starter.supports(ProcessType.CONFIG_LOADER)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Unsupported type throws")
+    void unsupportedTypeThrows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> starter.start(ProcessType.CONFIG_LOADER, "loader"));
+    }
+
+    @Test
+    @DisplayName("Start and terminate embedded player")
+    void startAndTerminatePlayer() {
+        ActorProcess player = starter.start(ProcessType.PLAYER, "embeddedTestPlayer");
+
+        assertThat(player.isEmbedded()).isTrue();
+        assertThat(starter.find("embeddedTestPlayer")).isSameAs(player);
+
+        player.terminate();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(player::isDead);
+        Awaitility.await().atMost(1, TimeUnit.SECONDS)
+                .until(() -> starter.find("embeddedTestPlayer") == null);
+    }
+}
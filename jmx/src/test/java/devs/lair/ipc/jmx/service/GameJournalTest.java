@@ -0,0 +1,91 @@
+package devs.lair.ipc.jmx.service;
+
+import devs.lair.ipc.jmx.service.model.RoundRecord;
+import devs.lair.ipc.jmx.service.model.RoundRecord.Outcome;
+import devs.lair.ipc.jmx.utils.Move;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GameJournalTest {
+    private static final String OWNER = "arbiter";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Append and read rounds")
+    void appendAndRead() throws IOException {
+        try (GameJournal journal = new GameJournal(dir, OWNER)) {
+            journal.appendRound(1, 1, "first", "second", Move.ROCK, Move.SCISSORS, Outcome.FIRST_WINS, 42);
+            journal.appendRound(1, 2, "first", "second", null, Move.PAPER, Outcome.TIMEOUT, 43);
+        }
+
+        List<Path> segments = GameJournal.getSegments(dir, OWNER);
+        assertThat(segments).hasSize(1);
+
+        List<RoundRecord> rounds = GameJournal.read(segments.getFirst());
+        assertThat(rounds).containsExactly(
+                new RoundRecord(OWNER, 1, 1, "first", "second", Move.ROCK, Move.SCISSORS,
+                        Outcome.FIRST_WINS, rounds.get(0).timeMillis(), 42),
+                new RoundRecord(OWNER, 1, 2, "first", "second", null, Move.PAPER,
+                        Outcome.TIMEOUT, rounds.get(1).timeMillis(), 43));
+        assertThat(rounds.get(0).timeMillis()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Roll segments")
+    void rollSegments() throws IOException {
+        int total = 500;
+        try (GameJournal journal = new GameJournal(dir, OWNER, 4096)) {
+            for (int i = 0; i < total; i++) {
+                journal.appendRound(0, i, "player" + i % 7, "player" + (i + 1) % 7,
+                        Move.PAPER, Move.PAPER, Outcome.DRAW, i);
+            }
+        }
+
+        List<Path> segments = GameJournal.getSegments(dir, OWNER);
+        assertThat(segments.size()).isGreaterThan(1);
+
+        int read = 0;
+        for (Path segment : segments) {
+            for (RoundRecord round : GameJournal.read(segment)) {
+                assertThat(round.round()).isEqualTo(read);
+                assertThat(round.firstPlayer()).isEqualTo("player" + read % 7);
+                read++;
+            }
+        }
+        assertThat(read).isEqualTo(total);
+    }
+
+    @Test
+    @DisplayName("Reopen starts new segment, no rounds - no segment")
+    void reopenStartsNewSegment() throws IOException {
+        for (int i = 0; i < 2; i++) {
+            try (GameJournal journal = new GameJournal(dir, OWNER)) {
+                journal.appendRound(0, 1, "first", "second", Move.ROCK, Move.ROCK, Outcome.DRAW, 1);
+            }
+        }
+        new GameJournal(dir, OWNER).close();
+        new GameJournal(dir, "other").close();
+
+        assertThat(GameJournal.getSegments(dir, OWNER)).hasSize(2);
+        assertThat(GameJournal.getSegments(dir, "other")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Not a journal")
+    void notAJournal() throws IOException {
+        Path file = Files.writeString(dir.resolve("garbage"), "garbage garbage garbage");
+        assertThrows(IllegalStateException.class, () -> GameJournal.read(file));
+        assertThrows(IllegalArgumentException.class, () -> new GameJournal(dir, ""));
+    }
+}
@@ -0,0 +1,50 @@
+package devs.lair.ipc.jmx.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeartbeatMonitorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Missed beats are counted from the last change")
+    void missedBeats() throws IOException {
+        HeartbeatTable table = new HeartbeatTable(tempDir.resolve("heartbeat.table"), 8);
+        HeartbeatMonitor monitor = new HeartbeatMonitor(table);
+        monitor.track("arbiter");
+
+        HeartbeatTable.Heartbeat heartbeat = table.claim("arbiter");
+        monitor.scan(0);
+        assertThat(monitor.getStatus("arbiter")).isNull();
+
+        heartbeat.beat(100);
+        monitor.scan(ms(10));
+        assertThat(monitor.getStatus("arbiter").missedBeats()).isZero();
+
+        monitor.scan(ms(360));
+        assertThat(monitor.getStatus("arbiter").missedBeats()).isEqualTo(3);
+        assertThat(monitor.getStatus("arbiter").silenceNanos()).isEqualTo(ms(350));
+
+        heartbeat.beat(100);
+        monitor.scan(ms(400));
+        assertThat(monitor.getStatus("arbiter").missedBeats()).isZero();
+
+        heartbeat.close();
+        monitor.scan(ms(900));
+        assertThat(monitor.getStatus("arbiter")).isNull();
+        assertThat(monitor.getStatus("unknown")).isNull();
+    }
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,86 @@
+package devs.lair.ipc.jmx.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HeartbeatTableTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HeartbeatTable table;
+
+    @BeforeEach
+    void open() throws IOException {
+        table = new HeartbeatTable(tempDir.resolve("heartbeat.table"), 4);
+    }
+
+    @Test
+    @DisplayName("Beats are visible through another mapping")
+    void beatsVisible() throws IOException {
+        HeartbeatTable.Heartbeat heartbeat = table.claim("arbiter");
+        heartbeat.beat(50);
+        heartbeat.beat(50);
+
+        HeartbeatTable reader = new HeartbeatTable(tempDir.resolve("heartbeat.table"), 4);
+        assertThat(reader.getHighWater()).isEqualTo(2);
+        assertThat(reader.getSlotKey(1)).isEqualTo(HeartbeatTable.getKey("arbiter"));
+        assertThat(reader.getBeats(1)).isEqualTo(2);
+        assertThat(reader.getIntervalMillis(1)).isEqualTo(50);
+        assertThat(Files.size(tempDir.resolve("heartbeat.table"))).isEqualTo(4 * HeartbeatTable.SLOT_SIZE);
+    }
+
+    @Test
+    @DisplayName("Released slot is reused, table overflow is reported")
+    void releaseAndReuse() {
+        HeartbeatTable.Heartbeat first = table.claim("first");
+        table.claim("second");
+        table.claim("third");
+        assertThatThrownBy(() -> table.claim("fourth")).isInstanceOf(IllegalStateException.class);
+
+        first.close();
+        first.beat(10);
+        assertThat(table.getSlotKey(1)).isEqualTo(HeartbeatTable.FREE);
+
+        table.claim("fourth");
+        assertThat(table.getSlotKey(1)).isEqualTo(HeartbeatTable.getKey("fourth"));
+        assertThat(table.getBeats(1)).isZero();
+        assertThat(table.getHighWater()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Foreign file is rejected")
+    void foreignFile() throws IOException {
+        Path file = Files.write(tempDir.resolve("other"), new byte[]{1, 2, 3, 4});
+        assertThatThrownBy(() -> new HeartbeatTable(file, 4)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Controller releases slot of killed actor")
+    void releaseForKilled() {
+        HeartbeatTable.Heartbeat killed = table.claim("killed");
+        table.claim("alive");
+
+        assertThat(table.release("killed")).isTrue();
+        assertThat(table.release("killed")).isFalse();
+        assertThat(table.release("unknown")).isFalse();
+        assertThat(table.getSlotKey(1)).isEqualTo(HeartbeatTable.FREE);
+
+        //Новый актор займет освобожденный слот, а не поднимет границу
+        table.claim("next");
+        assertThat(table.getSlotKey(1)).isEqualTo(HeartbeatTable.getKey("next"));
+        assertThat(table.getHighWater()).isEqualTo(3);
+
+        killed.close();
+        assertThat(table.getSlotKey(1)).isEqualTo(HeartbeatTable.getKey("next"));
+    }
+}
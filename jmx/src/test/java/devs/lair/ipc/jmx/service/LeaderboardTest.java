@@ -0,0 +1,91 @@
+package devs.lair.ipc.jmx.service;
+
+import devs.lair.ipc.jmx.service.model.PlayerStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static devs.lair.ipc.jmx.service.model.RoundRecord.Outcome.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LeaderboardTest {
+    private final Leaderboard leaderboard = new Leaderboard();
+
+    @Test
+    @DisplayName("Points and counters")
+    void pointsAndCounters() {
+        leaderboard.recordRound("a", "b", FIRST_WINS);
+        leaderboard.recordRound("a", "b", DRAW);
+        leaderboard.recordRound("b", "c", SECOND_WINS);
+        leaderboard.recordRound(null, "c", TIMEOUT);
+
+        assertThat(leaderboard.getStats("a")).isEqualTo(new PlayerStats("a", 1, 4, 1, 1, 0, 0));
+        assertThat(leaderboard.getStats("c")).isEqualTo(new PlayerStats("c", 2, 3, 1, 0, 0, 1));
+        assertThat(leaderboard.getStats("b")).isEqualTo(new PlayerStats("b", 3, 1, 0, 1, 2, 0));
+        assertThat(leaderboard.getStats("missing")).isNull();
+        assertThat(leaderboard.getRoundsCount()).isEqualTo(4);
+        assertThat(leaderboard.getPlayersCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Top k, ties share rank and keep arrival order")
+    void topK() {
+        leaderboard.recordRound("a", "b", DRAW);
+        leaderboard.recordRound("c", "d", FIRST_WINS);
+
+        assertThat(leaderboard.getLeaders(3)).extracting(PlayerStats::name).containsExactly("c", "a", "b");
+        assertThat(leaderboard.getLeaders(10)).extracting(PlayerStats::rank).containsExactly(1, 2, 2, 4);
+        assertThat(leaderboard.getLeaders(0)).isEmpty();
+        assertThat(leaderboard.getTopTen()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Incremental state matches recount")
+    void matchesRecount() {
+        Random random = new Random(42);
+        int players = 300;
+        int[] points = new int[players];
+        for (int i = 0; i < 20_000; i++) {
+            int first = random.nextInt(players);
+            int second = (first + 1 + random.nextInt(players - 1)) % players;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    leaderboard.recordRound("p" + first, "p" + second, DRAW);
+                    points[first]++;
+                    points[second]++;
+                }
+                case 1 -> {
+                    leaderboard.recordRound("p" + first, "p" + second, FIRST_WINS);
+                    points[first] += 3;
+                }
+                default -> {
+                    leaderboard.recordRound("p" + first, "p" + second, SECOND_WINS);
+                    points[second] += 3;
+                }
+            }
+        }
+
+        for (int player = 0; player < players; player++) {
+            int better = 0;
+            for (int other : points) {
+                if (other > points[player]) better++;
+            }
+            PlayerStats stats = leaderboard.getStats("p" + player);
+            assertThat(stats.points()).isEqualTo(points[player]);
+            assertThat(stats.rank()).isEqualTo(better + 1);
+        }
+
+        assertThat(leaderboard.getLeaders(players)).extracting(PlayerStats::points)
+                .isSortedAccordingTo((x, y) -> Integer.compare(y, x));
+    }
+
+    @Test
+    @DisplayName("Played round needs both players")
+    void bothPlayers() {
+        assertThatThrownBy(() -> leaderboard.recordRound("a", null, DRAW))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(leaderboard.getPlayersCount()).isZero();
+    }
+}
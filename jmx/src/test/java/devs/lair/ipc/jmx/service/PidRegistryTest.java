@@ -0,0 +1,110 @@
+package devs.lair.ipc.jmx.service;
+
+import devs.lair.ipc.jmx.utils.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static devs.lair.ipc.jmx.utils.Constants.PID_DIR;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PidRegistryTest {
+    private static final String NAME = "pidRegistryTestActor";
+    private final Path pidFile = Paths.get(PID_DIR, NAME + ".pid");
+
+    @AfterEach
+    void deletePidFile() {
+        Utils.tryDelete(pidFile);
+    }
+
+    @Test
+    @DisplayName("Register and find")
+    void registerAndFind() {
+        PidRegistry.register(NAME);
+
+        ProcessHandle process = PidRegistry.find(NAME);
+        assertThat(process).isNotNull();
+        assertThat(process.pid()).isEqualTo(ProcessHandle.current().pid());
+    }
+
+    @Test
+    @DisplayName("Unregister")
+    void unregister() {
+        PidRegistry.register(NAME);
+        PidRegistry.unregister(NAME);
+
+        assertThat(PidRegistry.find(NAME)).isNull();
+        assertThat(Files.exists(pidFile)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Not registered")
+    void notRegistered() {
+        assertThat(PidRegistry.find(NAME)).isNull();
+    }
+
+    @Test
+    @DisplayName("Reused pid is stale")
+    void reusedPidIsStale() throws IOException {
+        Files.createDirectories(pidFile.getParent());
+        Files.writeString(pidFile, ProcessHandle.current().pid() + "\n" + 1);
+
+        assertThat(PidRegistry.find(NAME)).isNull();
+        assertThat(Files.exists(pidFile)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Broken pid file")
+    void brokenPidFile() throws IOException {
+        Files.createDirectories(pidFile.getParent());
+        Files.writeString(pidFile, "garbage");
+
+        assertThat(PidRegistry.find(NAME)).isNull();
+        assertThat(Files.exists(pidFile)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Find all by prefix")
+    void findAllByPrefix() throws IOException {
+        PidRegistry.register(NAME);
+        Path stale = Paths.get(PID_DIR, NAME + "Stale.pid");
+        Files.writeString(stale, ProcessHandle.current().pid() + "\n" + 1);
+
+        assertThat(PidRegistry.findAll(NAME))
+                .extracting(ProcessHandle::pid)
+                .containsExactly(ProcessHandle.current().pid());
+        assertThat(PidRegistry.findAll("noSuchActor")).isEmpty();
+        assertThat(Files.exists(stale)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Remove files of killed processes")
+    void removeStale() throws IOException, InterruptedException {
+        PidRegistry.register(NAME);
+        Process killed = new ProcessBuilder("sleep", "30").start();
+        Path killedFile = Paths.get(PID_DIR, NAME + "Killed.pid");
+        try {
+            PidRegistry.register(NAME + "Killed", killed.toHandle());
+            killed.destroyForcibly().waitFor();
+
+            assertThat(PidRegistry.removeStale()).isPositive();
+            assertThat(Files.exists(killedFile)).isFalse();
+            assertThat(Files.exists(pidFile)).isTrue();
+        } finally {
+            Utils.tryDelete(killedFile);
+        }
+    }
+
+    @Test
+    @DisplayName("Empty name")
+    void emptyName() {
+        assertThrows(IllegalArgumentException.class, () -> PidRegistry.register(""));
+        assertThrows(IllegalArgumentException.class, () -> PidRegistry.find(null));
+    }
+}
@@ -0,0 +1,165 @@
+package devs.lair.ipc.jmx.service;
+
+import devs.lair.ipc.jmx.service.model.RoundRecord.Outcome;
+import devs.lair.ipc.jmx.utils.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static devs.lair.ipc.jmx.utils.Constants.PLAYER_DIR;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlayerProviderTest {
+    private final List<Path> playerFiles = new ArrayList<>();
+    private final PlayerProvider playerProvider = new PlayerProvider(new ArbiterProvider());
+
+    @BeforeAll
+    static void createPlayerDir() throws IOException {
+        Utils.createDirectoryIfNotExist(Paths.get(PLAYER_DIR));
+    }
+
+    @AfterEach
+    void deletePlayerFiles() {
+        playerFiles.forEach(Utils::tryDelete);
+    }
+
+    @Test
+    @DisplayName("Lease pair")
+    void leasePair() throws IOException {
+        String first = addPlayer();
+        String second = addPlayer();
+
+        assertThat(playerProvider.leasePair("arbiter")).containsExactly(first, second);
+        assertThat(playerProvider.getQuerySize()).isZero();
+        assertThat(playerProvider.getProvidedPlayersCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Lease pair with one player")
+    void leasePairWithOnePlayer() throws IOException {
+        String single = addPlayer();
+
+        assertThat(playerProvider.leasePair("arbiter")).isNull();
+        assertThat(playerProvider.getQuerySize()).isEqualTo(1);
+        assertThat(playerProvider.getPlayerName("arbiter", 0)).isEqualTo(single);
+    }
+
+    @Test
+    @DisplayName("Lease pair skips deleted players")
+    void leasePairSkipsDeletedPlayers() throws IOException {
+        String first = addPlayer();
+        String dead = addPlayer();
+        String second = addPlayer();
+        Utils.tryDelete(Utils.getPathFromName(dead));
+        playerProvider.removePlayer(dead);
+
+        assertThat(playerProvider.leasePair("arbiter")).containsExactly(first, second);
+    }
+
+    @Test
+    @DisplayName("Returned twice is queued once")
+    void returnedTwiceQueuedOnce() throws IOException {
+        String playerName = addPlayer();
+        playerProvider.returnPlayer("arbiter", playerName);
+        playerProvider.returnZombiePlayers(new String[]{playerName, null});
+
+        assertThat(playerProvider.getQuerySize()).isEqualTo(1);
+        assertThat(playerProvider.getReturnedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Queue wait and game are timed")
+    void finishedGameIsTimed() throws IOException {
+        addPlayer();
+        addPlayer();
+        String[] pair = playerProvider.leasePair("arbiter");
+        playerProvider.finishPlayer("arbiter", pair);
+
+        assertThat(playerProvider.getMatchCount()).isEqualTo(1);
+        assertThat(playerProvider.getMatchNanos()).isPositive();
+        assertThat(playerProvider.getMetrics().getQueueWait().getCount()).isEqualTo(2);
+        assertThat(playerProvider.getMetrics().getLeaseLatency().getCount()).isEqualTo(1);
+        assertThat(playerProvider.getMetrics().getMatchDuration().getCount()).isEqualTo(1);
+
+        playerProvider.finishPlayer("arbiter", new String[]{"unknown", null});
+        assertThat(playerProvider.getMatchCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Reported rounds reach leaderboard")
+    void reportedRounds() throws RemoteException {
+        playerProvider.reportRounds("arbiter", new String[]{"a", "b", null, "b"},
+                new byte[]{(byte) Outcome.SECOND_WINS.ordinal(), (byte) Outcome.TIMEOUT.ordinal()});
+
+        assertThat(playerProvider.getLeaderboard().getStats("b").wins()).isEqualTo(1);
+        assertThat(playerProvider.getLeaderboard().getStats("b").timeouts()).isEqualTo(1);
+        assertThat(playerProvider.getLeaderboard().getRoundsCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Directory changes update queue")
+    void directoryChanges() throws IOException {
+        String playerName = Utils.generateUniqueName("player");
+        playerFiles.add(Files.createFile(Utils.getPathFromName(playerName)));
+
+        playerProvider.onPlayersChanged(new DirWatcher.Changes(
+                Set.of(playerName + ".move", "other.tmp"), Set.of(), Set.of(), false));
+        assertThat(playerProvider.getQuerySize()).isEqualTo(1);
+        assertThat(playerProvider.getTotalPlayersCount()).isEqualTo(1);
+
+        playerProvider.onPlayersChanged(new DirWatcher.Changes(
+                Set.of(), Set.of(), Set.of(playerName + ".move"), true));
+        assertThat(playerProvider.getQuerySize()).isZero();
+    }
+
+    @Test
+    @DisplayName("Silent player is removed from queue")
+    void silentQueuedPlayer(@TempDir Path tempDir) throws IOException {
+        HeartbeatTable table = new HeartbeatTable(tempDir.resolve("heartbeat.table"), 8);
+        HeartbeatMonitor monitor = new HeartbeatMonitor(table);
+        String silent = addPlayer();
+        String alive = addPlayer();
+        HeartbeatTable.Heartbeat silentBeat = table.claim(silent);
+        HeartbeatTable.Heartbeat aliveBeat = table.claim(alive);
+        silentBeat.beat(5);
+        aliveBeat.beat(5);
+
+        long timeout = ms(250);
+        playerProvider.findAndKillZombie(monitor, 0, timeout);
+        aliveBeat.beat(5);
+        //Пропущено больше ударов, но молчит меньше таймаута
+        playerProvider.findAndKillZombie(monitor, ms(100), timeout);
+        assertThat(playerProvider.getQuerySize()).isEqualTo(2);
+
+        aliveBeat.beat(5);
+        playerProvider.findAndKillZombie(monitor, ms(300), timeout);
+        assertThat(playerProvider.getQuerySize()).isEqualTo(1);
+        assertThat(playerProvider.getZombieCount()).isEqualTo(1);
+        assertThat(Files.exists(Utils.getPathFromName(silent))).isFalse();
+        assertThat(playerProvider.getPlayerName("arbiter", 0)).isEqualTo(alive);
+    }
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private String addPlayer() throws IOException {
+        String playerName = Utils.generateUniqueName("player");
+        Path playerFile = Files.createFile(Utils.getPathFromName(playerName));
+        playerFiles.add(playerFile);
+        playerProvider.returnPlayer("arbiter", playerName);
+        return playerName;
+    }
+}
@@ -0,0 +1,101 @@
+package devs.lair.ipc.jmx.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlayerQueueTest {
+    private final PlayerQueue queue = new PlayerQueue();
+
+    @Test
+    @DisplayName("Empty queue")
+    void emptyQueue() {
+        assertThat(queue.poll()).isNull();
+        assertThat(queue.pollPair()).isNull();
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Set semantics")
+    void setSemantics() {
+        assertThat(queue.offer("a")).isTrue();
+        assertThat(queue.offer("a")).isFalse();
+        assertThat(queue.offer(null)).isFalse();
+
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Fifo for new players")
+    void fifo() {
+        queue.offer("a");
+        queue.offer("b");
+        queue.offer("c");
+
+        assertThat(queue.poll()).isEqualTo("a");
+        assertThat(queue.pollPair()).containsExactly("b", "c");
+    }
+
+    @Test
+    @DisplayName("Remove by name")
+    void removeByName() {
+        queue.offer("a");
+        queue.offer("b");
+        queue.offer("c");
+
+        assertThat(queue.remove("b")).isTrue();
+        assertThat(queue.remove("c")).isTrue();
+        assertThat(queue.remove("missing")).isFalse();
+
+        assertThat(queue.contains("b")).isFalse();
+        assertThat(queue.pollPair()).isNull();
+        assertThat(queue.poll()).isEqualTo("a");
+    }
+
+    @Test
+    @DisplayName("Returned player keeps its age")
+    void returnedKeepsAge() {
+        queue.offer("old");
+        assertThat(queue.poll()).isEqualTo("old");
+
+        queue.offer("new1");
+        queue.offer("new2");
+        queue.offer("old");
+
+        assertThat(queue.poll()).isEqualTo("old");
+        assertThat(queue.poll()).isEqualTo("new1");
+    }
+
+    @Test
+    @DisplayName("Returned players are served by age, not by return order")
+    void returnedOrderedByAge() {
+        queue.offer("b");
+        queue.offer("c");
+        queue.offer("a");
+        assertThat(queue.pollPair()).containsExactly("b", "c");
+        assertThat(queue.poll()).isEqualTo("a");
+
+        queue.offer("d");
+        queue.offer("a");
+        queue.offer("b");
+        queue.offer("c");
+
+        assertThat(queue.poll()).isEqualTo("b");
+        assertThat(queue.poll()).isEqualTo("c");
+        assertThat(queue.poll()).isEqualTo("a");
+        assertThat(queue.poll()).isEqualTo("d");
+        assertThat(queue.poll()).isNull();
+    }
+
+    @Test
+    @DisplayName("Removed player gets new age")
+    void removedGetsNewAge() {
+        queue.offer("a");
+        queue.remove("a");
+        queue.offer("b");
+        queue.offer("a");
+
+        assertThat(queue.poll()).isEqualTo("b");
+    }
+}
@@ -0,0 +1,147 @@
+package devs.lair.ipc.jmx.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WatchHubTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final WatchHub hub = new WatchHub();
+    private final List<DirWatcher> watchers = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        watchers.forEach(DirWatcher::close);
+        hub.close();
+    }
+
+    @Test
+    @DisplayName("Many directories share one thread, events are routed by key")
+    void manyDirectories() throws Exception {
+        long threadsBefore = countHubThreads();
+        List<List<DirWatcher.Changes>> batches = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batches.add(watch(Files.createDirectory(tempDir.resolve("dir" + i)), false));
+        }
+
+        assertThat(countHubThreads()).isLessThanOrEqualTo(threadsBefore + 1);
+        assertThat(hub.getDirectoriesCount()).isEqualTo(20);
+
+        for (int i = 0; i < 20; i++) {
+            Files.createFile(tempDir.resolve("dir" + i).resolve("player" + i + ".move"));
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(await(batches.get(i), DirWatcher.Changes::created, 1))
+                    .containsExactly("player" + i + ".move");
+        }
+    }
+
+    @Test
+    @DisplayName("Same directory is registered once for two watchers")
+    void sameDirectory() throws Exception {
+        List<DirWatcher.Changes> first = watch(tempDir, false);
+        List<DirWatcher.Changes> second = watch(tempDir, false);
+        assertThat(hub.getDirectoriesCount()).isEqualTo(1);
+
+        Files.createFile(tempDir.resolve("a.move"));
+        assertThat(await(first, DirWatcher.Changes::created, 1)).containsExactly("a.move");
+        assertThat(await(second, DirWatcher.Changes::created, 1)).containsExactly("a.move");
+
+        watchers.getFirst().close();
+        assertThat(hub.getDirectoriesCount()).isEqualTo(1);
+
+        Files.createFile(tempDir.resolve("b.move"));
+        assertThat(await(second, DirWatcher.Changes::created, 2)).contains("b.move");
+
+        watchers.getLast().close();
+        assertThat(hub.getDirectoriesCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Recursive watcher follows new subdirectories")
+    void recursive() throws Exception {
+        Files.createDirectories(tempDir.resolve("a"));
+        Files.createFile(tempDir.resolve("a").resolve("x.move"));
+        List<DirWatcher.Changes> batches = watch(tempDir, true);
+        assertThat(watchers.getFirst().getEntries()).containsExactlyInAnyOrder("a", path("a", "x.move"));
+
+        Path nested = Files.createDirectories(tempDir.resolve("b").resolve("c"));
+        Files.createFile(nested.resolve("y.move"));
+        assertThat(await(batches, DirWatcher.Changes::created, 3))
+                .containsExactlyInAnyOrder("b", path("b", "c"), path("b", "c", "y.move"));
+
+        try (Stream<Path> tree = Files.walk(tempDir.resolve("b"))) {
+            for (Path path : tree.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+        assertThat(await(batches, DirWatcher.Changes::deleted, 3))
+                .containsExactlyInAnyOrder("b", path("b", "c"), path("b", "c", "y.move"));
+        assertThat(watchers.getFirst().getEntries()).containsExactlyInAnyOrder("a", path("a", "x.move"));
+    }
+
+    @Test
+    @DisplayName("Events before start are published on start")
+    void eventsBeforeStart() throws Exception {
+        DirWatcher watcher = new DirWatcher(tempDir.toString(), 0, false, hub);
+        watchers.add(watcher);
+        List<DirWatcher.Changes> batches = new CopyOnWriteArrayList<>();
+        watcher.addChangesListener(batches::add);
+
+        Files.createFile(tempDir.resolve("early.move"));
+        Thread.sleep(100);
+        assertThat(batches).isEmpty();
+
+        watcher.startWatch();
+        assertThat(await(batches, DirWatcher.Changes::created, 1)).containsExactly("early.move");
+    }
+
+    private List<DirWatcher.Changes> watch(Path dir, boolean recursive) {
+        DirWatcher watcher = new DirWatcher(dir.toString(), 0, recursive, hub);
+        watchers.add(watcher);
+        List<DirWatcher.Changes> batches = new CopyOnWriteArrayList<>();
+        watcher.addChangesListener(batches::add);
+        watcher.startWatch();
+        return batches;
+    }
+
+    private static Set<String> await(List<DirWatcher.Changes> batches,
+                                     Function<DirWatcher.Changes, Set<String>> part,
+                                     int count) throws InterruptedException {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < 500 && names.size() < count; i++) {
+            Thread.sleep(10);
+            names.clear();
+            batches.forEach(changes -> names.addAll(part.apply(changes)));
+        }
+        return names;
+    }
+
+    private static long countHubThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("WatchHub"))
+                .count();
+    }
+
+    private static String path(String first, String... more) {
+        return Path.of(first, more).toString();
+    }
+}
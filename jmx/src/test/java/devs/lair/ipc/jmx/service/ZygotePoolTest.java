@@ -0,0 +1,82 @@
+package devs.lair.ipc.jmx.service;
+
+import devs.lair.ipc.jmx.utils.Utils;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import static devs.lair.ipc.jmx.service.enums.ProcessType.CONFIG_LOADER;
+import static devs.lair.ipc.jmx.service.enums.ProcessType.PLAYER;
+import static devs.lair.ipc.jmx.utils.Constants.PLAYER_DIR;
+import static devs.lair.ipc.jmx.utils.Utils.getPathFromName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ZygotePoolTest {
+
+    @BeforeAll
+    static void createPlayerDir() throws IOException {
+        Utils.createDirectoryIfNotExist(Paths.get(PLAYER_DIR));
+    }
+
+    @Test
+    @DisplayName("Unsupported type")
+    void unsupportedType() {
+        assertThrows(IllegalArgumentException.class, () -> new ZygotePool(CONFIG_LOADER, () -> 1));
+        assertThrows(IllegalArgumentException.class, () -> new ZygotePool(PLAYER, null));
+    }
+
+    @Test
+    @DisplayName("Empty pool returns null")
+    void emptyPool() {
+        try (ZygotePool pool = new ZygotePool(PLAYER, () -> 0)) {
+            pool.start();
+            assertThat(pool.take()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Take warm player")
+    void takeWarmPlayer() {
+        try (ZygotePool pool = new ZygotePool(PLAYER, () -> 1)) {
+            pool.start();
+            Awaitility.await().atMost(60, TimeUnit.SECONDS).until(() -> pool.getReadyCount() == 1);
+
+            ZygotePool.WarmProcess warm = pool.take();
+            assertThat(warm).isNotNull();
+
+            try {
+                Awaitility.await().atMost(10, TimeUnit.SECONDS)
+                        .until(() -> Files.exists(getPathFromName(warm.name())));
+            } finally {
+                warm.process().destroyForcibly();
+                Utils.tryDelete(getPathFromName(warm.name()));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Wedged zygote does not block the pool")
+    void wedgedZygote() throws IOException {
+        Process silent = new ProcessBuilder("sleep", "30").start();
+        Process ready = new ProcessBuilder("echo", "READY").start();
+        try {
+            long start = System.nanoTime();
+            assertThat(new ZygotePool.WarmProcess(silent, "silent")
+                    .awaitReady(start + TimeUnit.MILLISECONDS.toNanos(200))).isFalse();
+            assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+
+            assertThat(new ZygotePool.WarmProcess(ready, "ready")
+                    .awaitReady(System.nanoTime() + TimeUnit.SECONDS.toNanos(10))).isTrue();
+        } finally {
+            silent.destroyForcibly();
+            ready.destroyForcibly();
+        }
+    }
+}
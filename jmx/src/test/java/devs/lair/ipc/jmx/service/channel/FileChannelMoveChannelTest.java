@@ -0,0 +1,78 @@
+package devs.lair.ipc.jmx.service.channel;
+
+import devs.lair.ipc.jmx.service.enums.MoveEncoding;
+import devs.lair.ipc.jmx.utils.Move;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileChannelMoveChannelTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Publish, poll and clear through open channels")
+    void publishPollClear() throws IOException {
+        Path playerFile = tempDir.resolve("player.move");
+        try (FileChannelMoveChannel player = FileChannelMoveChannel.create(playerFile, MoveEncoding.BYTE);
+             FileChannelMoveChannel arbiter = FileChannelMoveChannel.open(playerFile)) {
+            assertThat(arbiter.poll()).isNull();
+
+            assertThat(player.publish(Move.SCISSORS)).isTrue();
+            assertThat(player.publish(Move.ROCK)).isFalse();
+            assertThat(Files.readAllBytes(playerFile)).containsExactly(Move.SCISSORS.encode());
+
+            assertThat(arbiter.poll()).isEqualTo(Move.SCISSORS);
+            arbiter.clear();
+            assertThat(arbiter.poll()).isNull();
+
+            assertThat(player.publish(Move.ROCK)).isTrue();
+            assertThat(arbiter.poll()).isEqualTo(Move.ROCK);
+        }
+    }
+
+    @Test
+    @DisplayName("Text encoding is readable by plain file channel")
+    void compatibleWithFileChannel() throws IOException {
+        Path playerFile = tempDir.resolve("player.move");
+        try (FileChannelMoveChannel player = FileChannelMoveChannel.create(playerFile, MoveEncoding.TEXT)) {
+            FileMoveChannel arbiter = new FileMoveChannel(playerFile);
+            player.publish(Move.PAPER);
+
+            assertThat(arbiter.poll()).isEqualTo(Move.PAPER);
+            arbiter.clear();
+            assertThat(player.publish(Move.ROCK)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Player is finished when file is deleted")
+    void finishedOnDelete() throws IOException {
+        Path playerFile = tempDir.resolve("player.move");
+        try (FileChannelMoveChannel player = FileChannelMoveChannel.create(playerFile, MoveEncoding.TEXT)) {
+            assertThat(player.isFinished()).isFalse();
+            Files.delete(playerFile);
+            assertThat(player.isFinished()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Throw on wrong files")
+    void throwOnWrongFiles() throws IOException {
+        Path playerFile = tempDir.resolve("player.move");
+        assertThrows(NoSuchFileException.class, () -> FileChannelMoveChannel.open(playerFile));
+
+        FileChannelMoveChannel.create(playerFile, MoveEncoding.TEXT).close();
+        assertThrows(FileAlreadyExistsException.class, () -> FileChannelMoveChannel.create(playerFile, MoveEncoding.TEXT));
+    }
+}
@@ -0,0 +1,129 @@
+package devs.lair.ipc.jmx.service.channel;
+
+import devs.lair.ipc.jmx.utils.Move;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MemoryMoveChannelTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Publish and poll")
+    void publishAndPoll() throws IOException {
+        Path playerFile = tempDir.resolve("player.move");
+        try (MemoryMoveChannel player = MemoryMoveChannel.create(playerFile);
+             MemoryMoveChannel arbiter = MemoryMoveChannel.open(playerFile)) {
+            assertThat(arbiter.poll()).isNull();
+
+            assertThat(player.publish(Move.ROCK)).isTrue();
+            assertThat(arbiter.poll()).isEqualTo(Move.ROCK);
+            assertThat(arbiter.poll()).isNull();
+
+            assertThat(player.publish(Move.PAPER)).isTrue();
+            assertThat(arbiter.poll()).isEqualTo(Move.PAPER);
+        }
+    }
+
+    @Test
+    @DisplayName("One move per round")
+    void oneMovePerRound() throws IOException {
+        Path playerFile = tempDir.resolve("player.move");
+        try (MemoryMoveChannel player = MemoryMoveChannel.create(playerFile);
+             MemoryMoveChannel arbiter = MemoryMoveChannel.open(playerFile)) {
+            //Игрок ходит каждый тик, пока ждет стол
+            assertThat(player.publish(Move.SCISSORS)).isTrue();
+            for (int i = 0; i < MemoryMoveChannel.CAPACITY; i++) {
+                assertThat(player.publish(Move.ROCK)).isFalse();
+            }
+
+            assertThat(arbiter.poll()).isEqualTo(Move.SCISSORS);
+            arbiter.clear();
+            assertThat(arbiter.poll()).isNull();
+
+            assertThat(player.publish(Move.PAPER)).isTrue();
+            assertThat(player.publish(Move.ROCK)).isFalse();
+            assertThat(arbiter.poll()).isEqualTo(Move.PAPER);
+            arbiter.clear();
+            assertThat(arbiter.poll()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Clear drops unread move")
+    void clearDropsUnread() throws IOException {
+        Path playerFile = tempDir.resolve("player.move");
+        try (MemoryMoveChannel player = MemoryMoveChannel.create(playerFile);
+             MemoryMoveChannel arbiter = MemoryMoveChannel.open(playerFile)) {
+            assertThat(player.publish(Move.ROCK)).isTrue();
+            arbiter.clear();
+            assertThat(arbiter.poll()).isNull();
+
+            assertThat(player.publish(Move.PAPER)).isTrue();
+            assertThat(arbiter.poll()).isEqualTo(Move.PAPER);
+        }
+    }
+
+    @Test
+    @DisplayName("New arbiter continues from consumed position")
+    void reopenByAnotherArbiter() throws IOException {
+        Path playerFile = tempDir.resolve("player.move");
+        try (MemoryMoveChannel player = MemoryMoveChannel.create(playerFile)) {
+            player.publish(Move.ROCK);
+            try (MemoryMoveChannel first = MemoryMoveChannel.open(playerFile)) {
+                assertThat(first.poll()).isEqualTo(Move.ROCK);
+            }
+
+            player.publish(Move.PAPER);
+            try (MemoryMoveChannel second = MemoryMoveChannel.open(playerFile)) {
+                assertThat(second.poll()).isEqualTo(Move.PAPER);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Finish")
+    void finish() throws IOException {
+        Path playerFile = tempDir.resolve("player.move");
+        try (MemoryMoveChannel player = MemoryMoveChannel.create(playerFile);
+             MemoryMoveChannel arbiter = MemoryMoveChannel.open(playerFile)) {
+            assertThat(player.isFinished()).isFalse();
+            arbiter.finish();
+            assertThat(player.isFinished()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Close unmaps once")
+    void closeTwice() throws IOException {
+        Path playerFile = tempDir.resolve("player.move");
+        MemoryMoveChannel player = MemoryMoveChannel.create(playerFile);
+        player.publish(Move.ROCK);
+        player.close();
+        player.close();
+
+        try (MemoryMoveChannel arbiter = MemoryMoveChannel.open(playerFile)) {
+            assertThat(arbiter.poll()).isEqualTo(Move.ROCK);
+        }
+    }
+
+    @Test
+    @DisplayName("Throw on wrong files")
+    void throwOnWrongFiles() throws IOException {
+        Path playerFile = tempDir.resolve("player.move");
+        assertThrows(NoSuchFileException.class, () -> MemoryMoveChannel.open(playerFile));
+
+        MemoryMoveChannel.create(playerFile).close();
+        assertThrows(FileAlreadyExistsException.class, () -> MemoryMoveChannel.create(playerFile));
+    }
+}
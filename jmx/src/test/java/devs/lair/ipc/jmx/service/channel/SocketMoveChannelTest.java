@@ -0,0 +1,131 @@
+package devs.lair.ipc.jmx.service.channel;
+
+import devs.lair.ipc.jmx.utils.Move;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SocketMoveChannelTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Publish and poll")
+    void publishAndPoll() throws Exception {
+        Path playerFile = tempDir.resolve("player.move");
+        try (SocketMoveChannel player = SocketMoveChannel.create(playerFile)) {
+            assertThat(Files.exists(playerFile)).isTrue();
+            assertThat(player.publish(Move.ROCK)).isFalse();
+
+            try (SocketMoveChannel arbiter = SocketMoveChannel.open(playerFile)) {
+                assertThat(arbiter.poll()).isNull();
+
+                assertThat(player.publish(Move.ROCK)).isTrue();
+                assertThat(player.publish(Move.PAPER)).isTrue();
+
+                assertThat(pollMove(arbiter)).isEqualTo(Move.ROCK);
+                assertThat(pollMove(arbiter)).isEqualTo(Move.PAPER);
+                assertThat(arbiter.poll()).isNull();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Clear drops stale moves")
+    void clearDropsStale() throws Exception {
+        Path playerFile = tempDir.resolve("player.move");
+        try (SocketMoveChannel player = SocketMoveChannel.create(playerFile);
+             SocketMoveChannel arbiter = SocketMoveChannel.open(playerFile)) {
+            player.publish(Move.ROCK);
+            player.publish(Move.ROCK);
+            assertThat(pollMove(arbiter)).isEqualTo(Move.ROCK);
+
+            arbiter.clear();
+            assertThat(arbiter.poll()).isNull();
+
+            player.publish(Move.SCISSORS);
+            assertThat(pollMove(arbiter)).isEqualTo(Move.SCISSORS);
+        }
+    }
+
+    @Test
+    @DisplayName("Finish reaches player")
+    void finish() throws Exception {
+        Path playerFile = tempDir.resolve("player.move");
+        try (SocketMoveChannel player = SocketMoveChannel.create(playerFile);
+             SocketMoveChannel arbiter = SocketMoveChannel.open(playerFile)) {
+            player.publish(Move.ROCK);
+            assertThat(player.isFinished()).isFalse();
+
+            arbiter.finish();
+            for (int i = 0; i < 100 && !player.isFinished(); i++) {
+                Thread.sleep(10);
+            }
+            assertThat(player.isFinished()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Player serves next arbiter")
+    void nextArbiter() throws Exception {
+        Path playerFile = tempDir.resolve("player.move");
+        try (SocketMoveChannel player = SocketMoveChannel.create(playerFile)) {
+            try (SocketMoveChannel first = SocketMoveChannel.open(playerFile)) {
+                player.publish(Move.ROCK);
+                assertThat(pollMove(first)).isEqualTo(Move.ROCK);
+            }
+
+            try (SocketMoveChannel second = SocketMoveChannel.open(playerFile)) {
+                player.publish(Move.PAPER);
+                assertThat(pollMove(second)).isEqualTo(Move.PAPER);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Player gone")
+    void playerGone() throws Exception {
+        Path playerFile = tempDir.resolve("player.move");
+        SocketMoveChannel player = SocketMoveChannel.create(playerFile);
+        try (SocketMoveChannel arbiter = SocketMoveChannel.open(playerFile)) {
+            player.close();
+            assertThrows(NoSuchFileException.class, () -> {
+                for (int i = 0; i < 100; i++) {
+                    arbiter.poll();
+                    Thread.sleep(10);
+                }
+            });
+        }
+    }
+
+    @Test
+    @DisplayName("Create twice and open missing")
+    void createTwiceAndOpenMissing() throws IOException {
+        Path playerFile = tempDir.resolve("player.move");
+        try (SocketMoveChannel ignored = SocketMoveChannel.create(playerFile)) {
+            assertThrows(FileAlreadyExistsException.class, () -> SocketMoveChannel.create(playerFile));
+        }
+        assertThrows(NoSuchFileException.class, () -> SocketMoveChannel.open(tempDir.resolve("missing.move")));
+    }
+
+    private Move pollMove(SocketMoveChannel arbiter) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            Move move = arbiter.poll();
+            if (move != null) {
+                return move;
+            }
+            Thread.sleep(10);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,57 @@
+package devs.lair.ipc.jmx.service.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    @DisplayName("Empty histogram")
+    void emptyHistogram() {
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getP99Millis()).isZero();
+        assertThat(histogram.getMeanMillis()).isZero();
+    }
+
+    @Test
+    @DisplayName("Bucket bounds cover the value")
+    void bucketBounds() {
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 1000, 123_456_789, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+            assertThat(LatencyHistogram.upperBound(index)).isGreaterThanOrEqualTo(value);
+            assertThat(LatencyHistogram.upperBound(index) - value).isLessThanOrEqualTo(value / 8);
+        }
+    }
+
+    @Test
+    @DisplayName("Percentiles")
+    void percentiles() {
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getP50Millis()).isCloseTo(50, within(50 / 8.0));
+        assertThat(histogram.getP99Millis()).isCloseTo(99, within(99 / 8.0));
+        assertThat(histogram.getMaxMillis()).isEqualTo(100);
+        assertThat(histogram.getMeanMillis()).isCloseTo(50.5, within(0.01));
+    }
+
+    @Test
+    @DisplayName("Reset")
+    void reset() {
+        histogram.record(-5);
+        histogram.record(TimeUnit.SECONDS.toNanos(1));
+        histogram.reset();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMaxMillis()).isZero();
+    }
+}
@@ -0,0 +1,45 @@
+package devs.lair.ipc.jmx.service.metrics;
+
+import devs.lair.ipc.jmx.service.interfaces.BalancerMetricsMBean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsTest {
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    @Test
+    @DisplayName("Register, replace and unregister")
+    void registerAndUnregister() throws Exception {
+        ObjectName objectName = Metrics.getObjectName("metricsTest", null);
+
+        BalancerMetrics first = new BalancerMetrics();
+        Metrics.register("metricsTest", first, BalancerMetricsMBean.class);
+        BalancerMetrics second = new BalancerMetrics();
+        second.onDecision(3);
+        Metrics.register("metricsTest", second, BalancerMetricsMBean.class);
+
+        assertThat(server.getAttribute(objectName, "ArbitersStarted")).isEqualTo(3);
+
+        Metrics.unregister("metricsTest");
+        assertThat(server.isRegistered(objectName)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Rate meter")
+    void rateMeter() {
+        long[] counter = {0};
+        RateMeter rate = new RateMeter(() -> counter[0]);
+
+        rate.tick(0);
+        counter[0] = 10;
+        rate.tick(1_000_000_000L);
+
+        assertThat(rate.getPerSecond()).isPositive();
+    }
+}
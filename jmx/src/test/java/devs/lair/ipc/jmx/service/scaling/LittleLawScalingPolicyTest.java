@@ -0,0 +1,67 @@
+package devs.lair.ipc.jmx.service.scaling;
+
+import devs.lair.ipc.jmx.service.model.LoadSample;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LittleLawScalingPolicyTest {
+    private static final int TABLES = 4;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final LittleLawScalingPolicy policy = new LittleLawScalingPolicy(new ThresholdScalingPolicy());
+
+    @Test
+    @DisplayName("Fallback without measurements")
+    void fallbackWithoutMeasurements() {
+        assertThat(policy.decide(sample(0, 0, 0, 0, 0, 0))).isEqualTo(1);
+        assertThat(policy.decide(sample(SECOND, 1, 30, 10, 0, 0))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Scale up in several steps")
+    void scaleUpInSeveralSteps() {
+        policy.decide(sample(0, 1, 0, 0, 0, 0));
+
+        //40 players per second, 1 second per game: 20 busy tables, 24 with headroom
+        int delta = policy.decide(sample(SECOND, 1, 0, 40, 10, 10 * SECOND));
+        assertThat(delta).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Cooldown after scaling")
+    void cooldownAfterScaling() {
+        policy.decide(sample(0, 1, 0, 0, 0, 0));
+        assertThat(policy.decide(sample(SECOND, 1, 0, 40, 10, 10 * SECOND))).isPositive();
+
+        assertThat(policy.decide(sample(2 * SECOND, 5, 0, 80, 20, 20 * SECOND))).isZero();
+        assertThat(policy.decide(sample(4 * SECOND, 5, 0, 160, 40, 40 * SECOND))).isPositive();
+    }
+
+    @Test
+    @DisplayName("Hysteresis keeps arbiters in dead band")
+    void hysteresis() {
+        policy.decide(sample(0, 2, 0, 0, 0, 0));
+
+        //8 players per second, 1 second per game: 4 tables, 4.8 with headroom
+        assertThat(policy.decide(sample(SECOND, 2, 0, 8, 4, 4 * SECOND))).isZero();
+
+        //Same load later: one arbiter would run above the low watermark, nothing changes
+        assertThat(policy.decide(sample(20 * SECOND, 2, 0, 8 + 19 * 8, 4 + 19 * 4, (4 + 19 * 4) * SECOND)))
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("Scale down when idle")
+    void scaleDownWhenIdle() {
+        policy.decide(sample(0, 6, 0, 0, 0, 0));
+        assertThat(policy.decide(sample(SECOND, 6, 0, 0, 1, SECOND))).isEqualTo(-4);
+    }
+
+    private LoadSample sample(long time, int arbiters, int querySize, int added, int matches, long matchNanos) {
+        return new LoadSample(time, arbiters, TABLES, arbiters * TABLES, querySize, added, matches, matchNanos);
+    }
+}
@@ -0,0 +1,100 @@
+package devs.lair.ipc.jmx.service.socket;
+
+import devs.lair.ipc.jmx.service.interfaces.IPlayerProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.rmi.RemoteException;
+import java.rmi.ServerException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class ProviderSocketServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final IPlayerProvider target = mock(IPlayerProvider.class);
+    private ProviderSocketServer server;
+    private SocketPlayerProvider client;
+
+    @BeforeEach
+    void start() throws IOException {
+        Path socketFile = tempDir.resolve("provider.sock");
+        server = new ProviderSocketServer(target, socketFile);
+        server.start();
+        client = SocketPlayerProvider.connect(socketFile);
+    }
+
+    @AfterEach
+    void stop() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Calls reach provider")
+    void calls() throws RemoteException {
+        when(target.leasePair("arbiter")).thenReturn(new String[]{"a", "b"}, (String[]) null);
+        when(target.getPlayerName("arbiter", 1)).thenReturn("c");
+
+        assertThat(client.leasePair("arbiter")).containsExactly("a", "b");
+        assertThat(client.leasePair("arbiter")).isNull();
+        assertThat(client.getPlayerName("arbiter", 1)).isEqualTo("c");
+
+        client.returnPlayer("arbiter", "a");
+        client.killZombie("arbiter", "b");
+        client.finishPlayer("arbiter", new String[]{"a", null});
+        client.reportCapacity("arbiter", 3, 8);
+        client.reportRounds("arbiter", new String[]{"a", "b"}, new byte[]{2});
+
+        verify(target).returnPlayer("arbiter", "a");
+        verify(target).killZombie("arbiter", "b");
+        verify(target).finishPlayer("arbiter", new String[]{"a", null});
+        verify(target).reportCapacity("arbiter", 3, 8);
+        verify(target).reportRounds("arbiter", new String[]{"a", "b"}, new byte[]{2});
+    }
+
+    @Test
+    @DisplayName("Large frame")
+    void largeFrame() throws RemoteException {
+        String[] players = new String[20_000];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = "player-" + i;
+        }
+        client.reportRounds("arbiter", players, new byte[players.length / 2]);
+
+        verify(target).reportRounds(eq("arbiter"), eq(players), any());
+    }
+
+    @Test
+    @DisplayName("Provider error keeps connection")
+    void providerError() throws RemoteException {
+        doThrow(new IllegalArgumentException("bad")).when(target).reportRounds(any(), any(), any());
+
+        ServerException error = assertThrows(ServerException.class,
+                () -> client.reportRounds("arbiter", new String[0], new byte[0]));
+        assertThat(error.getMessage()).contains("bad");
+
+        client.reportCapacity("arbiter", 1, 1);
+        verify(target).reportCapacity("arbiter", 1, 1);
+    }
+
+    @Test
+    @DisplayName("Closed server")
+    void closedServer() {
+        server.close();
+
+        assertThat(Files.exists(tempDir.resolve("provider.sock"))).isFalse();
+        assertThrows(RemoteException.class, () -> client.reportCapacity("arbiter", 1, 1));
+        assertThrows(RemoteException.class, () -> SocketPlayerProvider.connect(tempDir.resolve("provider.sock")));
+    }
+}
@@ -0,0 +1,83 @@
+package devs.lair.ipc.jmx.service.tournament;
+
+import devs.lair.ipc.jmx.utils.OutcomeTable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static devs.lair.ipc.jmx.service.tournament.TournamentResult.PlayerStats;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TournamentTest {
+
+    @Test
+    @DisplayName("Result does not depend on parallelism")
+    void deterministic() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(4);
+        try {
+            List<PlayerStats> first = classic(42).play(2_000, single).getLeaders(4);
+            List<PlayerStats> second = classic(42).play(2_000, several).getLeaders(4);
+            assertThat(second).isEqualTo(first);
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Every round is counted for both players")
+    void totals() {
+        TournamentResult result = classic(7).play(1_000);
+
+        //4 игрока - 6 пар, по 1000 матчей из 5 раундов
+        assertThat(result.getRounds()).isEqualTo(6 * 1_000 * 5);
+        List<PlayerStats> stats = result.getLeaders(10);
+        assertThat(stats).hasSize(4);
+
+        long wins = stats.stream().mapToLong(PlayerStats::wins).sum();
+        long losses = stats.stream().mapToLong(PlayerStats::losses).sum();
+        long draws = stats.stream().mapToLong(PlayerStats::draws).sum();
+        assertThat(wins).isEqualTo(losses);
+        assertThat(wins + losses + draws).isEqualTo(result.getRounds() * 2);
+        for (PlayerStats player : stats) {
+            assertThat(player.points()).isEqualTo(player.wins() * 3 + player.draws());
+        }
+    }
+
+    @Test
+    @DisplayName("Counter strategy beats constant one")
+    void counterBeatsConstant() {
+        for (OutcomeTable table : new OutcomeTable[]{OutcomeTable.CLASSIC, OutcomeTable.RPSLS}) {
+            Tournament tournament = new Tournament(table, 5, 1);
+            tournament.addPlayer("constant", Strategies.CONSTANT);
+            tournament.addPlayer("counter", Strategies.COUNTER);
+            TournamentResult result = tournament.play(100);
+
+            assertThat(result.getLeaders(1).get(0).name()).isEqualTo("counter");
+            //После первого раунда counter всегда выигрывает
+            assertThat(result.getStats("counter").wins()).isGreaterThanOrEqualTo(100 * 4);
+            assertThat(result.getStats("unknown")).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Tournament needs two players")
+    void notEnoughPlayers() {
+        Tournament tournament = new Tournament(OutcomeTable.CLASSIC, 5, 1);
+        tournament.addPlayer("alone", Strategies.RANDOM);
+        assertThrows(IllegalStateException.class, () -> tournament.play(1));
+        assertThrows(IllegalArgumentException.class, () -> new Tournament(OutcomeTable.CLASSIC, 0, 1));
+    }
+
+    private Tournament classic(long seed) {
+        Tournament tournament = new Tournament(OutcomeTable.CLASSIC, 5, seed);
+        for (String strategy : new String[]{"random", "constant", "cycle", "counter"}) {
+            tournament.addPlayer(strategy, Strategies.valueOf(strategy));
+        }
+        return tournament;
+    }
+}
@@ -1,5 +1,6 @@
 package devs.lair.ipc.jmx.utils;
 
+import devs.lair.ipc.jmx.service.enums.MoveEncoding;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -82,4 +83,24 @@ class MoveTest {
         assertDoesNotThrow(Move::getRandomMoveBytes);
         assertDoesNotThrow(Move::getRandomMoveBytes);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Byte and text codecs")
+    void encodeDecode() {
+        byte[] buffer = new byte[Move.MAX_ENCODED_LENGTH + 2];
+        for (Move move : Move.values()) {
+            assertThat(Move.decode(move.encode())).isEqualTo(move);
+
+            assertThat(move.encode(buffer, 2, MoveEncoding.BYTE)).isEqualTo(1);
+            assertThat(Move.decode(buffer, 2, 1)).isEqualTo(move);
+
+            int length = move.encode(buffer, 2, MoveEncoding.TEXT);
+            assertThat(new String(buffer, 2, length)).isEqualTo(move.name());
+            assertThat(Move.decode(buffer, 2, length)).isEqualTo(move);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> Move.decode((byte) 'R'));
+        assertThrows(IllegalArgumentException.class, () -> Move.decode((byte) 0x83));
+        assertThrows(IllegalArgumentException.class, () -> Move.decode("ROC".getBytes(), 0, 3));
+    }
+}
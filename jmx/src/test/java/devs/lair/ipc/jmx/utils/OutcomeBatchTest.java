@@ -0,0 +1,75 @@
+package devs.lair.ipc.jmx.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OutcomeBatchTest {
+
+    @Test
+    @DisplayName("Batch matches pairwise comparison")
+    void matchesCompare() {
+        Random random = new Random(42);
+        OutcomeTable[] tables = {OutcomeTable.CLASSIC, OutcomeTable.RPSLS, OutcomeTable.balanced(7), OutcomeTable.balanced(11)};
+        for (OutcomeTable table : tables) {
+            //Длины с хвостом короче вектора
+            for (int length : new int[]{0, 1, 63, 64, 65, 1000}) {
+                byte[] first = new byte[length];
+                byte[] second = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    first[i] = (byte) random.nextInt(table.size());
+                    second[i] = (byte) random.nextInt(table.size());
+                }
+
+                byte[] batch = new byte[length];
+                byte[] scalar = new byte[length];
+                OutcomeBatch.evaluate(table, first, second, batch);
+                OutcomeBatch.evaluateScalar(table, first, second, scalar);
+
+                for (int i = 0; i < length; i++) {
+                    assertThat(batch[i]).isEqualTo((byte) table.compare(first[i], second[i]));
+                }
+                assertThat(scalar).isEqualTo(batch);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Classic moves use move ordinals")
+    void classic() {
+        Move[] moves = Move.values();
+        byte[] first = new byte[moves.length * moves.length];
+        byte[] second = new byte[first.length];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = (byte) moves[i / moves.length].ordinal();
+            second[i] = (byte) moves[i % moves.length].ordinal();
+        }
+
+        byte[] outcomes = new byte[first.length];
+        OutcomeBatch.evaluate(OutcomeTable.CLASSIC, first, second, outcomes);
+        for (int i = 0; i < first.length; i++) {
+            assertThat(outcomes[i]).isEqualTo((byte) moves[first[i]].compareWith(moves[second[i]]));
+        }
+        assertThat(OutcomeBatch.isVectorized(OutcomeTable.balanced(101))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Invalid batch is rejected")
+    void invalid() {
+        byte[] moves = new byte[100];
+        byte[] invalid = new byte[100];
+        invalid[70] = 3;
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> OutcomeBatch.evaluate(OutcomeTable.CLASSIC, moves, invalid, new byte[100]));
+
+        invalid[70] = -1;
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> OutcomeBatch.evaluate(OutcomeTable.CLASSIC, invalid, moves, new byte[100]));
+        assertThrows(IllegalArgumentException.class,
+                () -> OutcomeBatch.evaluate(OutcomeTable.CLASSIC, moves, new byte[10], new byte[100]));
+    }
+}
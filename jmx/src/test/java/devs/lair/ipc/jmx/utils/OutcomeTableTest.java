@@ -0,0 +1,99 @@
+package devs.lair.ipc.jmx.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static devs.lair.ipc.jmx.utils.OutcomeTable.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OutcomeTableTest {
+
+    @Test
+    @DisplayName("Classic table follows move order")
+    void classic() {
+        for (Move move : Move.values()) {
+            assertThat(CLASSIC.getMove(move.ordinal())).isEqualTo(move.name());
+        }
+        assertThat(CLASSIC.compare(Move.ROCK.ordinal(), Move.SCISSORS.ordinal())).isEqualTo(FIRST_WINS);
+        assertThat(CLASSIC.compare(Move.ROCK.ordinal(), Move.PAPER.ordinal())).isEqualTo(SECOND_WINS);
+        assertThat(CLASSIC.compare(Move.PAPER.ordinal(), Move.PAPER.ordinal())).isEqualTo(DRAW);
+    }
+
+    @Test
+    @DisplayName("Rock paper scissors lizard spock")
+    void rpsls() {
+        assertThat(RPSLS.size()).isEqualTo(5);
+        assertBalanced(RPSLS);
+        assertThat(wins(RPSLS, "SPOCK", "ROCK")).isEqualTo(FIRST_WINS);
+        assertThat(wins(RPSLS, "LIZARD", "SCISSORS")).isEqualTo(SECOND_WINS);
+        assertThat(wins(RPSLS, "PAPER", "SPOCK")).isEqualTo(FIRST_WINS);
+    }
+
+    @Test
+    @DisplayName("Balanced variants")
+    void balancedVariants() {
+        for (int size : new int[]{3, 7, 15}) {
+            OutcomeTable table = OutcomeTable.balanced(size);
+            assertThat(table.size()).isEqualTo(size);
+            assertBalanced(table);
+        }
+    }
+
+    @Test
+    @DisplayName("Rules are parsed in order of mention")
+    void parseRules() {
+        OutcomeTable table = OutcomeTable.parse("""
+                # кто кого бьет
+                fire = grass
+                grass = water
+                water = fire
+                """);
+
+        assertThat(table.size()).isEqualTo(3);
+        assertThat(table.getMove(0)).isEqualTo("FIRE");
+        assertBalanced(table);
+        assertThat(wins(table, "WATER", "FIRE")).isEqualTo(FIRST_WINS);
+        assertThat(table.indexOf("STONE")).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("Throw on wrong rules")
+    void wrongRules() {
+        assertThrows(IllegalArgumentException.class, () -> OutcomeTable.parse("A = B\nB = A"));
+        assertThrows(IllegalArgumentException.class, () -> OutcomeTable.parse("A = A"));
+        assertThrows(IllegalArgumentException.class, () -> OutcomeTable.parse("A B"));
+        assertThrows(IllegalArgumentException.class, () -> OutcomeTable.balanced(4));
+    }
+
+    private static int wins(OutcomeTable table, String first, String second) {
+        return table.compare(table.indexOf(first), table.indexOf(second));
+    }
+
+    @Test
+    @DisplayName("Select moves in given order")
+    void selectMoves() {
+        OutcomeTable selected = RPSLS.select("ROCK", "SCISSORS", "PAPER");
+        assertThat(selected.size()).isEqualTo(3);
+        for (Move first : Move.values()) {
+            for (Move second : Move.values()) {
+                assertThat(selected.compare(first.ordinal(), second.ordinal()))
+                        .isEqualTo(CLASSIC.compare(first.ordinal(), second.ordinal()));
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> CLASSIC.select("ROCK", "SPOCK"));
+    }
+
+    private static void assertBalanced(OutcomeTable table) {
+        for (int first = 0; first < table.size(); first++) {
+            int won = 0;
+            for (int second = 0; second < table.size(); second++) {
+                assertThat(table.compare(first, second)).isEqualTo(-table.compare(second, first));
+                if (table.compare(first, second) == FIRST_WINS) won++;
+            }
+            assertThat(table.compare(first, first)).isEqualTo(DRAW);
+            assertThat(won).isEqualTo(table.size() / 2);
+        }
+    }
+}